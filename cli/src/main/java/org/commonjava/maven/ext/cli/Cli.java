@@ -55,6 +55,7 @@ import org.codehaus.plexus.PlexusContainerException;
 import org.codehaus.plexus.component.repository.exception.ComponentLookupException;
 import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
 import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.common.model.SimpleScopedArtifactRef;
 import org.commonjava.maven.ext.core.ManipulationManager;
 import org.commonjava.maven.ext.core.ManipulationSession;
@@ -339,8 +340,16 @@ public class Cli
             }
             else if ( cmd.hasOption( 'p' ) || cmd.hasOption( "printGAVTC" ) )
             {
-                Set<ArtifactRef> ts = RESTManipulator.establishAllDependencies( session, pomIO.parseProject( session.getPom() ),
-                                                                                activeProfiles );
+                Set<ArtifactRef> ts;
+                try
+                {
+                    ts = RESTManipulator.establishAllDependencies( session, pomIO.parseProject( session.getPom() ),
+                                                                   activeProfiles );
+                }
+                finally
+                {
+                    pomIO.release();
+                }
                 logger.info( "Found {} dependencies. {}", ts.size(), ts );
                 File output = null;
 
@@ -391,6 +400,13 @@ public class Cli
             logger.debug( "POM Manipulation error trace is", e );
             return 10;
         }
+        catch ( Project.ModelLoadException e )
+        {
+            // A module model that fails to load outside of the manipulation manager e.g. when printing dependencies.
+            logger.error( "POM Manipulation failed; original error is {}", e.getCause().getMessage() );
+            logger.debug( "POM Manipulation error trace is", e.getCause() );
+            return 10;
+        }
         catch ( RestException e )
         {
             logger.error ( "REST communication with {} failed. {}", userProps.getProperty( "restURL" ), e.getMessage () );
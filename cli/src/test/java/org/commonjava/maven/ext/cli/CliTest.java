@@ -35,6 +35,7 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.UUID;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class CliTest
@@ -98,6 +99,24 @@ public class CliTest
         assertTrue( "Session file should match", defaultTarget.equals( session.getPom() ) );
     }
 
+    @Test
+    public void checkPrintWithMalformedModule() throws Exception
+    {
+        File root = temp.newFile( "pom.xml" );
+        FileUtils.writeStringToFile( root, "<project><modelVersion>4.0.0</modelVersion><groupId>org.foo</groupId>"
+                        + "<artifactId>root</artifactId><version>1.0</version><packaging>pom</packaging>"
+                        + "<modules><module>child</module></modules></project>" );
+        FileUtils.writeStringToFile( new File( temp.getRoot(), "child/pom.xml" ),
+                                     "<project><modelVersion>4.0.0</modelVersion><parent><groupId>org.foo</groupId>"
+                                                     + "<artifactId>root</artifactId><version>1.0</version></parent>"
+                                                     + "<artifactId>child</artifactId><foo/></project>" );
+
+        Cli c = new Cli();
+        Object result = executeMethod( c, "run", new Object[] { new String[] { "-f", root.toString(), "-p" } } );
+
+        assertEquals( 10, result );
+    }
+
     @Test
     public void checkLocalRepositoryWithDefaults() throws Exception
     {
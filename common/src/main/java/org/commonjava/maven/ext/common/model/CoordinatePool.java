@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.model;
+
+import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleTypeAndClassifier;
+import org.commonjava.maven.atlas.ident.ref.TypeAndClassifier;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Canonicalizes coordinates and their string parts. A large reactor resolves the same few thousand coordinates over
+ * and over again (once per module, per profile and per REST response) ; creating them through this pool means each
+ * distinct coordinate, and each distinct groupId, artifactId, version, type and classifier, is held on the heap once.
+ * <p>
+ * Entries are weakly referenced so the pool never keeps a coordinate alive by itself. Only the exact atlas classes are
+ * pooled as their equality is class specific ; subclasses such as {@code SimpleScopedArtifactRef} carry extra state
+ * their equality ignores and are passed through untouched by {@link #intern(ProjectRef)}.
+ */
+public final class CoordinatePool
+{
+    private static final Map<String, WeakReference<String>> strings = new WeakHashMap<>();
+
+    private static final Pool<ProjectRef> projectRefs = new Pool<>();
+
+    private static final Pool<ProjectVersionRef> projectVersionRefs = new Pool<>();
+
+    private static final Pool<ArtifactRef> artifactRefs = new Pool<>();
+
+    private static final Pool<TypeAndClassifier> typeAndClassifiers = new Pool<>();
+
+    private CoordinatePool()
+    {
+    }
+
+    /**
+     * @param value a string, may be null.
+     * @return the canonical instance of the string.
+     */
+    public static String intern( final String value )
+    {
+        if ( value == null )
+        {
+            return null;
+        }
+        synchronized ( strings )
+        {
+            final WeakReference<String> ref = strings.get( value );
+            final String canonical = ref == null ? null : ref.get();
+            if ( canonical != null )
+            {
+                return canonical;
+            }
+            strings.put( value, new WeakReference<>( value ) );
+            return value;
+        }
+    }
+
+    public static ProjectRef projectRef( final String groupId, final String artifactId )
+    {
+        final String g = intern( groupId );
+        final String a = intern( artifactId );
+        final Key key = new Key( g, a );
+        final ProjectRef canonical = projectRefs.get( key );
+        return canonical != null ? canonical : projectRefs.put( key, new SimpleProjectRef( g, a ) );
+    }
+
+    public static ProjectVersionRef projectVersionRef( final String groupId, final String artifactId,
+                                                       final String version )
+    {
+        final String g = intern( groupId );
+        final String a = intern( artifactId );
+        final String v = intern( version );
+        final Key key = new Key( g, a, v );
+        final ProjectVersionRef canonical = projectVersionRefs.get( key );
+        return canonical != null ? canonical : projectVersionRefs.put( key, new SimpleProjectVersionRef( g, a, v ) );
+    }
+
+    public static ArtifactRef artifactRef( final String groupId, final String artifactId, final String version,
+                                           final String type, final String classifier )
+    {
+        final String g = intern( groupId );
+        final String a = intern( artifactId );
+        final String v = intern( version );
+        final String t = intern( type );
+        final String c = intern( classifier );
+        final Key key = new Key( g, a, v, t, c );
+        final ArtifactRef canonical = artifactRefs.get( key );
+        return canonical != null ? canonical : artifactRefs.put( key, new SimpleArtifactRef(
+                        projectVersionRef( g, a, v ), typeAndClassifier( t, c ) ) );
+    }
+
+    public static TypeAndClassifier typeAndClassifier( final String type, final String classifier )
+    {
+        final String t = intern( type );
+        final String c = intern( classifier );
+        final Key key = new Key( t, c );
+        final TypeAndClassifier canonical = typeAndClassifiers.get( key );
+        return canonical != null ? canonical : typeAndClassifiers.put( key, new SimpleTypeAndClassifier( t, c ) );
+    }
+
+    /**
+     * Canonicalize an existing coordinate, rebuilding it from canonical parts if it is not yet pooled.
+     *
+     * @param ref the coordinate, may be null.
+     * @param <T> the type of coordinate.
+     * @return the canonical instance, or the coordinate itself if it is not of a pooled class.
+     */
+    @SuppressWarnings( "unchecked" )
+    public static <T extends ProjectRef> T intern( final T ref )
+    {
+        if ( ref == null )
+        {
+            return null;
+        }
+        final Class<?> type = ref.getClass();
+        if ( type == SimpleArtifactRef.class )
+        {
+            final SimpleArtifactRef ar = (SimpleArtifactRef) ref;
+            return (T) artifactRef( ar.getGroupId(), ar.getArtifactId(), ar.getVersionString(), ar.getType(),
+                                    ar.getClassifier() );
+        }
+        else if ( type == SimpleProjectVersionRef.class )
+        {
+            final SimpleProjectVersionRef pvr = (SimpleProjectVersionRef) ref;
+            return (T) projectVersionRef( pvr.getGroupId(), pvr.getArtifactId(), pvr.getVersionString() );
+        }
+        else if ( type == SimpleProjectRef.class )
+        {
+            return (T) projectRef( ref.getGroupId(), ref.getArtifactId() );
+        }
+        return ref;
+    }
+
+    /**
+     * @return the number of distinct coordinates (of all types) currently pooled.
+     */
+    public static int size()
+    {
+        return projectRefs.size() + projectVersionRefs.size() + artifactRefs.size();
+    }
+
+    /**
+     * The string parts a coordinate was created from. Coordinates are pooled by their parts rather than by their own
+     * equality, which parses the version of each side.
+     */
+    private static final class Key
+    {
+        private final String[] parts;
+
+        private final int hash;
+
+        private Key( final String... parts )
+        {
+            this.parts = parts;
+            this.hash = Arrays.hashCode( parts );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals( final Object obj )
+        {
+            return this == obj || obj instanceof Key && Arrays.equals( parts, ( (Key) obj ).parts );
+        }
+    }
+
+    /**
+     * Weakly references its values ; entries are expunged once their value has been collected.
+     */
+    private static final class Pool<T>
+    {
+        private final Map<Key, Entry<T>> pool = new HashMap<>();
+
+        private final ReferenceQueue<T> queue = new ReferenceQueue<>();
+
+        synchronized T get( final Key key )
+        {
+            final Entry<T> entry = pool.get( key );
+            return entry == null ? null : entry.get();
+        }
+
+        /**
+         * @return the value already pooled for the key if there is one, otherwise {@code value}.
+         */
+        synchronized T put( final Key key, final T value )
+        {
+            expunge();
+
+            final Entry<T> entry = pool.get( key );
+            final T canonical = entry == null ? null : entry.get();
+            if ( canonical != null )
+            {
+                return canonical;
+            }
+            pool.put( key, new Entry<>( key, value, queue ) );
+            return value;
+        }
+
+        synchronized int size()
+        {
+            expunge();
+            return pool.size();
+        }
+
+        private void expunge()
+        {
+            Reference<? extends T> ref;
+            while ( ( ref = queue.poll() ) != null )
+            {
+                final Key key = ( (Entry<?>) ref ).key;
+                if ( pool.get( key ) == ref )
+                {
+                    pool.remove( key );
+                }
+            }
+        }
+    }
+
+    private static final class Entry<T>
+        extends WeakReference<T>
+    {
+        private final Key key;
+
+        private Entry( final Key key, final T value, final ReferenceQueue<T> queue )
+        {
+            super( value, queue );
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A single entry of the change journal of a {@link Project}: the path of a value within the model, e.g.
+ * {@code dependencies/org.foo:bar:jar/version}, along with its original and its new value. A value that was added
+ * has no old value and one that was removed has no new value.
+ */
+public final class ModelChange
+{
+    @JsonProperty
+    private final String path;
+
+    @JsonProperty
+    private final String oldValue;
+
+    @JsonProperty
+    private final String newValue;
+
+    public ModelChange( final String path, final String oldValue, final String newValue )
+    {
+        this.path = path;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    public String getPath()
+    {
+        return path;
+    }
+
+    public String getOldValue()
+    {
+        return oldValue;
+    }
+
+    public String getNewValue()
+    {
+        return newValue;
+    }
+
+    @Override
+    public String toString()
+    {
+        return path + " : " + oldValue + " -> " + newValue;
+    }
+}
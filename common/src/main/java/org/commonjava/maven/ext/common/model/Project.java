@@ -26,13 +26,17 @@ import org.apache.maven.model.Plugin;
 import org.apache.maven.model.PluginManagement;
 import org.apache.maven.model.Profile;
 import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
-import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
-import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.session.MavenSessionHandler;
+import org.commonjava.maven.ext.common.util.ModelDiff;
 import org.commonjava.maven.ext.common.util.ProfileUtils;
+import org.commonjava.maven.ext.common.util.PropertyInterpolator;
 import org.commonjava.maven.ext.common.util.PropertyResolver;
+import org.commonjava.maven.ext.common.util.PropertyScope;
+import org.commonjava.maven.ext.common.util.TrackedProfiles;
+import org.commonjava.maven.ext.common.util.TrackedProperties;
 import org.commonjava.maven.galley.maven.internal.defaults.StandardMaven304PluginDefaults;
 import org.commonjava.maven.galley.maven.spi.defaults.MavenPluginDefaults;
 import org.slf4j.Logger;
@@ -40,10 +44,14 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.apache.commons.lang.StringUtils.isEmpty;
 import static org.apache.commons.lang.StringUtils.isNotEmpty;
@@ -69,9 +77,14 @@ public class Project
 
     /**
      * Model undergoing modification during execution. This model is what
-     * will eventually be written back to disk.
+     * will eventually be written back to disk. May be null until first
+     * requested if the project was created with a {@link ModelLoader}.
      */
-    private final Model model;
+    private volatile Model model;
+
+    private ModelLoader modelLoader;
+
+    private ModelLoadException loadFailure;
 
     private ProjectVersionRef key;
 
@@ -87,36 +100,128 @@ public class Project
 
     private boolean incrementalPME;
 
+    /**
+     * Line separator of the original POM file ; null if unknown.
+     */
+    private String lineSeparator;
+
+    /**
+     * Digest of the original POM file content ; null if unknown.
+     */
+    private String pomDigest;
+
+    /**
+     * Values of the model as it was when attached to this project ; the baseline of {@link #getModelChanges()}.
+     */
+    private Map<String, String> modelSnapshot;
+
+    /**
+     * The changes made to the model, recorded once manipulation is complete.
+     */
+    private final List<ModelChange> changes = new ArrayList<>();
+
     /**
      * Tracking inheritance across the project.
      */
     private Project projectParent;
 
-    private HashMap<ArtifactRef, Dependency> resolvedDependencies;
+    private PropertyScope propertyScope;
 
-    private HashMap<ArtifactRef, Dependency> allResolvedDependencies;
+    private PropertyInterpolator interpolator;
 
-    private HashMap<ArtifactRef, Dependency> resolvedManagedDependencies;
+    private PropertyScope interpolatorScope;
 
-    private HashMap<Profile, HashMap<ArtifactRef, Dependency>> resolvedProfileDependencies;
+    /**
+     * Memoized results of {@link #interpolate(MavenSessionHandler, String)}, valid for {@link #interpolatedScope}
+     * at {@link #interpolatedGeneration}.
+     */
+    private final Map<String, String> interpolated = new HashMap<>();
+
+    private PropertyScope interpolatedScope;
+
+    private long interpolatedGeneration;
+
+    private int interpolationHits;
 
-    private HashMap<Profile, HashMap<ArtifactRef, Dependency>> allResolvedProfileDependencies;
+    private int interpolationMisses;
+
+    /**
+     * Every {@link ResolvedView} of this project, used to locate the index of a resolved map.
+     */
+    private final Set<ResolvedView<?, ?>> views = new HashSet<>();
 
-    private HashMap<Profile, HashMap<ArtifactRef, Dependency>> resolvedProfileManagedDependencies;
+    private final ResolvedView<ArtifactRef, Dependency> resolvedDependencies = new DependencyView( false, false );
 
-    private HashMap<ProjectVersionRef, Plugin> resolvedPlugins;
+    private final ResolvedView<ArtifactRef, Dependency> allResolvedDependencies = new DependencyView( false, true );
 
-    private HashMap<ProjectVersionRef, Plugin> resolvedManagedPlugins;
+    private final ResolvedView<ArtifactRef, Dependency> resolvedManagedDependencies = new DependencyView( true, false );
 
-    private HashMap<Profile, HashMap<ProjectVersionRef, Plugin>> resolvedProfilePlugins;
+    private final ProfileViews<ArtifactRef, Dependency> resolvedProfileDependencies = new ProfileViews<ArtifactRef, Dependency>( true )
+    {
+        @Override
+        ResolvedView<ArtifactRef, Dependency> create()
+        {
+            return new DependencyView( false, false );
+        }
+    };
 
-    private HashMap<Profile, HashMap<ProjectVersionRef, Plugin>> resolvedProfileManagedPlugins;
+    private final ProfileViews<ArtifactRef, Dependency> allResolvedProfileDependencies = new ProfileViews<ArtifactRef, Dependency>( true )
+    {
+        @Override
+        ResolvedView<ArtifactRef, Dependency> create()
+        {
+            return new DependencyView( false, true );
+        }
+    };
+
+    private final ProfileViews<ArtifactRef, Dependency> resolvedProfileManagedDependencies = new ProfileViews<ArtifactRef, Dependency>( false )
+    {
+        @Override
+        ResolvedView<ArtifactRef, Dependency> create()
+        {
+            return new DependencyView( true, false );
+        }
+    };
+
+    private final ResolvedView<ProjectVersionRef, Plugin> resolvedPlugins = new PluginView( false );
+
+    private final ResolvedView<ProjectVersionRef, Plugin> resolvedManagedPlugins = new PluginView( true );
+
+    private final ProfileViews<ProjectVersionRef, Plugin> resolvedProfilePlugins = new ProfileViews<ProjectVersionRef, Plugin>( true )
+    {
+        @Override
+        ResolvedView<ProjectVersionRef, Plugin> create()
+        {
+            return new PluginView( false );
+        }
+    };
+
+    private final ProfileViews<ProjectVersionRef, Plugin> resolvedProfileManagedPlugins = new ProfileViews<ProjectVersionRef, Plugin>( true )
+    {
+        @Override
+        ResolvedView<ProjectVersionRef, Plugin> create()
+        {
+            return new PluginView( true );
+        }
+    };
 
     public Project( final ProjectVersionRef key, final File pom, final Model model )
     {
         this.pom = pom;
         this.model = model;
         this.key = key;
+
+        if ( model != null )
+        {
+            attach( model );
+        }
+    }
+
+    private Project( final ProjectVersionRef key, final File pom, final ModelLoader modelLoader )
+    {
+        this.pom = pom;
+        this.modelLoader = modelLoader;
+        this.key = key;
     }
 
     public Project( final File pom, final Model model )
@@ -131,6 +236,19 @@ public class Project
         this( modelKey( model ), model.getPomFile(), model );
     }
 
+    /**
+     * Create a project whose model is only loaded when it is first requested via {@link #getModel()}.
+     *
+     * @param key the coordinates of the project.
+     * @param pom the POM file of the project.
+     * @param modelLoader supplies the model on demand.
+     * @return the new project.
+     */
+    public static Project lazy( final ProjectVersionRef key, final File pom, final ModelLoader modelLoader )
+    {
+        return new Project( key, pom, modelLoader );
+    }
+
     @Override
     public int hashCode()
     {
@@ -184,10 +302,86 @@ public class Project
     /**
      * Retrieve the model undergoing modification.
      * @return the Model being modified.
+     * @throws ModelLoadException if the model is loaded on demand and that fails. The failure is converted back to
+     * the underlying {@link ManipulationException} by the manipulation manager.
      */
     public Model getModel()
     {
-        return model;
+        Model result = model;
+        if ( result == null )
+        {
+            synchronized ( this )
+            {
+                result = model;
+                if ( result == null )
+                {
+                    if ( loadFailure != null )
+                    {
+                        throw loadFailure;
+                    }
+                    try
+                    {
+                        result = modelLoader.load();
+                        attach( result );
+                    }
+                    catch ( final ManipulationException e )
+                    {
+                        loadFailure = new ModelLoadException( e );
+                        throw loadFailure;
+                    }
+                    finally
+                    {
+                        // Release the loader, and so the content it was created from, whether or not it succeeded.
+                        modelLoader = null;
+                    }
+                    model = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private void attach( final Model model )
+    {
+        TrackedProfiles.track( model );
+        TrackedProperties.track( model );
+        modelSnapshot = ModelDiff.snapshot( model );
+    }
+
+    /**
+     * @return true if the model has been loaded, i.e. it was supplied up front or {@link #getModel()} has been called.
+     */
+    public boolean isModelLoaded()
+    {
+        return model != null;
+    }
+
+    /**
+     * @return the values compared by {@link ModelDiff} that changed since the model was loaded, or an empty list if it
+     * has not been loaded. Never loads the model.
+     */
+    public List<ModelChange> getModelChanges()
+    {
+        final Model result = model;
+        return result == null ? Collections.<ModelChange>emptyList() : ModelDiff.diff( modelSnapshot, result );
+    }
+
+    /**
+     * Record a change made to the model in the change journal of this project.
+     *
+     * @param change the change.
+     */
+    public void recordChange( final ModelChange change )
+    {
+        changes.add( change );
+    }
+
+    /**
+     * @return the change journal of this project.
+     */
+    public List<ModelChange> getChanges()
+    {
+        return Collections.unmodifiableList( changes );
     }
 
     public ProjectVersionRef getKey()
@@ -197,7 +391,7 @@ public class Project
 
     public Parent getModelParent()
     {
-        return model.getParent();
+        return getModel().getParent();
     }
 
     // Used by Interpolator
@@ -214,7 +408,7 @@ public class Project
 
     public String getId()
     {
-        return model.getId();
+        return getModel().getId();
     }
 
     // Used by Interpolator
@@ -292,20 +486,7 @@ public class Project
      */
     public HashMap<Profile, HashMap<ArtifactRef, Dependency>> getResolvedProfileDependencies( MavenSessionHandler session) throws ManipulationException
     {
-        if ( resolvedProfileDependencies == null )
-        {
-            resolvedProfileDependencies = new HashMap<>(  );
-
-            for ( final Profile profile : ProfileUtils.getProfiles( session, model ) )
-            {
-                HashMap<ArtifactRef, Dependency> profileDeps = new HashMap<>();
-
-                resolveDeps( session, profile.getDependencies(), false, profileDeps );
-
-                resolvedProfileDependencies.put( profile, profileDeps );
-            }
-        }
-        return resolvedProfileDependencies;
+        return resolvedProfileDependencies.get( session );
     }
 
     /**
@@ -323,20 +504,7 @@ public class Project
      */
     public HashMap<Profile, HashMap<ArtifactRef, Dependency>> getAllResolvedProfileDependencies( MavenSessionHandler session) throws ManipulationException
     {
-        if ( allResolvedProfileDependencies == null )
-        {
-            allResolvedProfileDependencies = new HashMap<>(  );
-
-            for ( final Profile profile : ProfileUtils.getProfiles( session, model ) )
-            {
-                HashMap<ArtifactRef, Dependency> profileDeps = new HashMap<>();
-
-                resolveDeps( session, profile.getDependencies(), true, profileDeps );
-
-                allResolvedProfileDependencies.put( profile, profileDeps );
-            }
-        }
-        return allResolvedProfileDependencies;
+        return allResolvedProfileDependencies.get( session );
     }
 
     /**
@@ -351,24 +519,7 @@ public class Project
      */
     public HashMap<Profile, HashMap<ArtifactRef, Dependency>> getResolvedProfileManagedDependencies( MavenSessionHandler session) throws ManipulationException
     {
-        if ( resolvedProfileManagedDependencies == null )
-        {
-            resolvedProfileManagedDependencies = new HashMap<>(  );
-
-            for ( final Profile profile : ProfileUtils.getProfiles( session, model ) )
-            {
-                HashMap<ArtifactRef, Dependency> profileDeps = new HashMap<>();
-
-                final DependencyManagement dm = profile.getDependencyManagement();
-                if ( ! ( dm == null || dm.getDependencies() == null ) )
-                {
-                    resolveDeps( session, dm.getDependencies(), false, profileDeps );
-
-                    resolvedProfileManagedDependencies.put( profile, profileDeps );
-                }
-            }
-        }
-        return resolvedProfileManagedDependencies;
+        return resolvedProfileManagedDependencies.get( session );
     }
 
 
@@ -383,16 +534,7 @@ public class Project
      */
     public HashMap<ProjectVersionRef, Plugin> getResolvedPlugins ( MavenSessionHandler session) throws ManipulationException
     {
-        if ( resolvedPlugins == null )
-        {
-            resolvedPlugins = new HashMap<>();
-
-            if ( getModel().getBuild() != null )
-            {
-                resolvePlugins( session, getModel().getBuild().getPlugins(), resolvedPlugins );
-            }
-        }
-        return resolvedPlugins;
+        return resolvedPlugins.get( session );
     }
 
 
@@ -408,21 +550,7 @@ public class Project
      */
     public HashMap<ProjectVersionRef, Plugin> getResolvedManagedPlugins ( MavenSessionHandler session) throws ManipulationException
     {
-        if ( resolvedManagedPlugins == null )
-        {
-            resolvedManagedPlugins = new HashMap<>(  );
-
-            if ( getModel().getBuild() != null )
-            {
-                final PluginManagement pm = getModel().getBuild().getPluginManagement();
-                if ( !( pm == null || pm.getPlugins() == null ) )
-                {
-                    resolvePlugins( session, pm.getPlugins(), resolvedManagedPlugins );
-                }
-            }
-        }
-
-        return resolvedManagedPlugins;
+        return resolvedManagedPlugins.get( session );
     }
 
     /**
@@ -438,23 +566,7 @@ public class Project
     public HashMap<Profile,HashMap<ProjectVersionRef,Plugin>> getResolvedProfilePlugins( MavenSessionHandler session )
                     throws ManipulationException
     {
-        if ( resolvedProfilePlugins == null )
-        {
-            resolvedProfilePlugins = new HashMap<>();
-
-            for ( final Profile profile : ProfileUtils.getProfiles( session, model ) )
-            {
-                HashMap<ProjectVersionRef, Plugin> profileDeps = new HashMap<>();
-
-                if ( profile.getBuild() != null )
-                {
-                    resolvePlugins( session, profile.getBuild().getPlugins(), profileDeps );
-
-                }
-                resolvedProfilePlugins.put( profile, profileDeps );
-            }
-        }
-        return resolvedProfilePlugins;
+        return resolvedProfilePlugins.get( session );
     }
 
     /**
@@ -470,26 +582,7 @@ public class Project
     public HashMap<Profile,HashMap<ProjectVersionRef,Plugin>> getResolvedProfileManagedPlugins( MavenSessionHandler session )
                     throws ManipulationException
     {
-        if ( resolvedProfileManagedPlugins == null )
-        {
-            resolvedProfileManagedPlugins = new HashMap<>();
-
-            for ( final Profile profile : ProfileUtils.getProfiles( session, model ) )
-            {
-                HashMap<ProjectVersionRef, Plugin> profileDeps = new HashMap<>();
-
-                if ( profile.getBuild() != null )
-                {
-                    final PluginManagement pm = profile.getBuild().getPluginManagement();
-                    if ( !( pm == null || pm.getPlugins() == null ) )
-                    {
-                        resolvePlugins( session, pm.getPlugins(), profileDeps );
-                    }
-                }
-                resolvedProfileManagedPlugins.put( profile, profileDeps );
-            }
-        }
-        return resolvedProfileManagedPlugins;
+        return resolvedProfileManagedPlugins.get( session );
     }
 
     /**
@@ -505,13 +598,7 @@ public class Project
      */
     public HashMap<ArtifactRef, Dependency> getResolvedDependencies( MavenSessionHandler session) throws ManipulationException
     {
-        if ( resolvedDependencies == null )
-        {
-            resolvedDependencies = new HashMap<>();
-
-            resolveDeps( session, getModel().getDependencies(), false, resolvedDependencies );
-        }
-        return resolvedDependencies;
+        return resolvedDependencies.get( session );
     }
 
 
@@ -529,13 +616,7 @@ public class Project
      */
     public HashMap<ArtifactRef, Dependency> getAllResolvedDependencies( MavenSessionHandler session ) throws ManipulationException
     {
-        if ( allResolvedDependencies == null )
-        {
-            allResolvedDependencies = new HashMap<>();
-
-            resolveDeps( session, getModel().getDependencies(), true, allResolvedDependencies );
-        }
-        return allResolvedDependencies;
+        return allResolvedDependencies.get( session );
     }
 
 
@@ -550,83 +631,59 @@ public class Project
      */
     public HashMap<ArtifactRef, Dependency> getResolvedManagedDependencies( MavenSessionHandler session ) throws ManipulationException
     {
-        if ( resolvedManagedDependencies == null )
-        {
-            resolvedManagedDependencies = new HashMap<>(  );
-
-            final DependencyManagement dm = getModel().getDependencyManagement();
-            if ( ! ( dm == null || dm.getDependencies() == null ) )
-            {
-                resolveDeps( session, dm.getDependencies(), false, resolvedManagedDependencies );
-            }
-        }
-        return resolvedManagedDependencies;
+        return resolvedManagedDependencies.get( session );
     }
 
 
-    private void resolveDeps( MavenSessionHandler session, List<Dependency> deps, boolean includeManagedDependencies,
-                              HashMap<ArtifactRef, Dependency> resolvedDependencies )
-                    throws ManipulationException
+    /**
+     * Returns an index by groupId:artifactId of the keys of a map returned by one of the resolved dependency or plugin
+     * methods above (including the maps of each profile), so that all the entries for a GA may be found without
+     * scanning the map. The index is maintained alongside the map ; callers must therefore not add or remove keys of
+     * the map. For any other map the index is built on demand.
+     *
+     * @param resolved a resolved map.
+     * @param <K> the key type of the map.
+     * @return an unmodifiable index of the keys of the map.
+     */
+    public <K extends ProjectVersionRef> Map<ProjectRef, List<K>> getGAIndex( final Map<K, ?> resolved )
     {
-        for ( Dependency d : deps )
+        synchronized ( views )
         {
-            String g = PropertyResolver.resolveInheritedProperties( session, this, "${project.groupId}".equals( d.getGroupId() ) ?
-                            getGroupId() :
-                            d.getGroupId() );
-            String a = PropertyResolver.resolveInheritedProperties( session, this, "${project.artifactId}".equals( d.getArtifactId() ) ?
-                            getArtifactId() :
-                            d.getArtifactId() );
-            String v = PropertyResolver.resolveInheritedProperties ( session, this, d.getVersion() );
-
-            if ( includeManagedDependencies && isEmpty( v ) )
+            for ( final ResolvedView<?, ?> view : views )
             {
-                v = "*";
-            }
-            if ( isNotEmpty( g ) && isNotEmpty( a ) && isNotEmpty( v ) )
-            {
-                Dependency old = resolvedDependencies.put( new SimpleArtifactRef( g, a, v, d.getType(), d.getClassifier() ), d );
-                if ( old != null)
+                final Map<ProjectRef, ? extends List<?>> index = view.getGAIndex( resolved );
+                if ( index != null )
                 {
-                     logger.error( "Internal project dependency resolution failure ; replaced {} in store by {}:{}:{}.",
-                                   old.toString(), g, a, v );
+                    // The view of the map has the same key type as the map.
+                    @SuppressWarnings( "unchecked" )
+                    final Map<ProjectRef, List<K>> result = (Map<ProjectRef, List<K>>) index;
+                    return result;
                 }
             }
         }
+        return index( resolved.keySet() );
     }
 
-
-    private void resolvePlugins ( MavenSessionHandler session, List<Plugin> plugins, HashMap<ProjectVersionRef, Plugin> resolvedPlugins)
-                    throws ManipulationException
+    private static <K extends ProjectVersionRef> Map<ProjectRef, List<K>> index( final Collection<K> keys )
     {
-        for ( Plugin p : plugins )
+        final Map<ProjectRef, List<K>> index = new HashMap<>();
+        for ( final K key : keys )
         {
-            String g = PropertyResolver.resolveInheritedProperties( session, this, "${project.groupId}".equals( p.getGroupId() ) ?
-                            getGroupId() :
-                            p.getGroupId() );
-            String a = PropertyResolver.resolveInheritedProperties( session, this, "${project.artifactId}".equals( p.getArtifactId() ) ?
-                            getArtifactId() :
-                            p.getArtifactId() );
-            String v = PropertyResolver.resolveInheritedProperties( session, this, "${project.version}".equals( p.getVersion() ) ?
-                            p.getVersion() :
-                            p.getVersion() );
-
-            // Its possible the internal plugin list is either abbreviated or empty. Attempt to fill in default values for
-            // comparison purposes.
-            if ( isEmpty( g ) )
-            {
-                g = PLUGIN_DEFAULTS.getDefaultGroupId( a );
-            }
-            // Theoretically we could default an empty v via PLUGIN_DEFAULTS.getDefaultVersion( g, a ) but
-            // this means managed plugins would be included which confuses things.
-            if ( isNotEmpty( g ) && isNotEmpty( a ) && isNotEmpty( v ) )
+            final ProjectRef ga = CoordinatePool.projectRef( key.getGroupId(), key.getArtifactId() );
+            List<K> list = index.get( ga );
+            if ( list == null )
             {
-                Plugin old = resolvedPlugins.put( new SimpleProjectVersionRef( g, a, v ), p );
-                if ( old != null)
-                {
-                    logger.error( "Internal project plugin resolution failure ; replaced {} within store.", old.toString() );
-                }
+                // Usually a GA is only resolved once.
+                list = new ArrayList<>( 1 );
+                index.put( ga, list );
             }
+            list.add( key );
+        }
+        for ( final Map.Entry<ProjectRef, List<K>> entry : index.entrySet() )
+        {
+            entry.setValue( Collections.unmodifiableList( entry.getValue() ) );
         }
+        return Collections.unmodifiableMap( index );
     }
 
     public void setInheritanceRoot( final boolean inheritanceRoot )
@@ -667,7 +724,7 @@ public class Project
         }
 
         final String a = model.getArtifactId();
-        return new SimpleProjectVersionRef( g, a, v );
+        return CoordinatePool.projectVersionRef( g, a, v );
     }
 
     public void setExecutionRoot()
@@ -694,6 +751,32 @@ public class Project
         return incrementalPME;
     }
 
+    public void setLineSeparator( String lineSeparator )
+    {
+        this.lineSeparator = lineSeparator;
+    }
+
+    /**
+     * @return the line separator of the original POM file, or null if it is not known.
+     */
+    public String getLineSeparator()
+    {
+        return lineSeparator;
+    }
+
+    public void setPomDigest( String pomDigest )
+    {
+        this.pomDigest = pomDigest;
+    }
+
+    /**
+     * @return a digest of the original POM file content, or null if it is not known.
+     */
+    public String getPomDigest()
+    {
+        return pomDigest;
+    }
+
     public void setProjectParent( Project parent )
     {
         this.projectParent = parent;
@@ -704,6 +787,121 @@ public class Project
         return projectParent;
     }
 
+    /**
+     * Returns the properties visible to this project, i.e. those of this project and its profiles layered over
+     * those of its parents. The scope is built once and only rebuilt if the parent, the property table or the
+     * profiles of this project (or an ancestor) are replaced ; values set on the existing property tables are
+     * visible without a rebuild.
+     *
+     * @param session the current session.
+     * @return the property scope of this project.
+     */
+    public synchronized PropertyScope getPropertyScope( MavenSessionHandler session )
+    {
+        final PropertyScope parentScope = projectParent == null ? null : projectParent.getPropertyScope( session );
+
+        if ( propertyScope == null || propertyScope.getParent() != parentScope || !propertyScope.isCurrent( session ) )
+        {
+            propertyScope = PropertyScope.create( session, parentScope, this );
+        }
+        return propertyScope;
+    }
+
+    /**
+     * Returns an interpolator over the {@link #getPropertyScope(MavenSessionHandler) property scope} of this project,
+     * using the root of its hierarchy for project expressions. The interpolator is reused for as long as the scope
+     * is.
+     *
+     * @param session the current session.
+     * @return the interpolator for this project.
+     */
+    public synchronized PropertyInterpolator getInterpolator( MavenSessionHandler session )
+    {
+        final PropertyScope scope = getPropertyScope( session );
+
+        if ( interpolator == null || interpolatorScope != scope )
+        {
+            Project root = this;
+            while ( root.getProjectParent() != null )
+            {
+                root = root.getProjectParent();
+            }
+            interpolator = new PropertyInterpolator( scope, root );
+            interpolatorScope = scope;
+        }
+        return interpolator;
+    }
+
+    /**
+     * Interpolates the value with the {@link #getInterpolator(MavenSessionHandler) interpolator} of this project,
+     * memoizing the result. The memoized results are discarded whenever a property visible to this project is
+     * modified or the property scope is rebuilt. Results that depend on a project expression (e.g.
+     * {@code ${project.version}}), directly or through a property, are not memoized as changes to the project model
+     * cannot be detected ; so the memoized results are never stale.
+     *
+     * @param session the current session.
+     * @param value the value to interpolate.
+     * @return the interpolated value.
+     * @throws ManipulationException if an error occurs.
+     */
+    public synchronized String interpolate( MavenSessionHandler session, String value )
+        throws ManipulationException
+    {
+        final PropertyInterpolator pi = getInterpolator( session );
+        if ( value == null || !value.contains( "${" ) )
+        {
+            return pi.interp( value );
+        }
+
+        final long generation = interpolatorScope.getGeneration();
+        if ( generation < 0 )
+        {
+            interpolationMisses++;
+            return pi.interp( value );
+        }
+        if ( interpolatedScope != interpolatorScope || interpolatedGeneration != generation )
+        {
+            interpolated.clear();
+            interpolatedScope = interpolatorScope;
+            interpolatedGeneration = generation;
+        }
+
+        String result = interpolated.get( value );
+        if ( result == null )
+        {
+            interpolationMisses++;
+            final long projectLookups = pi.getProjectLookups();
+            result = pi.interp( value );
+            if ( pi.getProjectLookups() == projectLookups )
+            {
+                interpolated.put( value, result );
+            }
+        }
+        else
+        {
+            interpolationHits++;
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of calls to {@link #interpolate(MavenSessionHandler, String)} answered from the memoized
+     * results.
+     */
+    public synchronized int getInterpolationHits()
+    {
+        return interpolationHits;
+    }
+
+    /**
+     * @return the number of calls to {@link #interpolate(MavenSessionHandler, String)} with an expression that
+     * could not be answered from the memoized results.
+     */
+    public synchronized int getInterpolationMisses()
+    {
+        return interpolationMisses;
+    }
+
     /**
      * @return inherited projects. Returned with order of root project first, down to this project.
      */
@@ -739,4 +937,422 @@ public class Project
         }
         return found;
     }
+
+    /**
+     * Supplies the model of a project on demand.
+     */
+    public interface ModelLoader
+    {
+        /**
+         * @return the model of the project.
+         * @throws ManipulationException if the model cannot be loaded.
+         */
+        Model load()
+            throws ManipulationException;
+    }
+
+    /**
+     * Thrown by {@link #getModel()} if the model is loaded on demand and that fails.
+     */
+    public static final class ModelLoadException
+        extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+
+        public ModelLoadException( final ManipulationException cause )
+        {
+            super( cause.getMessage(), cause );
+        }
+
+        @Override
+        public synchronized ManipulationException getCause()
+        {
+            return (ManipulationException) super.getCause();
+        }
+    }
+
+    /**
+     * A resolved view of one section (e.g. the dependencies) of the model or of a profile, keyed by the coordinates of
+     * each element with properties resolved. The Maven model cannot report its own modifications so each element is
+     * fingerprinted by the identity of its raw coordinate values, and elements whose raw values reference properties by
+     * the {@link PropertyScope#getGeneration() generation} of the property scope. On access only the elements whose
+     * fingerprint changed, or whose key depends on a project expression, are re-resolved, and the map is only rebuilt
+     * if a key changed.
+     */
+    private abstract class ResolvedView<K extends ProjectVersionRef, T>
+    {
+        private List<T> source;
+
+        private List<ResolvedEntry<K, T>> entries = Collections.emptyList();
+
+        private long generation;
+
+        private HashMap<K, T> resolved;
+
+        private Map<ProjectRef, List<K>> byGA;
+
+        ResolvedView()
+        {
+            synchronized ( views )
+            {
+                views.add( this );
+            }
+        }
+
+        /**
+         * @return the elements of the section, or null if the section is absent.
+         */
+        abstract List<T> elements( ModelBase base );
+
+        /**
+         * @return the raw coordinate values of the element.
+         */
+        abstract String[] raw( T element );
+
+        /**
+         * @return whether the raw coordinate values of the element are (identical to) those supplied.
+         */
+        abstract boolean matches( T element, String[] raw );
+
+        /**
+         * @return the resolved key of the element, or null if it cannot be fully resolved.
+         */
+        abstract K resolve( MavenSessionHandler session, T element )
+                        throws ManipulationException;
+
+        HashMap<K, T> get( MavenSessionHandler session )
+                        throws ManipulationException
+        {
+            return get( session, getModel() );
+        }
+
+        synchronized HashMap<K, T> get( MavenSessionHandler session, ModelBase base )
+                        throws ManipulationException
+        {
+            final List<T> elements = elements( base );
+            final long current = getPropertyScope( session ).getGeneration();
+            final boolean propertiesChanged = current < 0 || current != generation;
+            final int size = elements == null ? 0 : elements.size();
+
+            boolean rekeyed = resolved == null || size != entries.size();
+            List<ResolvedEntry<K, T>> updated = null;
+            for ( int i = 0; i < size; i++ )
+            {
+                final T element = elements.get( i );
+                final ResolvedEntry<K, T> previous = i < entries.size() ? entries.get( i ) : null;
+                final ResolvedEntry<K, T> entry;
+
+                if ( previous == null || previous.element != element || !matches( element, previous.raw ) )
+                {
+                    entry = entry( session, element, raw( element ) );
+                }
+                else if ( ( propertiesChanged && previous.interpolated ) || previous.projectDependent )
+                {
+                    entry = entry( session, element, previous.raw );
+                }
+                else
+                {
+                    entry = previous;
+                }
+
+                if ( entry != previous )
+                {
+                    // Keys are created through the CoordinatePool so equal keys are the same instance ; this
+                    // also avoids the version parsing of the coordinate equality.
+                    if ( previous == null || previous.element != element || previous.key != entry.key )
+                    {
+                        rekeyed = true;
+                    }
+                    if ( updated == null )
+                    {
+                        updated = new ArrayList<>( entries.subList( 0, i ) );
+                    }
+                }
+                if ( updated != null )
+                {
+                    updated.add( entry );
+                }
+            }
+            if ( updated != null )
+            {
+                entries = updated;
+            }
+            else if ( entries.size() > size )
+            {
+                entries = new ArrayList<>( entries.subList( 0, size ) );
+            }
+            source = elements;
+            generation = current;
+
+            if ( rekeyed )
+            {
+                resolved = new HashMap<>();
+                for ( final ResolvedEntry<K, T> entry : entries )
+                {
+                    if ( entry.key != null )
+                    {
+                        final T old = resolved.put( entry.key, entry.element );
+                        if ( old != null )
+                        {
+                            logger.error( "Internal project resolution failure ; replaced {} in store by {}.",
+                                          old.toString(), entry.key );
+                        }
+                    }
+                }
+                byGA = index( resolved.keySet() );
+            }
+            return resolved;
+        }
+
+        private ResolvedEntry<K, T> entry( final MavenSessionHandler session, final T element, final String[] raw )
+                        throws ManipulationException
+        {
+            final PropertyInterpolator pi = getInterpolator( session );
+            final long projectLookups = pi.getProjectLookups();
+            final K key = resolve( session, element );
+            return new ResolvedEntry<>( element, raw, key, pi.getProjectLookups() != projectLookups );
+        }
+
+        synchronized Map<ProjectRef, List<K>> getGAIndex( final Map<?, ?> map )
+        {
+            return map == resolved ? byGA : null;
+        }
+    }
+
+    private static final class ResolvedEntry<K, T>
+    {
+        private final T element;
+
+        private final String[] raw;
+
+        private final K key;
+
+        private final boolean interpolated;
+
+        /**
+         * Whether the key depends on a project expression, in which case it is resolved again on every access.
+         */
+        private final boolean projectDependent;
+
+        private ResolvedEntry( final T element, final String[] raw, final K key, final boolean projectDependent )
+        {
+            this.element = element;
+            this.raw = raw;
+            this.key = key;
+            this.projectDependent = projectDependent;
+
+            boolean interpolated = false;
+            for ( final String value : raw )
+            {
+                interpolated |= value != null && value.contains( "${" );
+            }
+            this.interpolated = interpolated;
+        }
+    }
+
+    private final class DependencyView
+        extends ResolvedView<ArtifactRef, Dependency>
+    {
+        private final boolean managed;
+
+        private final boolean includeManagedDependencies;
+
+        /**
+         * @param managed whether to resolve the dependencyManagement section rather than the dependencies.
+         * @param includeManagedDependencies whether to include dependencies without a version, using a version of '*'.
+         */
+        private DependencyView( final boolean managed, final boolean includeManagedDependencies )
+        {
+            this.managed = managed;
+            this.includeManagedDependencies = includeManagedDependencies;
+        }
+
+        @Override
+        List<Dependency> elements( final ModelBase base )
+        {
+            if ( !managed )
+            {
+                return base.getDependencies();
+            }
+            final DependencyManagement dm = base.getDependencyManagement();
+            return dm == null ? null : dm.getDependencies();
+        }
+
+        @Override
+        String[] raw( final Dependency d )
+        {
+            return new String[] { d.getGroupId(), d.getArtifactId(), d.getVersion(), d.getType(), d.getClassifier() };
+        }
+
+        @Override
+        boolean matches( final Dependency d, final String[] raw )
+        {
+            return d.getGroupId() == raw[0] && d.getArtifactId() == raw[1] && d.getVersion() == raw[2]
+                            && d.getType() == raw[3] && d.getClassifier() == raw[4];
+        }
+
+        @Override
+        ArtifactRef resolve( final MavenSessionHandler session, final Dependency d )
+                        throws ManipulationException
+        {
+            String g = PropertyResolver.resolveInheritedProperties( session, Project.this, "${project.groupId}".equals( d.getGroupId() ) ?
+                            getGroupId() :
+                            d.getGroupId() );
+            String a = PropertyResolver.resolveInheritedProperties( session, Project.this, "${project.artifactId}".equals( d.getArtifactId() ) ?
+                            getArtifactId() :
+                            d.getArtifactId() );
+            String v = PropertyResolver.resolveInheritedProperties ( session, Project.this, d.getVersion() );
+
+            if ( includeManagedDependencies && isEmpty( v ) )
+            {
+                v = "*";
+            }
+            if ( isNotEmpty( g ) && isNotEmpty( a ) && isNotEmpty( v ) )
+            {
+                return CoordinatePool.artifactRef( g, a, v, d.getType(), d.getClassifier() );
+            }
+            return null;
+        }
+    }
+
+    private final class PluginView
+        extends ResolvedView<ProjectVersionRef, Plugin>
+    {
+        private final boolean managed;
+
+        /**
+         * @param managed whether to resolve the pluginManagement section rather than the plugins.
+         */
+        private PluginView( final boolean managed )
+        {
+            this.managed = managed;
+        }
+
+        @Override
+        List<Plugin> elements( final ModelBase base )
+        {
+            final BuildBase build = base instanceof Model ? ( (Model) base ).getBuild() : ( (Profile) base ).getBuild();
+            if ( build == null )
+            {
+                return null;
+            }
+            if ( !managed )
+            {
+                return build.getPlugins();
+            }
+            final PluginManagement pm = build.getPluginManagement();
+            return pm == null ? null : pm.getPlugins();
+        }
+
+        @Override
+        String[] raw( final Plugin p )
+        {
+            return new String[] { p.getGroupId(), p.getArtifactId(), p.getVersion() };
+        }
+
+        @Override
+        boolean matches( final Plugin p, final String[] raw )
+        {
+            return p.getGroupId() == raw[0] && p.getArtifactId() == raw[1] && p.getVersion() == raw[2];
+        }
+
+        @Override
+        ProjectVersionRef resolve( final MavenSessionHandler session, final Plugin p )
+                        throws ManipulationException
+        {
+            String g = PropertyResolver.resolveInheritedProperties( session, Project.this, "${project.groupId}".equals( p.getGroupId() ) ?
+                            getGroupId() :
+                            p.getGroupId() );
+            String a = PropertyResolver.resolveInheritedProperties( session, Project.this, "${project.artifactId}".equals( p.getArtifactId() ) ?
+                            getArtifactId() :
+                            p.getArtifactId() );
+            String v = PropertyResolver.resolveInheritedProperties( session, Project.this, p.getVersion() );
+
+            // Its possible the internal plugin list is either abbreviated or empty. Attempt to fill in default values for
+            // comparison purposes.
+            if ( isEmpty( g ) )
+            {
+                g = PLUGIN_DEFAULTS.getDefaultGroupId( a );
+            }
+            // Theoretically we could default an empty v via PLUGIN_DEFAULTS.getDefaultVersion( g, a ) but
+            // this means managed plugins would be included which confuses things.
+            if ( isNotEmpty( g ) && isNotEmpty( a ) && isNotEmpty( v ) )
+            {
+                return CoordinatePool.projectVersionRef( g, a, v );
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The resolved views of one section of each of the profiles returned by {@link ProfileUtils#getProfiles}.
+     */
+    private abstract class ProfileViews<K extends ProjectVersionRef, T>
+    {
+        private final boolean includeAbsent;
+
+        private final Map<Profile, ResolvedView<K, T>> profileViews = new HashMap<>();
+
+        private List<Profile> profiles;
+
+        private HashMap<Profile, HashMap<K, T>> resolved;
+
+        /**
+         * @param includeAbsent whether to include an empty map for profiles without the section.
+         */
+        ProfileViews( final boolean includeAbsent )
+        {
+            this.includeAbsent = includeAbsent;
+        }
+
+        abstract ResolvedView<K, T> create();
+
+        synchronized HashMap<Profile, HashMap<K, T>> get( MavenSessionHandler session )
+                        throws ManipulationException
+        {
+            // The profile list is cached by ProfileUtils so is only a new instance if the profiles changed.
+            final List<Profile> current = ProfileUtils.getProfiles( session, getModel() );
+            boolean changed = resolved == null || current != profiles;
+            final HashMap<Profile, HashMap<K, T>> updated = new HashMap<>();
+
+            for ( final Profile profile : current )
+            {
+                ResolvedView<K, T> view = profileViews.get( profile );
+                if ( view == null )
+                {
+                    view = create();
+                    profileViews.put( profile, view );
+                }
+                final HashMap<K, T> map = view.get( session, profile );
+                if ( includeAbsent || view.source != null )
+                {
+                    updated.put( profile, map );
+                    changed |= resolved == null || resolved.get( profile ) != map;
+                }
+                else
+                {
+                    changed |= resolved != null && resolved.containsKey( profile );
+                }
+            }
+            if ( changed )
+            {
+                final Iterator<Map.Entry<Profile, ResolvedView<K, T>>> it = profileViews.entrySet().iterator();
+                while ( it.hasNext() )
+                {
+                    final Map.Entry<Profile, ResolvedView<K, T>> entry = it.next();
+                    if ( !current.contains( entry.getKey() ) )
+                    {
+                        synchronized ( views )
+                        {
+                            views.remove( entry.getValue() );
+                        }
+                        it.remove();
+                    }
+                }
+                resolved = updated;
+                profiles = current;
+            }
+            return resolved;
+        }
+    }
 }
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.util;
+
+import org.apache.commons.lang.ObjectUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.maven.model.BuildBase;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.ModelBase;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.Profile;
+import org.apache.maven.model.Repository;
+import org.commonjava.maven.ext.common.model.ModelChange;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Compares models path by path on the values manipulators commonly change (coordinates, the parent, properties,
+ * dependencies, plugins, repositories and modules, including those of profiles).
+ */
+public final class ModelDiff
+{
+    private ModelDiff()
+    {
+    }
+
+    /**
+     * @param before the original model.
+     * @param after the modified model.
+     * @return the values which differ, in the order of the modified model followed by any values which were removed.
+     */
+    public static List<ModelChange> diff( final Model before, final Model after )
+    {
+        return diff( snapshot( before ), after );
+    }
+
+    /**
+     * @param original the values of the original model as returned by {@link #snapshot(Model)}.
+     * @param after the modified model.
+     * @return the values which differ, in the order of the modified model followed by any values which were removed.
+     */
+    public static List<ModelChange> diff( final Map<String, String> original, final Model after )
+    {
+        final Map<String, String> modified = snapshot( after );
+        final List<ModelChange> changes = new ArrayList<>();
+
+        for ( final Map.Entry<String, String> entry : modified.entrySet() )
+        {
+            final String path = entry.getKey();
+            if ( !original.containsKey( path ) )
+            {
+                changes.add( new ModelChange( path, null, entry.getValue() ) );
+            }
+            else if ( !ObjectUtils.equals( original.get( path ), entry.getValue() ) )
+            {
+                changes.add( new ModelChange( path, original.get( path ), entry.getValue() ) );
+            }
+        }
+        for ( final Map.Entry<String, String> entry : original.entrySet() )
+        {
+            if ( !modified.containsKey( entry.getKey() ) )
+            {
+                changes.add( new ModelChange( entry.getKey(), entry.getValue(), null ) );
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * @param model the model.
+     * @return the values compared by {@link #diff(Map, Model)}, keyed by path.
+     */
+    public static Map<String, String> snapshot( final Model model )
+    {
+        final Map<String, String> values = new LinkedHashMap<>();
+
+        put( values, "groupId", model.getGroupId() );
+        put( values, "artifactId", model.getArtifactId() );
+        put( values, "version", model.getVersion() );
+        put( values, "packaging", model.getPackaging() );
+
+        final Parent parent = model.getParent();
+        if ( parent != null )
+        {
+            put( values, "parent/groupId", parent.getGroupId() );
+            put( values, "parent/artifactId", parent.getArtifactId() );
+            put( values, "parent/version", parent.getVersion() );
+            put( values, "parent/relativePath", parent.getRelativePath() );
+        }
+
+        flatten( values, "", model, model.getBuild() );
+        for ( final Profile profile : model.getProfiles() )
+        {
+            flatten( values, "profiles/" + profile.getId() + "/", profile, profile.getBuild() );
+        }
+        return values;
+    }
+
+    private static void flatten( final Map<String, String> values, final String prefix, final ModelBase base,
+                                 final BuildBase build )
+    {
+        for ( final String key : new TreeSet<>( base.getProperties().stringPropertyNames() ) )
+        {
+            put( values, prefix + "properties/" + key, base.getProperties().getProperty( key ) );
+        }
+
+        flatten( values, prefix + "dependencies/", base.getDependencies() );
+        if ( base.getDependencyManagement() != null )
+        {
+            flatten( values, prefix + "dependencyManagement/dependencies/",
+                     base.getDependencyManagement().getDependencies() );
+        }
+
+        if ( build != null )
+        {
+            flattenPlugins( values, prefix + "build/plugins/", build.getPlugins() );
+            if ( build.getPluginManagement() != null )
+            {
+                flattenPlugins( values, prefix + "build/pluginManagement/plugins/",
+                                build.getPluginManagement().getPlugins() );
+            }
+        }
+
+        for ( final Repository repository : base.getRepositories() )
+        {
+            put( values, prefix + "repositories/" + repository.getId(), repository.getUrl() );
+        }
+        for ( final Repository repository : base.getPluginRepositories() )
+        {
+            put( values, prefix + "pluginRepositories/" + repository.getId(), repository.getUrl() );
+        }
+        if ( !base.getModules().isEmpty() )
+        {
+            put( values, prefix + "modules", StringUtils.join( base.getModules(), ',' ) );
+        }
+    }
+
+    private static void flatten( final Map<String, String> values, final String prefix,
+                                 final List<Dependency> dependencies )
+    {
+        for ( final Dependency dependency : dependencies )
+        {
+            final String path = prefix + dependency.getManagementKey() + '/';
+
+            // The version is always recorded so that an added or removed dependency is always reported.
+            values.put( path + "version", dependency.getVersion() );
+            put( values, path + "scope", dependency.getScope() );
+            put( values, path + "optional", dependency.getOptional() );
+
+            if ( !dependency.getExclusions().isEmpty() )
+            {
+                final List<String> exclusions = new ArrayList<>( dependency.getExclusions().size() );
+                for ( final Exclusion exclusion : dependency.getExclusions() )
+                {
+                    exclusions.add( exclusion.getGroupId() + ':' + exclusion.getArtifactId() );
+                }
+                put( values, path + "exclusions", StringUtils.join( exclusions, ',' ) );
+            }
+        }
+    }
+
+    private static void flattenPlugins( final Map<String, String> values, final String prefix,
+                                        final List<Plugin> plugins )
+    {
+        for ( final Plugin plugin : plugins )
+        {
+            final String path = prefix + plugin.getKey() + '/';
+
+            values.put( path + "version", plugin.getVersion() );
+            if ( plugin.getConfiguration() != null )
+            {
+                put( values, path + "configuration", plugin.getConfiguration().toString() );
+            }
+        }
+    }
+
+    private static void put( final Map<String, String> values, final String path, final String value )
+    {
+        if ( value != null )
+        {
+            values.put( path, value );
+        }
+    }
+}
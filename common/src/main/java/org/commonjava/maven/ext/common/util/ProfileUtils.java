@@ -20,7 +20,10 @@ import org.apache.maven.model.Profile;
 import org.commonjava.maven.ext.common.session.MavenSessionHandler;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Commonly used manipulations from project profiles.
@@ -36,30 +39,79 @@ public final class ProfileUtils
     {
     }
 
-
+    /**
+     * Returns the profiles of the model to be scanned, i.e. all of them or, if {@link #PROFILE_SCANNING} is set, only
+     * those active in the session. If the profiles of the model are {@link TrackedProfiles tracked} the result is
+     * cached on them and reused until they are modified or the active profile configuration of the session changes.
+     *
+     * @param session the current session.
+     * @param model the model.
+     * @return an unmodifiable list of the profiles, in model order.
+     */
     public static List<Profile> getProfiles ( MavenSessionHandler session, Model model)
     {
-        final List<Profile> result = new ArrayList<>( );
+        final boolean scanActive = Boolean.parseBoolean( session.getUserProperties().getProperty( PROFILE_SCANNING ) );
+        // The active profiles only matter when scanning active profiles.
+        final List<String> activeProfiles = scanActive ? session.getActiveProfiles() : null;
         final List<Profile> profiles = model.getProfiles();
-        final boolean scanActiveProfiles = Boolean.parseBoolean( session.getUserProperties().getProperty( PROFILE_SCANNING , "false" ) );
 
-        if ( profiles != null )
+        if ( !( profiles instanceof TrackedProfiles ) )
+        {
+            return new ProfileView( 0, scanActive, activeProfiles, profiles ).result;
+        }
+
+        final TrackedProfiles tracked = (TrackedProfiles) profiles;
+        final int modifications = tracked.getModifications();
+        ProfileView view = tracked.view;
+        if ( view == null || !view.isCurrent( modifications, scanActive, activeProfiles ) )
         {
-            if ( scanActiveProfiles )
+            view = new ProfileView( modifications, scanActive, activeProfiles, profiles );
+            tracked.view = view;
+        }
+        return view.result;
+    }
+
+    /**
+     * The filtered profiles of a model along with what they were computed from.
+     */
+    static final class ProfileView
+    {
+        private final int modifications;
+
+        private final boolean scanActive;
+
+        private final List<String> activeProfiles;
+
+        private final List<Profile> result;
+
+        private ProfileView( final int modifications, final boolean scanActive, final List<String> activeProfiles,
+                             final List<Profile> source )
+        {
+            this.modifications = modifications;
+            this.scanActive = scanActive;
+            this.activeProfiles = activeProfiles == null ? null : new ArrayList<>( activeProfiles );
+
+            final Set<String> activeProfileIds =
+                            activeProfiles == null ? Collections.<String>emptySet() : new HashSet<>( activeProfiles );
+            final List<Profile> filtered = new ArrayList<>( source.size() );
+            for ( final Profile p : source )
             {
-                for ( Profile p : profiles )
+                if ( !scanActive || activeProfileIds.contains( p.getId() ) )
                 {
-                    if ( session.getActiveProfiles().contains( p.getId() ) )
-                    {
-                        result.add( p );
-                    }
+                    filtered.add( p );
                 }
             }
-            else
+            this.result = Collections.unmodifiableList( filtered );
+        }
+
+        private boolean isCurrent( final int modifications, final boolean scanActive,
+                                   final List<String> activeProfiles )
+        {
+            if ( this.modifications != modifications || this.scanActive != scanActive )
             {
-                result.addAll( profiles );
+                return false;
             }
+            return this.activeProfiles == null ? activeProfiles == null : this.activeProfiles.equals( activeProfiles );
         }
-        return result;
     }
 }
@@ -15,46 +15,119 @@
  */
 package org.commonjava.maven.ext.common.util;
 
+import org.codehaus.plexus.interpolation.AbstractValueSource;
 import org.codehaus.plexus.interpolation.InterpolationException;
 import org.codehaus.plexus.interpolation.PrefixAwareRecursionInterceptor;
 import org.codehaus.plexus.interpolation.PrefixedObjectValueSource;
 import org.codehaus.plexus.interpolation.PropertiesBasedValueSource;
 import org.codehaus.plexus.interpolation.StringSearchInterpolator;
+import org.codehaus.plexus.interpolation.ValueSource;
 import org.commonjava.maven.ext.common.ManipulationException;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 
+/**
+ * Interpolates property and project expressions in values. An instance may be reused for any number of values ; the
+ * underlying interpolator and value sources are only created once a value containing an expression is seen, so
+ * literal values are returned immediately.
+ */
 public class PropertyInterpolator
 {
-    private final StringSearchInterpolator interp = new StringSearchInterpolator();
-    private final PrefixAwareRecursionInterceptor ri;
+    // According to https://maven.apache.org/guides/introduction/introduction-to-the-pom.html
+    // the prefix project and the deprecated prefix pom are possible.
+    private static final List<String> PREFIXES = Collections.unmodifiableList( Arrays.asList( "pom", "project" ) );
+
+    private final ValueSource properties;
+
+    private final Object objectValueSource;
+
+    private StringSearchInterpolator interp;
+
+    private PrefixAwareRecursionInterceptor ri;
+
+    private volatile long projectLookups;
 
     public PropertyInterpolator( Properties props, Object objectValueSource )
     {
-        if ( props != null )
+        this( props == null ? null : new PropertiesBasedValueSource( props ), objectValueSource );
+    }
+
+    public PropertyInterpolator( final PropertyScope scope, Object objectValueSource )
+    {
+        this( scope == null ? null : new AbstractValueSource( false )
         {
-            interp.addValueSource( new PropertiesBasedValueSource( props ) );
-        }
+            @Override
+            public Object getValue( final String expression )
+            {
+                return scope.getProperty( expression );
+            }
+        }, objectValueSource );
+    }
 
-        // According to https://maven.apache.org/guides/introduction/introduction-to-the-pom.html
-        // the prefix project and the deprecated prefix pom are possible.
-        final List<String> prefixes = Arrays.asList( "pom", "project" );
+    private PropertyInterpolator( ValueSource properties, Object objectValueSource )
+    {
+        this.properties = properties;
+        this.objectValueSource = objectValueSource;
+    }
 
-        ri = new PrefixAwareRecursionInterceptor( prefixes, true );
-        interp.addValueSource( new PrefixedObjectValueSource( prefixes, objectValueSource, true ) );
+    /**
+     * @return the number of expressions that have been looked up on the project object so far. If this is unchanged
+     * by a call to {@link #interp(String)} the result depends only on the properties, and not on the state of the
+     * project (e.g. its version).
+     */
+    public long getProjectLookups()
+    {
+        return projectLookups;
     }
 
     public String interp( String value ) throws ManipulationException
     {
-        try
+        if ( value == null )
         {
-            return interp.interpolate( value, ri );
+            return "";
         }
-        catch ( final InterpolationException e )
+        else if ( !value.contains( "${" ) )
         {
-            throw new ManipulationException( "Failed to interpolate: %s. Reason: %s", e, value, e.getMessage() );
+            return value;
+        }
+
+        synchronized ( this )
+        {
+            if ( interp == null )
+            {
+                interp = new StringSearchInterpolator();
+                if ( properties != null )
+                {
+                    interp.addValueSource( properties );
+                }
+                final ValueSource project = new PrefixedObjectValueSource( PREFIXES, objectValueSource, true );
+                interp.addValueSource( new AbstractValueSource( false )
+                {
+                    @Override
+                    public Object getValue( final String expression )
+                    {
+                        projectLookups++;
+                        return project.getValue( expression );
+                    }
+                } );
+                ri = new PrefixAwareRecursionInterceptor( PREFIXES, true );
+            }
+
+            try
+            {
+                return interp.interpolate( value, ri );
+            }
+            catch ( final InterpolationException e )
+            {
+                throw new ManipulationException( "Failed to interpolate: %s. Reason: %s", e, value, e.getMessage() );
+            }
+            finally
+            {
+                interp.clearFeedback();
+            }
         }
     }
 }
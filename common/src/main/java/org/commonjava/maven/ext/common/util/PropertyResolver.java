@@ -15,13 +15,11 @@
  */
 package org.commonjava.maven.ext.common.util;
 
-import org.apache.maven.model.Profile;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.common.session.MavenSessionHandler;
 
 import java.util.List;
-import java.util.Properties;
 
 /**
  * Commonly used manipulations / extractions from project / user (CLI) properties.
@@ -43,18 +41,7 @@ public final class PropertyResolver
      */
     public static String resolveInheritedProperties( MavenSessionHandler session, Project start, String value ) throws ManipulationException
     {
-        return resolveProperties( session, start.getInheritedList(), value );
-    }
-
-    private static Properties searchProfiles( MavenSessionHandler session, Project p )
-    {
-        final Properties result = new Properties();
-
-        for ( Profile pr : ProfileUtils.getProfiles( session, p.getModel() ) )
-        {
-            result.putAll( pr.getProperties() );
-        }
-        return result;
+        return start.interpolate( session, value );
     }
 
     /**
@@ -68,16 +55,14 @@ public final class PropertyResolver
      */
     public static String resolveProperties( MavenSessionHandler session, List<Project> projects, String value ) throws ManipulationException
     {
-        final Properties amalgamated = new Properties();
-
         // The projects passed in are in a crafted order (determined by Project::getInherited or getReverseInherited)
         // so therefore there is no need to save the execution root.
+        PropertyScope scope = null;
         for ( Project p : projects )
         {
-            amalgamated.putAll( p.getModel().getProperties() );
-            amalgamated.putAll( searchProfiles( session, p ) );
+            scope = PropertyScope.create( session, scope, p );
         }
-        PropertyInterpolator pi = new PropertyInterpolator( amalgamated, projects.get( 0 ) );
+        PropertyInterpolator pi = new PropertyInterpolator( scope, projects.get( 0 ) );
         return pi.interp( value );
     }
 }
@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.util;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Profile;
+import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.common.session.MavenSessionHandler;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Read-only, layered view of the properties visible to a model: its own properties and those of its profiles, on top
+ * of the scope of its parent. Lookups walk the layers instead of copying them into a single table. The layers are the
+ * live property tables of the models, so a value set on one of them is visible immediately. The set of layers is fixed
+ * on creation ; {@link #isCurrent(MavenSessionHandler)} detects a model whose property table or profiles have since
+ * been replaced.
+ */
+public final class PropertyScope
+{
+    private final PropertyScope parent;
+
+    private final Project project;
+
+    private final Model model;
+
+    /**
+     * The profiles contributing layers, in the order they were returned by {@link ProfileUtils#getProfiles}.
+     */
+    private final Profile[] profiles;
+
+    /**
+     * The model properties followed by the properties of each profile, in increasing order of precedence.
+     */
+    private final Properties[] layers;
+
+    /**
+     * The table defining each key within the layers of this scope (not its parents), see
+     * {@link #findDefinition(String)}. Only built if every layer is tracked, and rebuilt when a key is added to or
+     * removed from a layer.
+     */
+    private Map<String, Properties> definitions;
+
+    private long definitionsGeneration;
+
+    private PropertyScope( final PropertyScope parent, final Project project, final Model model,
+                           final List<Profile> profiles )
+    {
+        this.parent = parent;
+        this.project = project;
+        this.model = model;
+        this.profiles = profiles.toArray( new Profile[profiles.size()] );
+        this.layers = new Properties[this.profiles.length + 1];
+
+        layers[0] = model.getProperties();
+        for ( int i = 0; i < this.profiles.length; i++ )
+        {
+            layers[i + 1] = this.profiles[i].getProperties();
+        }
+    }
+
+    /**
+     * @param session the current session.
+     * @param parent the scope this scope takes precedence over, or null.
+     * @param project the project whose properties (and profile properties) form this scope.
+     * @return a new scope.
+     */
+    public static PropertyScope create( final MavenSessionHandler session, final PropertyScope parent,
+                                        final Project project )
+    {
+        final Model model = project.getModel();
+        return new PropertyScope( parent, project, model, ProfileUtils.getProfiles( session, model ) );
+    }
+
+    public PropertyScope getParent()
+    {
+        return parent;
+    }
+
+    /**
+     * @param key the property name.
+     * @return the value from the layer of highest precedence defining the property, or null if none do.
+     */
+    public String getProperty( final String key )
+    {
+        for ( PropertyScope scope = this; scope != null; scope = scope.parent )
+        {
+            for ( int i = scope.layers.length - 1; i >= 0; i-- )
+            {
+                final String value = scope.layers[i].getProperty( key );
+                if ( value != null )
+                {
+                    return value;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find where a property is defined so that it may be updated in place. The nearest project defining the key
+     * wins ; within a project its own properties are searched before those of its profiles, in profile order. Note
+     * this differs from the lookup precedence of {@link #getProperty(String)} where profiles win.
+     *
+     * @param key the property name.
+     * @return the definition, or null if no layer defines the key.
+     */
+    public Definition findDefinition( final String key )
+    {
+        for ( PropertyScope scope = this; scope != null; scope = scope.parent )
+        {
+            final Properties properties = scope.definingLayer( key );
+            if ( properties != null )
+            {
+                return new Definition( scope.project, properties );
+            }
+        }
+        return null;
+    }
+
+    private synchronized Properties definingLayer( final String key )
+    {
+        long generation = 0;
+        for ( final Properties layer : layers )
+        {
+            if ( !( layer instanceof TrackedProperties ) )
+            {
+                // Can't tell when an index would be stale so just search the layers.
+                for ( final Properties l : layers )
+                {
+                    if ( l.containsKey( key ) )
+                    {
+                        return l;
+                    }
+                }
+                return null;
+            }
+            generation += ( (TrackedProperties) layer ).getKeyModifications();
+        }
+
+        if ( definitions == null || definitionsGeneration != generation )
+        {
+            definitions = new HashMap<>();
+            for ( final Properties layer : layers )
+            {
+                for ( final Object k : layer.keySet() )
+                {
+                    if ( k instanceof String && !definitions.containsKey( k ) )
+                    {
+                        definitions.put( (String) k, layer );
+                    }
+                }
+            }
+            definitionsGeneration = generation;
+        }
+        return definitions.get( key );
+    }
+
+    /**
+     * @return a value that changes whenever a property of this scope or of its parents is modified, or -1 if that
+     * cannot be determined as a layer is not {@link TrackedProperties tracked}.
+     */
+    public long getGeneration()
+    {
+        long generation = 0;
+        for ( PropertyScope scope = this; scope != null; scope = scope.parent )
+        {
+            for ( final Properties layer : scope.layers )
+            {
+                if ( !( layer instanceof TrackedProperties ) )
+                {
+                    return -1;
+                }
+                generation += ( (TrackedProperties) layer ).getModifications();
+            }
+        }
+        return generation;
+    }
+
+    /**
+     * @param session the current session.
+     * @return false if the property table or the profiles of the model of this scope (not its parents) have been
+     * replaced since the scope was created.
+     */
+    public boolean isCurrent( final MavenSessionHandler session )
+    {
+        if ( model.getProperties() != layers[0] )
+        {
+            return false;
+        }
+
+        final List<Profile> current = ProfileUtils.getProfiles( session, model );
+        if ( current.size() != profiles.length )
+        {
+            return false;
+        }
+        for ( int i = 0; i < profiles.length; i++ )
+        {
+            if ( current.get( i ) != profiles[i] || profiles[i].getProperties() != layers[i + 1] )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The location of a property definition.
+     */
+    public static final class Definition
+    {
+        private final Project project;
+
+        private final Properties properties;
+
+        private Definition( final Project project, final Properties properties )
+        {
+            this.project = project;
+            this.properties = properties;
+        }
+
+        /**
+         * @return the project defining the property, either in its own properties or those of one of its profiles.
+         */
+        public Project getProject()
+        {
+            return project;
+        }
+
+        /**
+         * @return the properties defining the property.
+         */
+        public Properties getProperties()
+        {
+            return properties;
+        }
+    }
+}
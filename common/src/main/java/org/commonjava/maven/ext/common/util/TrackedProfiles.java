@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.util;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Profile;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * A profile list that counts its modifications so that the profiles filtered by
+ * {@link ProfileUtils#getProfiles(org.commonjava.maven.ext.common.session.MavenSessionHandler, Model)} can be cached
+ * on the model. Every structural change and each element replaced through {@link #set(int, Profile)} is counted ;
+ * elements replaced through a sub list are not.
+ */
+public final class TrackedProfiles
+    extends ArrayList<Profile>
+{
+    private static final long serialVersionUID = -3217164920584384101L;
+
+    /**
+     * The filtered profiles last computed from this list, maintained by {@link ProfileUtils}.
+     */
+    transient volatile ProfileUtils.ProfileView view;
+
+    private TrackedProfiles( final Collection<Profile> profiles )
+    {
+        super( profiles );
+    }
+
+    /**
+     * Replace the profile list of the model with a tracked copy, unless it is already tracked. This should be done
+     * before any other references to the profile list are taken.
+     *
+     * @param model the model to track.
+     */
+    public static void track( final Model model )
+    {
+        if ( !( model.getProfiles() instanceof TrackedProfiles ) )
+        {
+            model.setProfiles( new TrackedProfiles( model.getProfiles() ) );
+        }
+    }
+
+    /**
+     * @return the number of modifications made so far.
+     */
+    public int getModifications()
+    {
+        return modCount;
+    }
+
+    @Override
+    public Profile set( final int index, final Profile element )
+    {
+        modCount++;
+        return super.set( index, element );
+    }
+}
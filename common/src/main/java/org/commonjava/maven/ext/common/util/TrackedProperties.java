@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.util;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.ModelBase;
+import org.apache.maven.model.Profile;
+
+import java.util.Properties;
+
+/**
+ * Properties that count their modifications so that values derived from them can be cached and invalidated. Changes
+ * made through {@link #put(Object, Object)}, {@link #remove(Object)} and {@link #clear()} (and therefore
+ * {@link #setProperty(String, String)} and {@link #putAll(java.util.Map)}) are counted ; changes made through the
+ * collection views are not.
+ */
+public final class TrackedProperties
+    extends Properties
+{
+    private static final long serialVersionUID = 8306203454787329573L;
+
+    private volatile int modifications;
+
+    private volatile int keyModifications;
+
+    private TrackedProperties( final Properties properties )
+    {
+        super.putAll( properties );
+    }
+
+    /**
+     * Replace the properties of the model and of each of its profiles with tracked copies, unless they are already
+     * tracked. This should be done before any other references to the property tables are taken.
+     *
+     * @param model the model to track.
+     */
+    public static void track( final Model model )
+    {
+        track( (ModelBase) model );
+        for ( final Profile profile : model.getProfiles() )
+        {
+            track( profile );
+        }
+    }
+
+    private static void track( final ModelBase base )
+    {
+        if ( !( base.getProperties() instanceof TrackedProperties ) )
+        {
+            base.setProperties( new TrackedProperties( base.getProperties() ) );
+        }
+    }
+
+    /**
+     * @return the number of modifications made so far.
+     */
+    public int getModifications()
+    {
+        return modifications;
+    }
+
+    /**
+     * @return the number of modifications that added or removed a key made so far.
+     */
+    public int getKeyModifications()
+    {
+        return keyModifications;
+    }
+
+    @Override
+    public synchronized Object put( final Object key, final Object value )
+    {
+        modifications++;
+        final Object previous = super.put( key, value );
+        if ( previous == null )
+        {
+            keyModifications++;
+        }
+        return previous;
+    }
+
+    @Override
+    public synchronized Object remove( final Object key )
+    {
+        modifications++;
+        final Object previous = super.remove( key );
+        if ( previous != null )
+        {
+            keyModifications++;
+        }
+        return previous;
+    }
+
+    @Override
+    public synchronized void clear()
+    {
+        modifications++;
+        keyModifications++;
+        super.clear();
+    }
+}
@@ -22,6 +22,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.introspect.VisibilityChecker;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.project.ProjectBuilder;
@@ -29,6 +30,8 @@ import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.component.annotations.Requirement;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.GAV;
+import org.commonjava.maven.ext.common.model.ModelChange;
+import org.commonjava.maven.ext.common.util.ModelDiff;
 import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.core.impl.Manipulator;
 import org.commonjava.maven.ext.core.state.CommonState;
@@ -37,12 +40,14 @@ import org.commonjava.maven.ext.core.state.VersioningState;
 import org.commonjava.maven.ext.core.util.ManipulatorPriorityComparator;
 import org.commonjava.maven.ext.io.PomIO;
 import org.commonjava.maven.ext.io.resolver.ExtensionInfrastructure;
+import org.commonjava.maven.ext.io.resolver.GalleyInfrastructure;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -84,6 +89,9 @@ public class ManipulationManager
     @Requirement( role = ExtensionInfrastructure.class )
     private Map<String, ExtensionInfrastructure> infrastructure;
 
+    @Requirement( role = ExtensionInfrastructure.class, hint = "galley" )
+    private GalleyInfrastructure galleyInfra;
+
     @Requirement
     private PomIO pomIO;
 
@@ -110,6 +118,8 @@ public class ManipulationManager
                         session.getSettings(), session.getActiveProfiles() );
         }
 
+        pomIO.init( galleyInfra.getCacheDir(), session.getUserProperties() );
+
         orderedManipulators = new ArrayList<>( manipulators.values() );
         // The RESTState depends upon the VersionState being initialised. Therefore initialise in reverse order
         // and do a final sort to run in the correct order.
@@ -132,10 +142,27 @@ public class ManipulationManager
      * Encapsulates both {@link #scan(List, ManipulationSession)} and {@link #applyManipulations(List)}
      *
      * @param session the container session for manipulation.
-     * @throws ManipulationException if an error occurs.
+     * @throws ManipulationException if an error occurs, including a failure to load a module model on demand.
      */
     public void scanAndApply( final ManipulationSession session )
                     throws ManipulationException
+    {
+        try
+        {
+            doScanAndApply( session );
+        }
+        catch ( final Project.ModelLoadException e )
+        {
+            throw e.getCause();
+        }
+        finally
+        {
+            pomIO.release();
+        }
+    }
+
+    private void doScanAndApply( final ManipulationSession session )
+                    throws ManipulationException
     {
         final List<Project> projects = pomIO.parseProject( session.getPom() );
 
@@ -146,16 +173,38 @@ public class ManipulationManager
             logger.debug( "Got " + project + " (POM: " + project.getPom() + ")" );
         }
 
-        Set<Project> changed = applyManipulations( projects );
+        final Set<Project> reported = new HashSet<>();
+        final Set<Project> changed = applyManipulations( projects, reported );
 
-        // Create a marker file if we made some changes to prevent duplicate runs.
-        if ( !changed.isEmpty() )
+        if ( logger.isDebugEnabled() )
         {
-            logger.info( "Maven-Manipulation-Extension: Rewrite changed: " + projects );
+            int hits = 0;
+            int misses = 0;
+            for ( final Project project : projects )
+            {
+                hits += project.getInterpolationHits();
+                misses += project.getInterpolationMisses();
+            }
+            logger.debug( "Interpolation cache: {} hits, {} misses ({}% hit rate).", hits, misses,
+                          hits + misses == 0 ? 0 : hits * 100 / ( hits + misses ) );
+        }
+
+        // Create a marker file if we made some changes to prevent duplicate runs. As before, this is whenever a
+        // manipulator reports a change, as manipulators may have changed files other than the POMs.
+        if ( !reported.isEmpty() )
+        {
+            logger.info( "Maven-Manipulation-Extension: Rewrite changed: " + changed );
 
             GAV gav = new GAV();
 
-            pomIO.rewritePOMs( gav, changed );
+            for ( final Project project : pomIO.rewritePOMs( gav, changed ) )
+            {
+                if ( project.getChanges().isEmpty() )
+                {
+                    // Changed in some way that isn't itemised.
+                    project.recordChange( new ModelChange( "model", null, null ) );
+                }
+            }
 
             try
             {
@@ -170,7 +219,7 @@ public class ManipulationManager
 
                 try (FileWriter writer = new FileWriter( new File ( session.getTargetDir().getParentFile(), RESULT_FILE ) ) )
                 {
-                    writer.write( collectResults( session ) );
+                    writer.write( collectResults( session, projects ) );
                 }
             }
             catch ( IOException e )
@@ -214,21 +263,54 @@ public class ManipulationManager
      *   <li>rewrite any POMs that were changed</li>
      * </ul>
      *
+     * The projects that may have changed are those the manipulators report, if their model has been loaded, and those
+     * whose model differs in a value that {@link ModelDiff} itemises ; the latter are recorded in the change journal
+     * of each project. Of these, POMs whose content would be unchanged are not rewritten.
+     *
      * @param projects the list of Projects to apply the changes to.
-     * @return collection of the changed projects.
+     * @param reported to be filled with the projects reported as changed by the manipulators.
+     * @return collection of the projects that may have changed.
      * @throws ManipulationException if an error occurs.
      */
-    private Set<Project> applyManipulations( final List<Project> projects )
+    private Set<Project> applyManipulations( final List<Project> projects, final Set<Project> reported )
         throws ManipulationException
     {
-        final Set<Project> changed = new HashSet<>();
         for ( final Manipulator manipulator : orderedManipulators )
         {
             final Set<Project> mChanged = manipulator.applyChanges( projects );
 
             if ( mChanged != null )
             {
-                changed.addAll( mChanged );
+                reported.addAll( mChanged );
+            }
+        }
+
+        final Set<Project> changed = new HashSet<>();
+        final Set<Project> unreported = new HashSet<>();
+        for ( final Project project : projects )
+        {
+            final List<ModelChange> changes = project.getModelChanges();
+            for ( final ModelChange change : changes )
+            {
+                logger.debug( "Change to {} : {}", project, change );
+                project.recordChange( change );
+            }
+
+            if ( reported.contains( project ) )
+            {
+                if ( project.isModelLoaded() )
+                {
+                    changed.add( project );
+                }
+                else
+                {
+                    logger.debug( "{} was reported as changed but its model was never loaded.", project );
+                }
+            }
+            else if ( !changes.isEmpty() )
+            {
+                changed.add( project );
+                unreported.add( project );
             }
         }
 
@@ -236,6 +318,11 @@ public class ManipulationManager
         {
             logger.info( "Maven-Manipulation-Extension: No changes." );
         }
+        else if ( reported.isEmpty() )
+        {
+            logger.warn( "Maven-Manipulation-Extension: {} modified but not reported as changed ; not rewriting.",
+                         unreported );
+        }
 
         return changed;
     }
@@ -251,11 +338,13 @@ public class ManipulationManager
      * The result is a map from short state class names
      * to the result of the state serialization.
      * Keys with empty values are excluded.
+     * The change journal of each changed POM is listed under {@code changes}.
      *
      * @param session the container session for manipulation.
+     * @param projects the list of Projects.
      * @throws ManipulationException if an error occurs.
      */
-    private String collectResults( final ManipulationSession session )
+    private String collectResults( final ManipulationSession session, final List<Project> projects )
                     throws ManipulationException, JsonProcessingException
     {
         final ObjectMapper MAPPER = new ObjectMapper();
@@ -278,6 +367,25 @@ public class ManipulationManager
             }
         }
 
+        final ArrayNode changes = MAPPER.createArrayNode();
+        final URI base = session.getPom().getAbsoluteFile().getParentFile().toURI();
+        for ( final Project project : projects )
+        {
+            if ( !project.getChanges().isEmpty() )
+            {
+                final ObjectNode summary = changes.addObject();
+                summary.put( "pom", project.getPom() == null ?
+                                null :
+                                base.relativize( project.getPom().getAbsoluteFile().toURI() ).getPath() );
+                summary.put( "project", project.getKey().toString() );
+                summary.set( "changes", MAPPER.valueToTree( project.getChanges() ) );
+            }
+        }
+        if ( changes.size() != 0 )
+        {
+            root.set( "changes", changes );
+        }
+
         return MAPPER.writeValueAsString( root );
     }
 }
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.impl;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.commonjava.maven.ext.core.impl.Version.isDelimiter;
+import static org.commonjava.maven.ext.core.impl.Version.isDigit;
+
+/**
+ * Indexes a set of versions by the highest build number for each MMM and qualifier, so that
+ * {@link Version#findHighestMatchingBuildNumber(String, Set)} may be answered for any number of versions without
+ * scanning the set again. Each version is indexed under every MMM and qualifier that would match it, i.e. each split of
+ * &lt;mmm&gt;.&lt;qualifier&gt;.&lt;buildnum&gt; at a delimiter, and each MMM without any zeros appended to it.
+ */
+public final class BuildNumberIndex
+{
+    private final Set<String> versions = new HashSet<>();
+
+    /**
+     * The highest build number by MMM and then qualifier.
+     */
+    private final Map<String, Map<String, String>> highest = new HashMap<>();
+
+    /**
+     * The highest build number by qualifier of versions such as ".Final-1" with no MMM, which match any.
+     */
+    private final Map<String, String> highestWithoutMMM = new HashMap<>();
+
+    public BuildNumberIndex()
+    {
+    }
+
+    public BuildNumberIndex( final Collection<String> versions )
+    {
+        for ( final String version : versions )
+        {
+            add( version );
+        }
+    }
+
+    /**
+     * @param version the version to add.
+     * @return true if the version was not already in the index.
+     */
+    public boolean add( final String version )
+    {
+        if ( !versions.add( version ) )
+        {
+            return false;
+        }
+
+        // The build number is all the trailing digits, following a delimiter.
+        final int length = version.length();
+        int buildStart = length;
+        while ( buildStart > 0 && isDigit( version.charAt( buildStart - 1 ) ) )
+        {
+            buildStart--;
+        }
+        if ( buildStart == length || buildStart == 0 || !isDelimiter( version.charAt( buildStart - 1 ) ) )
+        {
+            return true;
+        }
+        final String buildNumber = version.substring( buildStart );
+        final int end = buildStart - 1;
+
+        index( version.substring( 0, end ), "", buildNumber );
+        for ( int i = 0; i < end - 1; i++ )
+        {
+            if ( isDelimiter( version.charAt( i ) ) )
+            {
+                index( version.substring( 0, i ), version.substring( i + 1, end ), buildNumber );
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of distinct versions added.
+     */
+    public int size()
+    {
+        return versions.size();
+    }
+
+    /**
+     * @param version the Version object to use.
+     * @return the highest build number of the indexed versions matching the version, as
+     * {@link Version#findHighestMatchingBuildNumber(String, Set)}, or 0 if no matching build numbers are found.
+     */
+    public int findHighestMatchingBuildNumber( final String version )
+    {
+        final String qualifier = Version.getMatchingQualifier( version );
+        final Map<String, String> byQualifier = highest.get( Version.getMMM( version ) );
+
+        final String buildNumber =
+                        max( byQualifier == null ? null : byQualifier.get( qualifier ), highestWithoutMMM.get( qualifier ) );
+        return buildNumber == null ? 0 : Integer.parseInt( buildNumber );
+    }
+
+    private void index( final String mmm, final String qualifier, final String buildNumber )
+    {
+        if ( mmm.isEmpty() )
+        {
+            update( highestWithoutMMM, qualifier, buildNumber );
+        }
+
+        // Index each MMM it would match, as zeros may be appended to a major only version.
+        int end = mmm.length();
+        while ( true )
+        {
+            final String key = end == mmm.length() ? mmm : mmm.substring( 0, end );
+            Map<String, String> byQualifier = highest.get( key );
+            if ( byQualifier == null )
+            {
+                byQualifier = new HashMap<>();
+                highest.put( key, byQualifier );
+            }
+            update( byQualifier, qualifier, buildNumber );
+
+            if ( end < 2 || mmm.charAt( end - 1 ) != '0' || !isDelimiter( mmm.charAt( end - 2 ) ) )
+            {
+                break;
+            }
+            end -= 2;
+        }
+    }
+
+    private static void update( final Map<String, String> buildNumbers, final String key, final String buildNumber )
+    {
+        buildNumbers.put( key, max( buildNumbers.get( key ), buildNumber ) );
+    }
+
+    /**
+     * Compares build numbers numerically without parsing them, as they may have leading zeros or overflow an int.
+     */
+    private static String max( final String first, final String second )
+    {
+        if ( first == null )
+        {
+            return second;
+        }
+        if ( second == null )
+        {
+            return first;
+        }
+        final String a = stripLeadingZeros( first );
+        final String b = stripLeadingZeros( second );
+        if ( a.length() != b.length() )
+        {
+            return a.length() > b.length() ? first : second;
+        }
+        return a.compareTo( b ) >= 0 ? first : second;
+    }
+
+    private static String stripLeadingZeros( final String buildNumber )
+    {
+        int start = 0;
+        while ( start < buildNumber.length() - 1 && buildNumber.charAt( start ) == '0' )
+        {
+            start++;
+        }
+        return buildNumber.substring( start );
+    }
+}
@@ -30,31 +30,37 @@ import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
 import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
 import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
 import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.model.CoordinatePool;
 import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.core.ManipulationSession;
 import org.commonjava.maven.ext.core.state.CommonState;
 import org.commonjava.maven.ext.core.state.DependencyState;
 import org.commonjava.maven.ext.core.state.DependencyState.DependencyPrecedence;
 import org.commonjava.maven.ext.core.state.RESTState;
+import org.commonjava.maven.ext.core.util.OverrideMerger;
 import org.commonjava.maven.ext.core.util.PropertiesUtils;
 import org.commonjava.maven.ext.core.util.WildcardMap;
 import org.commonjava.maven.ext.io.ModelIO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.apache.commons.lang.StringUtils.isEmpty;
-import static org.apache.commons.lang.StringUtils.join;
 import static org.commonjava.maven.ext.core.util.IdUtils.ga;
 import static org.commonjava.maven.ext.core.util.IdUtils.gav;
 
@@ -144,7 +150,6 @@ public class DependencyManipulator implements Manipulator
         // Which is useful for strictAlignment scenarios (although undefined for non-strict).
         Map<ArtifactRef, String> restOverrides = depState.getRemoteRESTOverrides();
         Map<ArtifactRef, String> bomOverrides = new LinkedHashMap<>();
-        Map<ArtifactRef, String> mergedOverrides = new LinkedHashMap<>();
 
         if ( gavs != null )
         {
@@ -161,63 +166,25 @@ public class DependencyManipulator implements Manipulator
             }
         }
 
-        if ( depState.getPrecedence() == DependencyPrecedence.BOM )
+        if ( depState.getPrecedence() == DependencyPrecedence.BOM && bomOverrides.isEmpty() )
         {
-            mergedOverrides = bomOverrides;
-            if ( mergedOverrides.isEmpty() )
-            {
-                String msg = restState.isEnabled() ? "dependencySource for restURL" : "dependencyManagement";
+            String msg = restState.isEnabled() ? "dependencySource for restURL" : "dependencyManagement";
 
-                logger.warn( "No dependencies found for dependencySource {}. Has {} been configured? ", depState.getPrecedence(), msg );
-            }
+            logger.warn( "No dependencies found for dependencySource {}. Has {} been configured? ", depState.getPrecedence(), msg );
         }
-        if ( depState.getPrecedence() == DependencyPrecedence.REST )
+        else if ( depState.getPrecedence() == DependencyPrecedence.REST && restOverrides.isEmpty() )
         {
-            mergedOverrides = restOverrides;
-            if ( mergedOverrides.isEmpty() )
-            {
-                logger.warn( "No dependencies found for dependencySource {}. Has restURL been configured? ", depState.getPrecedence() );
-            }
+            logger.warn( "No dependencies found for dependencySource {}. Has restURL been configured? ", depState.getPrecedence() );
         }
-        else if ( depState.getPrecedence() == DependencyPrecedence.RESTBOM )
-        {
-            mergedOverrides = bomOverrides;
 
-            removeDuplicateArtifacts( mergedOverrides, restOverrides );
-            mergedOverrides.putAll( restOverrides );
-        }
-        else if ( depState.getPrecedence() == DependencyPrecedence.BOMREST )
-        {
-            mergedOverrides = restOverrides;
-            removeDuplicateArtifacts( mergedOverrides, bomOverrides );
-            mergedOverrides.putAll( bomOverrides );
-        }
+        final Map<ArtifactRef, String> mergedOverrides =
+                        OverrideMerger.merge( depState.getPrecedence(), restOverrides, bomOverrides );
+
         logger.info ( "Remote precedence is {}", depState.getPrecedence() );
         logger.debug ("Final remote override list is {}", mergedOverrides);
         return mergedOverrides;
     }
 
-
-    private void removeDuplicateArtifacts( Map<ArtifactRef, String> mergedOverrides, Map<ArtifactRef, String> targetOverrides )
-    {
-        Iterator<ArtifactRef> i = mergedOverrides.keySet().iterator();
-        while ( i.hasNext() )
-        {
-            ArtifactRef key = i.next();
-            ProjectRef pRef = key.asProjectRef();
-
-            for ( ArtifactRef target : targetOverrides.keySet() )
-            {
-                if ( pRef.equals( target.asProjectRef() ) )
-                {
-                    logger.debug( "From source overrides artifact {} clashes with target {}", key, target );
-                    i.remove();
-                    break;
-                }
-            }
-        }
-    }
-
     @Override
     public int getExecutionIndex()
     {
@@ -230,16 +197,35 @@ public class DependencyManipulator implements Manipulator
         final DependencyState state = session.getState( DependencyState.class );
         final Set<Project> result = new HashSet<>();
 
-        for ( final Project project : projects )
+        if ( !projects.isEmpty() && ( !overrides.isEmpty() || !state.getDependencyExclusions().isEmpty() ) )
         {
-            final Model model = project.getModel();
-
-            if (!overrides.isEmpty() || !state.getDependencyExclusions().isEmpty())
+            final OverrideIndex overrideIndex = new OverrideIndex( overrides );
+            final OverrideRules overrideRules;
+            try
             {
-                apply( project, model, overrides );
+                overrideRules = new OverrideRules( overrides, state.getDependencyExclusions() );
+            }
+            catch ( InvalidRefException e )
+            {
+                logger.error( "Invalid module exclusion override {} ", state.getDependencyExclusions() );
+                throw e;
+            }
+
+            final PropertyUpdates updates =
+                            new PropertyUpdates( versionPropertyUpdateMap, explicitVersionPropertyUpdateMap );
 
-                result.add( project );
+            if ( state.getParallelAlignment() && projects.size() > 1 )
+            {
+                applyConcurrently( projects, overrides, overrideIndex, overrideRules, updates );
+            }
+            else
+            {
+                for ( final Project project : projects )
+                {
+                    apply( project, project.getModel(), overrides, overrideIndex, overrideRules, updates );
+                }
             }
+            result.addAll( projects );
         }
 
         // If we've changed something now update any old properties with the new values.
@@ -295,28 +281,123 @@ public class DependencyManipulator implements Manipulator
         return result;
     }
 
+    /**
+     * Applies dependency overrides to the projects concurrently, with the same result as applying them in order.
+     * <p>
+     * Each project only modifies its own model, and records its property updates in a buffer of its own which is
+     * merged in project order ; property clashes are only ever detected between the updates of a single project so
+     * are unaffected. The exception is an inheritance root, which also updates its parent reference and
+     * dependency management and is visible to other modules through their interpolators. These are therefore applied
+     * on their own, once the projects before them have been, and before any project after them.
+     */
+    private void applyConcurrently( final List<Project> projects, final Map<ArtifactRef, String> overrides,
+                                    final OverrideIndex overrideIndex, final OverrideRules overrideRules,
+                                    final PropertyUpdates updates )
+                    throws ManipulationException
+    {
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                        Math.min( projects.size(), Runtime.getRuntime().availableProcessors() ) );
+        try
+        {
+            final List<Project> batch = new ArrayList<>();
+            for ( final Project project : projects )
+            {
+                if ( project.isInheritanceRoot() )
+                {
+                    applyConcurrently( executor, batch, overrides, overrideIndex, overrideRules, updates );
+                    batch.clear();
+
+                    apply( project, project.getModel(), overrides, overrideIndex, overrideRules, updates );
+                }
+                else
+                {
+                    batch.add( project );
+                }
+            }
+            applyConcurrently( executor, batch, overrides, overrideIndex, overrideRules, updates );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private void applyConcurrently( final ExecutorService executor, final List<Project> batch,
+                                    final Map<ArtifactRef, String> overrides, final OverrideIndex overrideIndex,
+                                    final OverrideRules overrideRules, final PropertyUpdates updates )
+                    throws ManipulationException
+    {
+        if ( batch.size() <= 1 )
+        {
+            for ( final Project project : batch )
+            {
+                apply( project, project.getModel(), overrides, overrideIndex, overrideRules, updates );
+            }
+            return;
+        }
+
+        final List<Future<PropertyUpdates>> results = new ArrayList<>( batch.size() );
+        for ( final Project project : batch )
+        {
+            final PropertyUpdates buffer = updates.buffer( project );
+            results.add( executor.submit( new Callable<PropertyUpdates>()
+            {
+                @Override
+                public PropertyUpdates call()
+                                throws ManipulationException
+                {
+                    apply( project, project.getModel(), overrides, overrideIndex, overrideRules, buffer );
+                    return buffer;
+                }
+            } ) );
+        }
+        try
+        {
+            for ( final Future<PropertyUpdates> result : results )
+            {
+                updates.merge( result.get() );
+            }
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new ManipulationException( "Interrupted while aligning dependencies.", e );
+        }
+        catch ( final ExecutionException e )
+        {
+            if ( e.getCause() instanceof ManipulationException )
+            {
+                throw (ManipulationException) e.getCause();
+            }
+            else if ( e.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ManipulationException( "Problem aligning dependencies: %s", e.getCause(),
+                                             e.getCause().getMessage() );
+        }
+    }
+
     /**
      * Applies dependency overrides to the project.
      */
-    private void apply( final Project project, final Model model, final Map<ArtifactRef, String> overrides )
+    private void apply( final Project project, final Model model, final Map<ArtifactRef, String> overrides,
+                        final OverrideIndex overrideIndex, final OverrideRules overrideRules,
+                        final PropertyUpdates updates )
                     throws ManipulationException
     {
         // Map of Group : Map of artifactId [ may be wildcard ] : value
         final WildcardMap<String> explicitOverrides = new WildcardMap<>();
         final String projectGA = ga( project );
-        final DependencyState dependencyState = session.getState( DependencyState.class );
         final CommonState commonState = session.getState( CommonState.class );
 
         logger.info ("Processing project {} ", projectGA);
 
-        Map<ArtifactRef, String> moduleOverrides = new LinkedHashMap<>( overrides );
-        moduleOverrides = removeReactorGAs( moduleOverrides );
+        Map<ArtifactRef, String> moduleOverrides = overrides;
 
         try
         {
-            moduleOverrides = applyModuleVersionOverrides( projectGA,
-                                                           dependencyState.getDependencyExclusions(),
-                                                           moduleOverrides, explicitOverrides );
+            moduleOverrides = overrideRules.apply( projectGA, explicitOverrides );
             logger.debug( "Module overrides are:\n{}", moduleOverrides );
             logger.debug( "Explicit overrides are:\n{}", explicitOverrides);
         }
@@ -374,7 +455,7 @@ public class DependencyManipulator implements Manipulator
                 d.setArtifactId( project.getModelParent().getArtifactId() );
                 d.setVersion( project.getModelParent().getVersion() );
                 pDepMap.put( SimpleArtifactRef.parse( d.getManagementKey() ), d );
-                applyExplicitOverrides( project, pDepMap, explicitOverrides, commonState, explicitVersionPropertyUpdateMap );
+                applyExplicitOverrides( project, pDepMap, explicitOverrides, commonState, updates.explicitVersions );
                 project.getModelParent().setVersion( d.getVersion() );
             }
 
@@ -383,15 +464,12 @@ public class DependencyManipulator implements Manipulator
                 // Apply overrides to project dependency management
                 logger.debug( "Applying overrides to managed dependencies for: {}", projectGA );
 
-                final Map<ArtifactRef, String> nonMatchingVersionOverrides =
+                final Set<ArtifactRef> matchedOverrides =
                                 applyOverrides( project, project.getResolvedManagedDependencies( session ),
-                                                explicitOverrides, moduleOverrides );
-
-                final Map<ArtifactRef, String> matchedOverrides = new LinkedHashMap<>( moduleOverrides );
-                matchedOverrides.keySet().removeAll( nonMatchingVersionOverrides.keySet() );
+                                                explicitOverrides, moduleOverrides, overrideIndex, updates.versions );
 
                 applyExplicitOverrides( project, project.getResolvedManagedDependencies( session ), explicitOverrides,
-                                        commonState, explicitVersionPropertyUpdateMap );
+                                        commonState, updates.explicitVersions );
 
                 if ( commonState.getOverrideTransitive() )
                 {
@@ -400,7 +478,7 @@ public class DependencyManipulator implements Manipulator
                     // Add dependencies to Dependency Management which did not match any existing dependency
                     for ( final ArtifactRef var : overrides.keySet() )
                     {
-                        if ( !nonMatchingVersionOverrides.containsKey( var ) )
+                        if ( !moduleOverrides.containsKey( var ) || matchedOverrides.contains( var ) )
                         {
                             // This one in the remote pom was already dealt with ; continue.
                             continue;
@@ -449,9 +527,9 @@ public class DependencyManipulator implements Manipulator
             {
                 logger.debug( "Applying overrides to managed dependencies for: {}", projectGA );
                 applyOverrides( project, project.getResolvedManagedDependencies( session ), explicitOverrides,
-                                moduleOverrides );
+                                moduleOverrides, overrideIndex, updates.versions );
                 applyExplicitOverrides( project, project.getResolvedManagedDependencies( session ), explicitOverrides,
-                                        commonState, explicitVersionPropertyUpdateMap );
+                                        commonState, updates.explicitVersions );
             }
             else
             {
@@ -463,21 +541,22 @@ public class DependencyManipulator implements Manipulator
         {
             logger.debug( "Applying overrides to concrete dependencies for: {}", projectGA );
             // Apply overrides to project direct dependencies
-            applyOverrides( project, project.getResolvedDependencies( session ), explicitOverrides, moduleOverrides );
-            applyExplicitOverrides( project, project.getResolvedDependencies( session ), explicitOverrides, commonState, explicitVersionPropertyUpdateMap );
+            applyOverrides( project, project.getResolvedDependencies( session ), explicitOverrides, moduleOverrides,
+                            overrideIndex, updates.versions );
+            applyExplicitOverrides( project, project.getResolvedDependencies( session ), explicitOverrides, commonState, updates.explicitVersions );
 
             final HashMap<Profile, HashMap<ArtifactRef, Dependency>> pd = project.getResolvedProfileDependencies( session );
             final HashMap<Profile, HashMap<ArtifactRef, Dependency>> pmd = project.getResolvedProfileManagedDependencies( session );
 
             for ( Profile p : pd.keySet())
             {
-                applyOverrides( project, pd.get( p ), explicitOverrides, moduleOverrides );
-                applyExplicitOverrides( project, pd.get( p ), explicitOverrides, commonState, explicitVersionPropertyUpdateMap );
+                applyOverrides( project, pd.get( p ), explicitOverrides, moduleOverrides, overrideIndex, updates.versions );
+                applyExplicitOverrides( project, pd.get( p ), explicitOverrides, commonState, updates.explicitVersions );
             }
             for ( Profile p : pmd.keySet())
             {
-                applyOverrides( project, pmd.get( p ), explicitOverrides, moduleOverrides );
-                applyExplicitOverrides( project, pmd.get( p ), explicitOverrides, commonState, explicitVersionPropertyUpdateMap );
+                applyOverrides( project, pmd.get( p ), explicitOverrides, moduleOverrides, overrideIndex, updates.versions );
+                applyExplicitOverrides( project, pmd.get( p ), explicitOverrides, commonState, updates.explicitVersions );
             }
         }
         else
@@ -506,7 +585,7 @@ public class DependencyManipulator implements Manipulator
         // Apply matching overrides to dependencies
         for ( final ProjectVersionRef dependency : dependencies.keySet() )
         {
-            final ProjectRef groupIdArtifactId = new SimpleProjectRef( dependency.getGroupId(), dependency.getArtifactId() );
+            final ProjectRef groupIdArtifactId = CoordinatePool.projectRef( dependency.getGroupId(), dependency.getArtifactId() );
 
             if ( explicitOverrides.containsKey( groupIdArtifactId ) )
             {
@@ -562,329 +641,515 @@ public class DependencyManipulator implements Manipulator
     }
 
     /**
-     * Apply a set of version overrides to a list of dependencies. Return a set of the overrides which were not applied.
+     * Apply a set of version overrides to a list of dependencies. Return a set of the overrides which were applied.
      *
      * @param project The current Project
      * @param dependencies The list of dependencies
      * @param explicitOverrides Any explicitOverrides to track for ignoring
      * @param overrides The map of dependency version overrides
-     * @return The map of overrides that were not matched in the dependencies
+     * @param overrideIndex The index of the overrides of this run, of which {@code overrides} is a subset
+     * @param versionPropertyUpdateMap properties to update
+     * @return The set of overrides that were matched in the dependencies
      * @throws ManipulationException if an error occurs
      */
-    private Map<ArtifactRef, String> applyOverrides( final Project project, final HashMap<ArtifactRef, Dependency> dependencies,
-                                                     final WildcardMap<String> explicitOverrides, final Map<ArtifactRef, String> overrides )
+    private Set<ArtifactRef> applyOverrides( final Project project, final HashMap<ArtifactRef, Dependency> dependencies,
+                                             final WildcardMap<String> explicitOverrides,
+                                             final Map<ArtifactRef, String> overrides,
+                                             final OverrideIndex overrideIndex,
+                                             final Map<Project, Map<String, String>> versionPropertyUpdateMap )
                     throws ManipulationException
     {
-        // Duplicate the override map so unused overrides can be easily recorded
-        final Map<ArtifactRef, String> unmatchedVersionOverrides = new LinkedHashMap<>();
-        unmatchedVersionOverrides.putAll( overrides );
+        final Set<ArtifactRef> matchedVersionOverrides = new HashSet<>();
 
         if ( dependencies == null || dependencies.size() == 0 )
         {
-            return unmatchedVersionOverrides;
+            return matchedVersionOverrides;
         }
 
         final CommonState commonState = session.getState( CommonState.class );
         final boolean strict = commonState.getStrict();
 
         // Apply matching overrides to dependencies
-        for ( final ProjectVersionRef dependency : dependencies.keySet() )
+        for ( final ArtifactRef dependency : dependencies.keySet() )
         {
-            ProjectRef depPr = new SimpleProjectRef( dependency.getGroupId(), dependency.getArtifactId() );
+            final ProjectRef groupIdArtifactId =
+                            CoordinatePool.projectRef( dependency.getGroupId(), dependency.getArtifactId() );
 
             // We might have junit:junit:3.8.2 and junit:junit:4.1 for differing override scenarios within the
             // overrides list. If strict mode alignment is enabled, using multiple overrides will work with
             // different modules. It is currently undefined what will happen if non-strict mode is enabled and
             // multiple versions are in the remote override list (be it from a bom or rest call). Actually, what
             // will most likely happen is last-wins.
-            for ( final Map.Entry<ArtifactRef, String> entry : overrides.entrySet() )
+            for ( final ArtifactRef override : overrideIndex.match( groupIdArtifactId, overrides ) )
             {
-                ProjectRef groupIdArtifactId = entry.getKey().asProjectRef();
+                final String oldVersion = dependencies.get( dependency ).getVersion();
+                final String overrideVersion = overrides.get( override );
+                final String resolvedValue = dependency.getVersionString();
 
-                if ( depPr.equals( groupIdArtifactId ) )
+                if ( isEmpty( overrideVersion ) )
                 {
-                    final String oldVersion = dependencies.get( dependency ).getVersion();
-                    final String overrideVersion = entry.getValue();
-                    final String resolvedValue = dependency.getVersionString();
-
-                    if ( isEmpty( overrideVersion ) )
+                    logger.warn( "Unable to align with an empty override version for " + groupIdArtifactId + "; ignoring" );
+                }
+                else if ( isEmpty( oldVersion ) )
+                {
+                    logger.debug( "Dependency is a managed version for " + groupIdArtifactId + "; ignoring" );
+                }
+                // If we have an explicitOverride, this will always override the dependency changes made here.
+                // By avoiding the potential duplicate work it also avoids a possible property clash problem.
+                else if ( explicitOverrides.containsKey( groupIdArtifactId ) )
+                {
+                    logger.debug ("Dependency {} matches known explicit override so not performing initial override pass.", groupIdArtifactId);
+                    matchedVersionOverrides.add( override );
+                }
+                // If we're doing strict matching with properties, then the original parts should match.
+                // i.e. assuming original resolved value is 1.2 and potential new value is 1.2.rebuild-1
+                // then this is fine to continue. If the original is 1.2 and potential new value is 1.3.rebuild-1
+                // then don't bother to attempt to cache the property as the strict check would fail.
+                // This extra check avoids an erroneous "Property replacement clash" error.
+
+                // Can't blindly compare resolvedValue [original] against ar as ar / overrideVersion is the new GAV. We don't
+                // have immediate access to the original property so the closest that is feasible is verify strict matching.
+                else if ( strict && oldVersion.contains( "$" ) &&
+                                ! PropertiesUtils.checkStrictValue( session, resolvedValue, overrideVersion) )
+                {
+                    logger.debug ("Original fully resolved version {} of {} does not match override version {} -> {} so ignoring",
+                                  resolvedValue, dependency, override, overrideVersion);
+                    if ( commonState.getFailOnStrictViolation() )
                     {
-                        logger.warn( "Unable to align with an empty override version for " + groupIdArtifactId + "; ignoring" );
+                        throw new ManipulationException(
+                                        "For {} replacing original property version {} (fully resolved: {} ) with new version {} for {} violates the strict version-alignment rule!",
+                                        groupIdArtifactId.toString(), dependencies.get( dependency ).getVersion(), resolvedValue, override.getVersionString(), override.asProjectRef().toString());
                     }
-                    else if ( isEmpty( oldVersion ) )
+                    else
                     {
-                        logger.debug( "Dependency is a managed version for " + groupIdArtifactId + "; ignoring" );
+                        logger.warn( "Replacing original property version {} with new version {} for {} violates the strict version-alignment rule!",
+                                     resolvedValue, overrideVersion, dependencies.get( dependency ).getVersion() );
                     }
-                    // If we have an explicitOverride, this will always override the dependency changes made here.
-                    // By avoiding the potential duplicate work it also avoids a possible property clash problem.
-                    else if ( explicitOverrides.containsKey( depPr ) )
+                }
+                else
+                {
+                    // Too much spurious logging with project.version.
+                    if ( ! oldVersion.equals( "${project.version}" ) )
                     {
-                        logger.debug ("Dependency {} matches known explicit override so not performing initial override pass.", depPr);
-                        unmatchedVersionOverrides.remove( entry.getKey() );
+                        logger.info( "Updating version {} for dependency {} from {}.", overrideVersion, dependency, project.getPom() );
                     }
-                    // If we're doing strict matching with properties, then the original parts should match.
-                    // i.e. assuming original resolved value is 1.2 and potential new value is 1.2.rebuild-1
-                    // then this is fine to continue. If the original is 1.2 and potential new value is 1.3.rebuild-1
-                    // then don't bother to attempt to cache the property as the strict check would fail.
-                    // This extra check avoids an erroneous "Property replacement clash" error.
-
-                    // Can't blindly compare resolvedValue [original] against ar as ar / overrideVersion is the new GAV. We don't
-                    // have immediate access to the original property so the closest that is feasible is verify strict matching.
-                    else if ( strict && oldVersion.contains( "$" ) &&
-                                    ! PropertiesUtils.checkStrictValue( session, resolvedValue, overrideVersion) )
+
+                    if ( ! PropertiesUtils.cacheProperty( project, commonState, versionPropertyUpdateMap, oldVersion, overrideVersion, override, false ))
                     {
-                        logger.debug ("Original fully resolved version {} of {} does not match override version {} -> {} so ignoring",
-                                      resolvedValue, dependency, entry.getKey(), overrideVersion);
-                        if ( commonState.getFailOnStrictViolation() )
+                        if ( oldVersion.equals( "${project.version}" ) )
                         {
-                            throw new ManipulationException(
-                                            "For {} replacing original property version {} (fully resolved: {} ) with new version {} for {} violates the strict version-alignment rule!",
-                                            depPr.toString(), dependencies.get( dependency ).getVersion(), resolvedValue, entry.getKey().getVersionString(), entry.getKey().asProjectRef().toString());
+                            logger.debug( "For dependency {} ; version is built in {} so skipping inlining {}", groupIdArtifactId, oldVersion,
+                                          overrideVersion );
                         }
-                        else
+                        else if ( strict && ! PropertiesUtils.checkStrictValue( session, resolvedValue, overrideVersion) )
                         {
-                            logger.warn( "Replacing original property version {} with new version {} for {} violates the strict version-alignment rule!",
-                                         resolvedValue, overrideVersion, dependencies.get( dependency ).getVersion() );
+                            if ( commonState.getFailOnStrictViolation() )
+                            {
+                                throw new ManipulationException(
+                                                 "Replacing original version {} in dependency {} with new version {} violates the strict version-alignment rule!",
+                                                 oldVersion, groupIdArtifactId.toString(), overrideVersion );
+                            }
+                            else
+                            {
+                                logger.warn( "Replacing original version {} in dependency {} with new version {} violates the strict version-alignment rule!",
+                                             oldVersion, groupIdArtifactId, overrideVersion );
+                            }
                         }
-                    }
-                    else
-                    {
-                        // Too much spurious logging with project.version.
-                        if ( ! oldVersion.equals( "${project.version}" ) )
+                        else
                         {
-                            logger.info( "Updating version {} for dependency {} from {}.", overrideVersion, dependency, project.getPom() );
-                        }
+                            logger.debug( "Altered dependency {} : {} -> {}", groupIdArtifactId, oldVersion,
+                                          overrideVersion );
 
-                        if ( ! PropertiesUtils.cacheProperty( project, commonState, versionPropertyUpdateMap, oldVersion, overrideVersion, entry.getKey(), false ))
-                        {
-                            if ( oldVersion.equals( "${project.version}" ) )
-                            {
-                                logger.debug( "For dependency {} ; version is built in {} so skipping inlining {}", groupIdArtifactId, oldVersion,
-                                              overrideVersion );
-                            }
-                            else if ( strict && ! PropertiesUtils.checkStrictValue( session, resolvedValue, overrideVersion) )
+                            if ( oldVersion.contains( "${" ) )
                             {
-                                if ( commonState.getFailOnStrictViolation() )
+                                String suffix = PropertiesUtils.getSuffix( session );
+                                String replaceVersion;
+
+                                if ( commonState.getStrictIgnoreSuffix() && oldVersion.contains( suffix ) )
                                 {
-                                    throw new ManipulationException(
-                                                     "Replacing original version {} in dependency {} with new version {} violates the strict version-alignment rule!",
-                                                     oldVersion, groupIdArtifactId.toString(), overrideVersion );
+                                    replaceVersion = StringUtils.substringBefore( oldVersion, suffix );
+                                    replaceVersion += suffix + StringUtils.substringAfter( overrideVersion, suffix );
                                 }
                                 else
                                 {
-                                    logger.warn( "Replacing original version {} in dependency {} with new version {} violates the strict version-alignment rule!",
-                                                 oldVersion, groupIdArtifactId, overrideVersion );
+                                    replaceVersion = oldVersion + StringUtils.removeStart( overrideVersion, resolvedValue );
                                 }
+                                logger.debug ( "Resolved value is {} and replacement version is {} ", resolvedValue, replaceVersion );
+
+                                // In this case the previous value couldn't be cached even though it contained a property
+                                // as it was either multiple properties or a property combined with a hardcoded value. Therefore
+                                // just append the suffix.
+                                dependencies.get( dependency ).setVersion( replaceVersion );
                             }
                             else
                             {
-                                logger.debug( "Altered dependency {} : {} -> {}", groupIdArtifactId, oldVersion,
-                                              overrideVersion );
-
-                                if ( oldVersion.contains( "${" ) )
-                                {
-                                    String suffix = PropertiesUtils.getSuffix( session );
-                                    String replaceVersion;
-
-                                    if ( commonState.getStrictIgnoreSuffix() && oldVersion.contains( suffix ) )
-                                    {
-                                        replaceVersion = StringUtils.substringBefore( oldVersion, suffix );
-                                        replaceVersion += suffix + StringUtils.substringAfter( overrideVersion, suffix );
-                                    }
-                                    else
-                                    {
-                                        replaceVersion = oldVersion + StringUtils.removeStart( overrideVersion, resolvedValue );
-                                    }
-                                    logger.debug ( "Resolved value is {} and replacement version is {} ", resolvedValue, replaceVersion );
-
-                                    // In this case the previous value couldn't be cached even though it contained a property
-                                    // as it was either multiple properties or a property combined with a hardcoded value. Therefore
-                                    // just append the suffix.
-                                    dependencies.get( dependency ).setVersion( replaceVersion );
-                                }
-                                else
-                                {
-                                    dependencies.get( dependency ).setVersion( overrideVersion );
-                                }
+                                dependencies.get( dependency ).setVersion( overrideVersion );
                             }
                         }
-                        unmatchedVersionOverrides.remove( entry.getKey() );
                     }
+                    matchedVersionOverrides.add( override );
                 }
             }
         }
 
-        return unmatchedVersionOverrides;
+        return matchedVersionOverrides;
     }
 
     /**
-     * Remove version overrides which refer to projects in the current reactor.
-     * Projects in the reactor include things like inter-module dependencies
-     * which should never be overridden.
-     * @param versionOverrides current set of ArtifactRef:newVersion overrides.
-     * @return A new Map with the reactor GAs removed.
+     * The rules of a run that decide which overrides apply to which module, compiled once rather than per module.
+     * These are the reactor GAVs, whose overrides never apply as inter-module dependencies should never be overridden,
+     * and the module-specific dependencyExclusion keys (those containing '@') e.g.
+     * group:artifact@groupId:artifactId = value.
      */
-    private Map<ArtifactRef, String> removeReactorGAs( final Map<ArtifactRef, String> versionOverrides )
-                    throws ManipulationException
+    private final class OverrideRules
     {
-        final Map<ArtifactRef, String> reducedVersionOverrides = new LinkedHashMap<>( versionOverrides );
-        for ( final Project project : session.getProjects() )
-        {
-            final String reactorGA = gav( project.getModel() );
-            reducedVersionOverrides.remove( SimpleArtifactRef.parse( reactorGA ) );
-        }
-        return reducedVersionOverrides;
-    }
+        private final Map<ArtifactRef, String> overrides;
 
-    /**
-     * Remove module overrides which do not apply to the current module. Searches the full list of version overrides
-     * for any keys which contain the '@' symbol.  Removes these from the version overrides list, and add them back
-     * without the '@' symbol only if they apply to the current module.
-     *
-     * @param projectGA the current project group : artifact
-     * @param originalOverrides The full list of version overrides, both global and module specific
-     * @param moduleOverrides are individual overrides e.g. group:artifact@groupId:artifactId :: value
-     * @param explicitOverrides a custom map to handle wildcard overrides
-     * @return The map of global and module specific overrides which apply to the given module
-     * @throws ManipulationException if an error occurs
-     */
-    private Map<ArtifactRef, String> applyModuleVersionOverrides( final String projectGA,
-                                                                  final Map<String, String> moduleOverrides,
-                                                                  Map<ArtifactRef, String> originalOverrides,
-                                                                  final WildcardMap explicitOverrides )
-                    throws ManipulationException
-    {
-        final Map<ArtifactRef, String> remainingOverrides = new LinkedHashMap<>( originalOverrides );
+        private final Set<ArtifactRef> reactorOverrides = new HashSet<>();
 
-        logger.debug( "Calculating module-specific version overrides. Starting with:\n  {}",
-                      join( remainingOverrides.entrySet(), "\n  " ) );
+        private final List<ModuleRule> moduleRules = new ArrayList<>();
 
-        // These modes correspond to two different kinds of passes over the available override properties:
-        // 1. Module-specific: Don't process wildcard overrides here, allow module-specific settings to take precedence.
-        // 2. Wildcards: Add these IF there is no corresponding module-specific override.
-        final boolean wildcardMode[] = { false, true };
-        for ( boolean aWildcardMode : wildcardMode )
-        {
-            for ( final String currentKey : new HashSet<>( moduleOverrides.keySet() ) )
-            {
-                final String currentValue = moduleOverrides.get( currentKey );
+        private final List<ModuleRule> wildcardRules = new ArrayList<>();
 
-                logger.debug( "Processing key {} for override with value {}", currentKey, currentValue );
+        /**
+         * @param overrides the full list of version overrides of the run.
+         * @param exclusions the dependency exclusions, both global and module specific.
+         * @throws ManipulationException if a module specific key is invalid.
+         */
+        OverrideRules( final Map<ArtifactRef, String> overrides, final Map<String, String> exclusions )
+                        throws ManipulationException
+        {
+            this.overrides = overrides;
 
-                if ( !currentKey.contains( "@" ) )
+            for ( final Project project : session.getProjects() )
+            {
+                final ArtifactRef reactorGA = SimpleArtifactRef.parse( gav( project.getModel() ) );
+                if ( overrides.containsKey( reactorGA ) )
                 {
-                    logger.debug( "Not an override. Skip." );
-                    continue;
+                    reactorOverrides.add( reactorGA );
                 }
+            }
 
-                final boolean isModuleWildcard = currentKey.endsWith( "@*" );
-                logger.debug( "Is wildcard? {} and in module wildcard mode? {} ", isModuleWildcard, aWildcardMode );
-
-                // process module-specific overrides (first)
-                if ( !aWildcardMode )
+            // Two passes in the order they are applied in:
+            // 1. Module-specific: Don't process wildcard overrides here, allow module-specific settings to take precedence.
+            // 2. Wildcards: Add these IF there is no corresponding module-specific override.
+            final Set<String> keys = new HashSet<>( exclusions.keySet() );
+            for ( final String key : keys )
+            {
+                if ( key.contains( "@" ) && !key.endsWith( "@*" ) )
                 {
-                    // skip wildcard overrides in this mode
-                    if ( isModuleWildcard )
+                    final String[] artifactAndModule = key.split( "@" );
+                    if ( artifactAndModule.length != 2 )
                     {
-                        logger.debug( "Not currently in wildcard mode. Skip." );
-                        continue;
+                        throw new ManipulationException( "Invalid format for exclusion key " + key );
                     }
+                    moduleRules.add( new ModuleRule( artifactAndModule[0], SimpleProjectRef.parse( artifactAndModule[1] ),
+                                                     exclusions.get( key ) ) );
+                }
+            }
+            for ( final String key : keys )
+            {
+                if ( key.endsWith( "@*" ) )
+                {
+                    final ModuleRule rule = new ModuleRule( key.substring( 0, key.length() - 2 ), null,
+                                                            exclusions.get( key ) );
+                    rule.getArtifact();
+                    wildcardRules.add( rule );
+                }
+            }
+        }
 
-                    final String[] artifactAndModule = currentKey.split( "@" );
-                    if ( artifactAndModule.length != 2 )
+        /**
+         * Apply the module specific rules for the given module. Explicit versions are added to {@code explicitOverrides}
+         * while empty ones prevent the matching overrides from applying to the module.
+         *
+         * @param projectGA the current project group : artifact
+         * @param explicitOverrides a custom map to handle wildcard overrides
+         * @return a read-only view of the global and module specific overrides which apply to the given module
+         */
+        Map<ArtifactRef, String> apply( final String projectGA, final WildcardMap<String> explicitOverrides )
+        {
+            final ModuleOverrides result = new ModuleOverrides( overrides, reactorOverrides );
+
+            for ( final ModuleRule rule : moduleRules )
+            {
+                final ProjectRef moduleGA = rule.module;
+                if ( rule.moduleGA.equals( projectGA ) ||
+                                (
+                                    moduleGA.getArtifactId().equals( "*" ) &&
+                                    SimpleProjectRef.parse( projectGA ).getGroupId().equals( moduleGA.getGroupId() )
+                                ) )
+                {
+                    if ( rule.value != null && !rule.value.isEmpty() )
                     {
-                        throw new ManipulationException( "Invalid format for exclusion key " + currentKey );
+                        explicitOverrides.put( rule.getArtifact(), rule.value );
+                        logger.debug( "Overriding module dependency for {} with {} : {}", moduleGA, rule.artifactGA,
+                                      rule.value );
                     }
-                    final String artifactGA = artifactAndModule[0];
-                    final ProjectRef moduleGA = SimpleProjectRef.parse( artifactAndModule[1] );
-
-                    logger.debug( "For artifact override: {}, comparing parsed module: {} to current project: {}",
-                                  artifactGA, moduleGA, projectGA );
-
-                    if ( moduleGA.toString().equals( projectGA ) ||
-                                    (
-                                        moduleGA.getArtifactId().equals( "*" ) &&
-                                        SimpleProjectRef.parse( projectGA ).getGroupId().equals( moduleGA.getGroupId()
-                                    )
-                        ) )
+                    else
                     {
-                        if ( currentValue != null && !currentValue.isEmpty() )
-                        {
-                            explicitOverrides.put( SimpleProjectRef.parse( artifactGA ), currentValue );
-                            logger.debug( "Overriding module dependency for {} with {} : {}", moduleGA, artifactGA,
-                                          currentValue );
-                        }
-                        else
-                        {
-                            // Override prevention...
-                            removeGA( remainingOverrides, SimpleProjectRef.parse( artifactGA ) );
-                            logger.debug( "For module {}, ignoring dependency override for {} ", moduleGA, artifactGA);
-                        }
+                        // Override prevention...
+                        result.remove( rule.getArtifact() );
+                        logger.debug( "For module {}, ignoring dependency override for {} ", moduleGA, rule.artifactGA );
                     }
                 }
-                // process wildcard overrides (second)
+            }
+
+            for ( final ModuleRule rule : wildcardRules )
+            {
+                if ( explicitOverrides.containsKey( rule.getArtifact() ) )
+                {
+                    logger.debug( "For artifact override: {}, current overrides already contain a module-specific version. Skip.",
+                                  rule.artifactGA );
+                    continue;
+                }
+
+                // I think this is only used for e.g. dependencyExclusion.groupId:artifactId@*=<explicitVersion>
+                if ( rule.value != null && !rule.value.isEmpty() )
+                {
+                    logger.debug( "Overriding module dependency for {} with {} : {}", projectGA, rule.artifactGA,
+                                  rule.value );
+                    explicitOverrides.put( rule.getArtifact(), rule.value );
+                }
                 else
                 {
-                    // skip module-specific overrides in this mode i.e. format of groupdId:artifactId@*=
-                    if ( !isModuleWildcard )
-                    {
-                        logger.debug( "Currently in wildcard mode. Skip." );
-                        continue;
-                    }
+                    // If we have a wildcard artifact we want to replace any prior explicit overrides
+                    // with this one i.e. this takes precedence.
+                    result.remove( rule.getArtifact() );
+                    logger.debug( "Removing artifactGA {} from overrides", rule.artifactGA );
+                }
+            }
 
-                    final String artifactGA = currentKey.substring( 0, currentKey.length() - 2 );
-                    logger.debug( "For artifact override: {}, checking if current overrides already contain a module-specific version.",
-                                  artifactGA );
+            return result.isFiltered() ? result : Collections.unmodifiableMap( overrides );
+        }
+    }
 
-                    if ( explicitOverrides.containsKey( SimpleProjectRef.parse( artifactGA ) ) )
-                    {
-                        logger.debug( "For artifact override: {}, current overrides already contain a module-specific version. Skip.",
-                                      artifactGA );
-                        continue;
-                    }
+    /**
+     * A module specific dependencyExclusion i.e. artifactGA@moduleGA = value, where a null module denotes the
+     * wildcard module.
+     */
+    private static final class ModuleRule
+    {
+        private final String artifactGA;
 
-                    // I think this is only used for e.g. dependencyExclusion.groupId:artifactId@*=<explicitVersion>
-                    if ( currentValue != null && !currentValue.isEmpty() )
-                    {
-                        logger.debug( "Overriding module dependency for {} with {} : {}", projectGA, artifactGA,
-                                      currentValue );
-                        explicitOverrides.put( SimpleProjectRef.parse( artifactGA ), currentValue );
-                    }
-                    else
+        private final ProjectRef module;
+
+        private final String moduleGA;
+
+        private final String value;
+
+        private ProjectRef artifact;
+
+        ModuleRule( final String artifactGA, final ProjectRef module, final String value )
+        {
+            this.artifactGA = artifactGA;
+            this.module = module;
+            this.moduleGA = module == null ? null : module.toString();
+            this.value = value;
+        }
+
+        /**
+         * The artifact is only parsed once a rule applies to a module, so that a rule for a module outside the reactor
+         * is never rejected.
+         */
+        synchronized ProjectRef getArtifact()
+        {
+            if ( artifact == null )
+            {
+                artifact = SimpleProjectRef.parse( artifactGA );
+            }
+            return artifact;
+        }
+    }
+
+    /**
+     * Read-only view of the overrides of a run as they apply to one module. Rather than copying the overrides for each
+     * module this records which of them are hidden: the reactor GAVs, and those removed by the module specific rules
+     * either by exact groupId:artifactId or by a wildcard groupId or artifactId.
+     */
+    private static final class ModuleOverrides
+        extends AbstractMap<ArtifactRef, String>
+    {
+        private final Map<ArtifactRef, String> overrides;
+
+        private final Set<ArtifactRef> reactorOverrides;
+
+        private final Set<ProjectRef> removedGAs = new HashSet<>();
+
+        private final Set<String> removedGroups = new HashSet<>();
+
+        private final Set<String> removedArtifacts = new HashSet<>();
+
+        private boolean removedAll;
+
+        private Set<Entry<ArtifactRef, String>> entrySet;
+
+        ModuleOverrides( final Map<ArtifactRef, String> overrides, final Set<ArtifactRef> reactorOverrides )
+        {
+            this.overrides = overrides;
+            this.reactorOverrides = reactorOverrides;
+        }
+
+        /**
+         * Hide the overrides matching the given groupId:artifactId, either of which may be a wildcard.
+         */
+        void remove( final ProjectRef ref )
+        {
+            final boolean groupWildcard = ref.getGroupId().equals( "*" );
+            final boolean artifactWildcard = ref.getArtifactId().equals( "*" );
+
+            if ( groupWildcard && artifactWildcard )
+            {
+                removedAll = true;
+            }
+            else if ( artifactWildcard )
+            {
+                removedGroups.add( ref.getGroupId() );
+            }
+            else if ( groupWildcard )
+            {
+                removedArtifacts.add( ref.getArtifactId() );
+            }
+            removedGAs.add( CoordinatePool.projectRef( ref.getGroupId(), ref.getArtifactId() ) );
+        }
+
+        boolean isFiltered()
+        {
+            return removedAll || !reactorOverrides.isEmpty() || !removedGAs.isEmpty();
+        }
+
+        private boolean isHidden( final Object key )
+        {
+            if ( removedAll )
+            {
+                return true;
+            }
+            final ArtifactRef ref = (ArtifactRef) key;
+            return reactorOverrides.contains( ref ) || removedGroups.contains( ref.getGroupId() )
+                            || removedArtifacts.contains( ref.getArtifactId() )
+                            || ( !removedGAs.isEmpty() && removedGAs.contains(
+                            CoordinatePool.projectRef( ref.getGroupId(), ref.getArtifactId() ) ) );
+        }
+
+        @Override
+        public boolean containsKey( final Object key )
+        {
+            return overrides.containsKey( key ) && !isHidden( key );
+        }
+
+        @Override
+        public String get( final Object key )
+        {
+            return containsKey( key ) ? overrides.get( key ) : null;
+        }
+
+        @Override
+        public Set<Entry<ArtifactRef, String>> entrySet()
+        {
+            if ( entrySet == null )
+            {
+                final Map<ArtifactRef, String> visible = new LinkedHashMap<>();
+                if ( !removedAll )
+                {
+                    for ( final Entry<ArtifactRef, String> entry : overrides.entrySet() )
                     {
-                        // If we have a wildcard artifact we want to replace any prior explicit overrides
-                        // with this one i.e. this takes precedence.
-                        removeGA( remainingOverrides, SimpleProjectRef.parse( artifactGA ) );
-                        logger.debug( "Removing artifactGA " + artifactGA + " from overrides" );
+                        if ( !isHidden( entry.getKey() ) )
+                        {
+                            visible.put( entry.getKey(), entry.getValue() );
+                        }
                     }
                 }
+                entrySet = Collections.unmodifiableMap( visible ).entrySet();
             }
+            return entrySet;
         }
-
-        return remainingOverrides;
     }
 
-    private void removeGA( Map<ArtifactRef, String> overrides, ProjectRef ref )
+    /**
+     * The property updates recorded while applying overrides, for explicit and for standard overrides, by project.
+     */
+    private static final class PropertyUpdates
     {
-        Iterator<ArtifactRef> it = overrides.keySet().iterator();
+        private final Map<Project, Map<String, String>> versions;
 
-        while ( it.hasNext() )
+        private final Map<Project, Map<String, String>> explicitVersions;
+
+        PropertyUpdates( final Map<Project, Map<String, String>> versions,
+                         final Map<Project, Map<String, String>> explicitVersions )
         {
-            ArtifactRef a = it.next();
+            this.versions = versions;
+            this.explicitVersions = explicitVersions;
+        }
 
-            if ( a.asProjectRef().equals( ref ) ||
-                ( ref.getArtifactId().equals( "*" ) && a.getGroupId().equals( ref.getGroupId() ) ) ||
-                ( ref.getGroupId().equals( "*" ) && a.getArtifactId().equals( ref.getArtifactId() ) ) )
+        /**
+         * @return a buffer for the updates of a single project, holding any updates already recorded for it.
+         */
+        PropertyUpdates buffer( final Project project )
+        {
+            final PropertyUpdates buffer = new PropertyUpdates( new LinkedHashMap<Project, Map<String, String>>(),
+                                                                new LinkedHashMap<Project, Map<String, String>>() );
+            if ( versions.containsKey( project ) )
             {
-                it.remove();
+                buffer.versions.put( project, versions.get( project ) );
             }
-            else if ( ref.getArtifactId().equals( "*" ) && ref.getGroupId().equals( "*" ) )
+            if ( explicitVersions.containsKey( project ) )
             {
-                // For complete wildcard also cache the ignored module as we need the list later during
-                // property processing.
-                it.remove();
+                buffer.explicitVersions.put( project, explicitVersions.get( project ) );
             }
+            return buffer;
+        }
+
+        void merge( final PropertyUpdates buffer )
+        {
+            versions.putAll( buffer.versions );
+            explicitVersions.putAll( buffer.explicitVersions );
         }
     }
 
+    /**
+     * Index of the overrides of a run by groupId:artifactId, built once so that each dependency is matched to its
+     * overrides by a lookup rather than by comparing it against every override.
+     */
+    private static final class OverrideIndex
+    {
+        private final Map<ProjectRef, List<ArtifactRef>> byGA = new HashMap<>();
+
+        OverrideIndex( final Map<ArtifactRef, String> overrides )
+        {
+            for ( final ArtifactRef override : overrides.keySet() )
+            {
+                final ProjectRef ga = CoordinatePool.projectRef( override.getGroupId(), override.getArtifactId() );
+                List<ArtifactRef> list = byGA.get( ga );
+                if ( list == null )
+                {
+                    list = new ArrayList<>( 1 );
+                    byGA.put( ga, list );
+                }
+                list.add( override );
+            }
+        }
+
+        /**
+         * @param ga the groupId:artifactId to match.
+         * @param overrides the overrides applicable to the current project ; a subset of those indexed.
+         * @return the applicable overrides for the groupId:artifactId, in the order of the indexed map.
+         */
+        List<ArtifactRef> match( final ProjectRef ga, final Map<ArtifactRef, String> overrides )
+        {
+            final List<ArtifactRef> candidates = byGA.get( ga );
+            if ( candidates == null )
+            {
+                return Collections.emptyList();
+            }
+            final List<ArtifactRef> matched = new ArrayList<>( candidates.size() );
+            for ( final ArtifactRef candidate : candidates )
+            {
+                if ( overrides.containsKey( candidate ) )
+                {
+                    matched.add( candidate );
+                }
+            }
+            return matched;
+        }
+    }
 }
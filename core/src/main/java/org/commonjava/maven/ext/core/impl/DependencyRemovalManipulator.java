@@ -35,6 +35,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.commonjava.maven.ext.core.util.IdUtils.ga;
@@ -109,10 +110,10 @@ public class DependencyRemovalManipulator
         logger.info("Applying Dependency changes to: " + ga(project));
 
         List<ProjectRef> dependenciesToRemove = state.getDependencyRemoval();
-        boolean result = scanDependencies( project.getAllResolvedDependencies( session ), dependenciesToRemove, model.getDependencies());
+        boolean result = scanDependencies( project, project.getAllResolvedDependencies( session ), dependenciesToRemove, model.getDependencies());
 
         if ( model.getDependencyManagement() != null &&
-             scanDependencies(project.getResolvedManagedDependencies( session ), dependenciesToRemove, model.getDependencyManagement().getDependencies()))
+             scanDependencies( project, project.getResolvedManagedDependencies( session ), dependenciesToRemove, model.getDependencyManagement().getDependencies()))
         {
             result = true;
         }
@@ -122,7 +123,7 @@ public class DependencyRemovalManipulator
         for ( Profile profile : pd.keySet())
         {
             int index = model.getProfiles().indexOf( profile );
-            if ( scanDependencies( pd.get( profile ), dependenciesToRemove, model.getProfiles().get( index ).getDependencies() ) )
+            if ( scanDependencies( project, pd.get( profile ), dependenciesToRemove, model.getProfiles().get( index ).getDependencies() ) )
             {
                 result = true;
             }
@@ -133,7 +134,7 @@ public class DependencyRemovalManipulator
             DependencyManagement dm = model.getProfiles().get( index ).getDependencyManagement();
             if ( dm != null )
             {
-                if ( scanDependencies( pmd.get( profile ), dependenciesToRemove, dm.getDependencies() ) )
+                if ( scanDependencies( project, pmd.get( profile ), dependenciesToRemove, dm.getDependencies() ) )
                 {
                     result = true;
                 }
@@ -142,15 +143,21 @@ public class DependencyRemovalManipulator
         return result;
     }
 
-    private boolean scanDependencies( HashMap<ArtifactRef, Dependency> resolvedDependencies,
+    private boolean scanDependencies( Project project, HashMap<ArtifactRef, Dependency> resolvedDependencies,
                                       List<ProjectRef> dependenciesToRemove, List<Dependency> dependencies )
     {
         boolean result = false;
         if ( dependencies != null )
         {
-            for ( ArtifactRef pvr : resolvedDependencies.keySet() )
+            final Map<ProjectRef, List<ArtifactRef>> byGA = project.getGAIndex( resolvedDependencies );
+            for ( ProjectRef remove : dependenciesToRemove )
             {
-                if ( dependenciesToRemove.contains( pvr.asProjectRef() ) )
+                final List<ArtifactRef> matches = byGA.get( remove );
+                if ( matches == null )
+                {
+                    continue;
+                }
+                for ( ArtifactRef pvr : matches )
                 {
                     logger.debug( "Removing {} ", resolvedDependencies.get( pvr ) );
                     dependencies.remove( resolvedDependencies.get( pvr ) );
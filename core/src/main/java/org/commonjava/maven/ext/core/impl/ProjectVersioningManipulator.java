@@ -256,7 +256,8 @@ public class ProjectVersioningManipulator
             {
                 for ( final Dependency d : dm.getDependencies() )
                 {
-                    if ( isEmpty (pi.interp( d.getVersion() )))
+                    final String version = pi.interp( d.getVersion() );
+                    if ( isEmpty( version ) )
                     {
                         logger.trace( "Skipping dependency " + d + " as empty version." );
                         continue;
@@ -265,7 +266,7 @@ public class ProjectVersioningManipulator
                     {
                         gav = new SimpleProjectVersionRef( pi.interp( d.getGroupId() ),
                                                            pi.interp( d.getArtifactId() ),
-                                                           pi.interp( d.getVersion() ) );
+                                                           version );
                         final String newVersion = versionsByGAV.get( gav );
                         if ( newVersion != null )
                         {
@@ -298,7 +299,8 @@ public class ProjectVersioningManipulator
                 {
                     try
                     {
-                        if ( isEmpty (pi.interp( d.getVersion() )))
+                        final String version = pi.interp( d.getVersion() );
+                        if ( isEmpty( version ) )
                         {
                             logger.trace( "Skipping dependency " + d + " as empty version." );
                             continue;
@@ -306,7 +308,7 @@ public class ProjectVersioningManipulator
 
                         gav = new SimpleProjectVersionRef( pi.interp( d.getGroupId() ),
                                                            pi.interp( d.getArtifactId() ),
-                                                           pi.interp( d.getVersion() ) );
+                                                           version );
 
                         final String newVersion = versionsByGAV.get( gav );
 
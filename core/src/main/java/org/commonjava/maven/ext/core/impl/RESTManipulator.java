@@ -23,10 +23,9 @@ import org.commonjava.maven.atlas.ident.DependencyScope;
 import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
-import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
 import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
-import org.commonjava.maven.atlas.ident.ref.SimpleTypeAndClassifier;
 import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.model.CoordinatePool;
 import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.common.model.SimpleScopedArtifactRef;
 import org.commonjava.maven.ext.common.util.PropertyResolver;
@@ -366,10 +365,9 @@ public class RESTManipulator implements Manipulator
             {
                 if ( project.getModelParent() != null )
                 {
-                    SimpleProjectVersionRef parent = new SimpleProjectVersionRef( project.getModelParent().getGroupId(),
-                                                                                  project.getModelParent().getArtifactId(),
-                                                                                  project.getModelParent().getVersion() );
-                    localDeps.add( new SimpleArtifactRef( parent, new SimpleTypeAndClassifier( "pom", null ) ) );
+                    localDeps.add( CoordinatePool.artifactRef( project.getModelParent().getGroupId(),
+                                                               project.getModelParent().getArtifactId(),
+                                                               project.getModelParent().getVersion(), "pom", null ) );
                 }
 
                 recordDependencies( session, project, localDeps, project.getResolvedManagedDependencies( session ) );
@@ -414,7 +412,7 @@ public class RESTManipulator implements Manipulator
 
         for ( ProjectVersionRef pvr : plugins.keySet() )
         {
-            deps.add( new SimpleScopedArtifactRef( pvr, new SimpleTypeAndClassifier( "maven-plugin", null ),
+            deps.add( new SimpleScopedArtifactRef( pvr, CoordinatePool.typeAndClassifier( "maven-plugin", null ),
                                                    DependencyScope.compile.realName() ) );
         }
     }
@@ -439,12 +437,11 @@ public class RESTManipulator implements Manipulator
         for ( ArtifactRef pvr : dependencies.keySet() )
         {
             Dependency d = dependencies.get( pvr );
-            deps.add( new SimpleScopedArtifactRef( pvr, new SimpleTypeAndClassifier( d.getType(), d.getClassifier() ),
+            deps.add( new SimpleScopedArtifactRef( pvr, CoordinatePool.typeAndClassifier( d.getType(), d.getClassifier() ),
                                                    isEmpty( d.getScope() ) ?
                                                                    DependencyScope.compile.realName() :
-                                                                   PropertyResolver.resolveInheritedProperties( session,
-                                                                                                                project,
-                                                                                                                d.getScope() ) ) );
+                                                                   CoordinatePool.intern( PropertyResolver.resolveInheritedProperties(
+                                                                                   session, project, d.getScope() ) ) ) );
         }
     }
 
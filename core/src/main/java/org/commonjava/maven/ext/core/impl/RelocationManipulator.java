@@ -21,9 +21,10 @@ import org.apache.maven.model.Model;
 import org.apache.maven.model.Profile;
 import org.codehaus.plexus.component.annotations.Component;
 import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
-import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
 import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.model.CoordinatePool;
 import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.common.util.ProfileUtils;
 import org.commonjava.maven.ext.core.ManipulationSession;
@@ -35,11 +36,14 @@ import org.commonjava.maven.ext.core.util.WildcardMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.commonjava.maven.ext.core.util.IdUtils.ga;
@@ -120,71 +124,107 @@ public class RelocationManipulator
         DependencyManagement dependencyManagement = model.getDependencyManagement();
         if ( dependencyManagement != null )
         {
-            result = updateDependencies( relocations, project.getResolvedManagedDependencies( session ) );
+            result = updateDependencies( relocations, project, project.getResolvedManagedDependencies( session ) );
         }
-        result |= updateDependencies( relocations, project.getAllResolvedDependencies( session ) );
+        result |= updateDependencies( relocations, project, project.getAllResolvedDependencies( session ) );
 
         for ( final Profile profile : ProfileUtils.getProfiles( session, model) )
         {
             dependencyManagement = profile.getDependencyManagement();
             if ( dependencyManagement != null )
             {
-                result |= updateDependencies( relocations, project.getResolvedProfileManagedDependencies( session ).get( profile ) );
+                result |= updateDependencies( relocations, project, project.getResolvedProfileManagedDependencies( session ).get( profile ) );
             }
-            result |= updateDependencies( relocations, project.getAllResolvedProfileDependencies( session ).get( profile ) );
+            result |= updateDependencies( relocations, project, project.getAllResolvedProfileDependencies( session ).get( profile ) );
 
         }
         return result;
     }
 
-    private boolean updateDependencies( WildcardMap<ProjectVersionRef> relocations, HashMap<ArtifactRef, Dependency> dependencies )
+    private boolean updateDependencies( WildcardMap<ProjectVersionRef> relocations, Project project,
+                                        HashMap<ArtifactRef, Dependency> dependencies )
     {
         boolean result = false;
-        final HashMap<ArtifactRef, Dependency> postFixUp = new HashMap<>(  );
+
+        // Relocate by groupId:artifactId, working on a copy of the index so that the resolved view of the project
+        // is left untouched ; it picks up the modified dependencies itself.
+        final Map<ProjectRef, List<Dependency>> byGA = new LinkedHashMap<>();
+        for ( final Map.Entry<ProjectRef, List<ArtifactRef>> entry : project.getGAIndex( dependencies ).entrySet() )
+        {
+            final List<Dependency> deps = new ArrayList<>( entry.getValue().size() );
+            for ( final ArtifactRef ar : entry.getValue() )
+            {
+                deps.add( dependencies.get( ar ) );
+            }
+            byGA.put( entry.getKey(), deps );
+        }
 
         // If we do a single pass over the dependencies that will handle the relocations *but* it will not handle
         // where one relocation alters the dependency and a subsequent relocation alters it again. For instance, the
         // first might wildcard alter the groupId and the second, more specifically alters one with the artifactId
         for ( int i = 0 ; i < relocations.size(); i++ )
         {
-            Iterator<ArtifactRef> it = dependencies.keySet().iterator();
+            final Map<ProjectRef, List<Dependency>> postFixUp = new LinkedHashMap<>();
+            final Iterator<Map.Entry<ProjectRef, List<Dependency>>> it = byGA.entrySet().iterator();
             while ( it.hasNext() )
             {
-                final ArtifactRef pvr = it.next();
-                if ( relocations.containsKey( pvr.asProjectRef() ) )
+                final Map.Entry<ProjectRef, List<Dependency>> entry = it.next();
+                final ProjectRef ga = entry.getKey();
+                if ( relocations.containsKey( ga ) )
                 {
-                    ProjectVersionRef relocation = relocations.get( pvr.asProjectRef() );
-                    updateDependencyExclusion( pvr, relocation );
-
-                    logger.info( "Replacing groupId {} by {} and artifactId {} with {}",
-                                 dependencies.get( pvr ).getGroupId(), relocation.getGroupId(), dependencies.get( pvr ).getArtifactId(), relocation.getArtifactId() );
+                    ProjectVersionRef relocation = relocations.get( ga );
+                    updateDependencyExclusion( ga, relocation );
 
-                    if ( !relocation.getArtifactId().equals( WildcardMap.WILDCARD ) )
+                    for ( final Dependency dependency : entry.getValue() )
                     {
-                        dependencies.get( pvr ).setArtifactId( relocation.getArtifactId() );
+                        logger.info( "Replacing groupId {} by {} and artifactId {} with {}",
+                                     dependency.getGroupId(), relocation.getGroupId(), dependency.getArtifactId(), relocation.getArtifactId() );
+
+                        if ( !relocation.getArtifactId().equals( WildcardMap.WILDCARD ) )
+                        {
+                            dependency.setArtifactId( relocation.getArtifactId() );
+                        }
+                        dependency.setGroupId( relocation.getGroupId() );
+
+                        // Unfortunately because we iterate using the resolved project keys if the relocation updates
+                        // those keys multiple iterations will not work. Therefore we need to move the dependency to
+                        // its relocated GA.
+                        final ProjectRef relocated =
+                                        CoordinatePool.projectRef( dependency.getGroupId(), dependency.getArtifactId() );
+                        List<Dependency> deps = postFixUp.get( relocated );
+                        if ( deps == null )
+                        {
+                            deps = new ArrayList<>();
+                            postFixUp.put( relocated, deps );
+                        }
+                        deps.add( dependency );
                     }
-                    dependencies.get( pvr ).setGroupId( relocation.getGroupId() );
-
-                    // Unfortunately because we iterate using the resolved project keys if the relocation updates those
-                    // keys multiple iterations will not work. Therefore we need to remove the original key:dependency
-                    // to map to the relocated form.
-                    postFixUp.put( SimpleArtifactRef.parse( dependencies.get( pvr ).getManagementKey() ), dependencies.get( pvr ) );
                     it.remove();
 
                     result = true;
                 }
             }
-            dependencies.putAll( postFixUp );
-            postFixUp.clear();
+            for ( final Map.Entry<ProjectRef, List<Dependency>> entry : postFixUp.entrySet() )
+            {
+                final List<Dependency> existing = byGA.get( entry.getKey() );
+                if ( existing == null )
+                {
+                    byGA.put( entry.getKey(), entry.getValue() );
+                }
+                else
+                {
+                    existing.addAll( entry.getValue() );
+                }
+            }
         }
         return result;
     }
 
     /**
-     * @param depPvr the resolved dependency we are processing the exclusion for.
+     * @param depGA the resolved dependency we are processing the exclusion for.
      * @param relocation Map containing the update information for relocations.
      */
-    private void updateDependencyExclusion( ProjectVersionRef depPvr, ProjectVersionRef relocation )
+    private void updateDependencyExclusion( ProjectRef depGA, ProjectVersionRef relocation )
     {
         final DependencyState state = session.getState( DependencyState.class );
 
@@ -194,7 +234,7 @@ public class RelocationManipulator
         }
         else
         {
-            String artifact = depPvr.getArtifactId();
+            String artifact = depGA.getArtifactId();
             if ( ! relocation.getArtifactId().equals( WildcardMap.WILDCARD ))
             {
                 artifact = relocation.getArtifactId();
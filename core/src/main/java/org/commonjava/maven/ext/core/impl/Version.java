@@ -18,9 +18,9 @@ package org.commonjava.maven.ext.core.impl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Arrays;
-import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -29,6 +29,10 @@ import java.util.regex.Pattern;
  * version string and/or incrementing a version suffix. See: http://www.aqute.biz/Bnd/Versioning for an explanation of
  * OSGi versioning. Parses versions into the following format: &lt;major&gt;.&lt;minor&gt;.&lt;micro&gt;
  * .&lt;qualifierBase&gt;-&lt;buildnumber&gt;-&lt;buildnumber&gt;-&lt;snapshot&gt;
+ * <p>
+ * The same versions are queried over and over again (for every dependency in strict mode) so each distinct version
+ * string is split into these parts once, by scanning its characters, and the result cached. The regular expressions
+ * below define the parts.
  */
 public class Version
 {
@@ -36,8 +40,6 @@ public class Version
 
     private final static String EMPTY_STRING = "";
 
-    private final static Character[] DEFAULT_DELIMITERS = {'.', '-', '_'};
-
     private final static String OSGI_VERSION_DELIMITER = ".";
 
     private final static String OSGI_QUALIFIER_DELIMITER = "-";
@@ -49,49 +51,36 @@ public class Version
      */
     private final static String DEFAULT_QUALIFIER_DELIMITER = "-";
 
-    private final static List<Character> versionStringDelimiters = Arrays.asList( DEFAULT_DELIMITERS );
-
-    /**
-     * Regular expression used to match version string delimiters
-     */
-    private final static String DELIMITER_REGEX = "[.\\-_]";
-
     /**
      * Regular expression used to match version string delimiters
      */
-    private final static String LEADING_DELIMITER_REGEX = "^" + DELIMITER_REGEX;
+    final static String DELIMITER_REGEX = "[.\\-_]";
 
     /**
-     * Regular expression used to match the major, minor, and micro versions
+     * Regular expression used to match the major, minor, and micro versions. This and the other version regular
+     * expressions are not compiled ; they specify the groups {@link #parse(String)} splits a version into, and the
+     * tests check the parsed result against them.
      */
-    private final static String MMM_REGEX = "(\\d+)(" + DELIMITER_REGEX + "(\\d+)(" + DELIMITER_REGEX + "(\\d+))?)?";
-
-    private final static Pattern mmmPattern = Pattern.compile(MMM_REGEX);
+    final static String MMM_REGEX = "(\\d+)(" + DELIMITER_REGEX + "(\\d+)(" + DELIMITER_REGEX + "(\\d+))?)?";
 
     private final static String SNAPSHOT_SUFFIX = "SNAPSHOT";
 
-    private final static String SNAPSHOT_REGEX = "(.*?)((" + DELIMITER_REGEX + ")?((?i:" + SNAPSHOT_SUFFIX + ")))$";
-
-    private final static Pattern snapshotPattern = Pattern.compile(SNAPSHOT_REGEX);
+    final static String SNAPSHOT_REGEX = "(.*?)((" + DELIMITER_REGEX + ")?((?i:" + SNAPSHOT_SUFFIX + ")))$";
 
     /**
      * Regular expression used to match the parts of the qualifier "base-buildnum-snapshot"
      * Note : Technically within the rebuild-numeric the dash is currently optional and can be any
      *        delimeter type within the regex. It could be made mandatory via '{1}'.
      */
-    private final static String QUALIFIER_REGEX = "(.*?)((" + DELIMITER_REGEX + ")?(\\d+))?((" + DELIMITER_REGEX + ")?((?i:" + SNAPSHOT_SUFFIX + ")))?$";
-
-    private final static Pattern qualifierPattern = Pattern.compile(QUALIFIER_REGEX);
+    final static String QUALIFIER_REGEX = "(.*?)((" + DELIMITER_REGEX + ")?(\\d+))?((" + DELIMITER_REGEX + ")?((?i:" + SNAPSHOT_SUFFIX + ")))?$";
 
     /**
      * Version string must start with a digit to match the regex.  Otherwise we have only a
      * qualifier.
      */
-    private final static String VERSION_REGEX = "(" + MMM_REGEX + ")" + "((" + DELIMITER_REGEX + ")?"
+    final static String VERSION_REGEX = "(" + MMM_REGEX + ")" + "((" + DELIMITER_REGEX + ")?"
             + "(" + QUALIFIER_REGEX + "))";
 
-    private final static Pattern versionPattern = Pattern.compile(VERSION_REGEX);
-
     /**
      * Used to match valid OSGi version based on section 3.2.5 of the OSGi specification
      */
@@ -99,25 +88,39 @@ public class Version
 
     private final static Pattern osgiPattern = Pattern.compile(OSGI_VERSION_REGEX);
 
+    /**
+     * Bounds the cache of parsed versions ; it is simply emptied once full.
+     */
+    private final static int MAX_PARSED_VERSIONS = 20000;
+
+    private final static ConcurrentMap<String, Parsed> parsedVersions = new ConcurrentHashMap<>();
+
+    /**
+     * Bounds the cache of the patterns built from suffixes ; it is simply emptied once full.
+     */
+    private final static int MAX_COMPILED_PATTERNS = 2000;
+
+    private final static ConcurrentMap<String, Pattern> compiledPatterns = new ConcurrentHashMap<>();
+
     // Prevent construction.
     private Version () {}
 
     public static String getBuildNumber(String version)
     {
-        Matcher qualifierMatcher = qualifierPattern.matcher( getQualifier( version ) );
-        if( qualifierMatcher.matches() && !isEmpty( qualifierMatcher.group( 4 ) ) )
+        Qualifier qualifier = parse( version ).qualifierParts;
+        if( qualifier != null && !isEmpty( qualifier.buildNumber ) )
         {
-            return qualifierMatcher.group( 4 );
+            return qualifier.buildNumber;
         }
         return EMPTY_STRING;
     }
 
     static String getMMM(String version)
     {
-        Matcher versionMatcher = versionPattern.matcher( version );
-        if ( versionMatcher.matches() )
+        Parsed parsed = parse( version );
+        if ( parsed.matches )
         {
-            return versionMatcher.group( 1 );
+            return parsed.mmm;
         }
         return EMPTY_STRING;
     }
@@ -131,12 +134,11 @@ public class Version
      */
     static String getOsgiMMM(String version, boolean fill)
     {
-        String mmm = getMMM( version );
-        Matcher mmmMatcher = mmmPattern.matcher( mmm );
-        if ( mmmMatcher.matches() )
+        Parsed parsed = parse( version );
+        if ( parsed.matches )
         {
-            String osgiMMM = mmmMatcher.group( 1 );
-            String minorVersion = mmmMatcher.group( 3 );
+            String osgiMMM = parsed.major;
+            String minorVersion = parsed.minor;
             if ( !isEmpty( minorVersion ) )
             {
                 osgiMMM += OSGI_VERSION_DELIMITER + minorVersion;
@@ -145,7 +147,7 @@ public class Version
             {
                 osgiMMM += OSGI_VERSION_DELIMITER + "0";
             }
-            String microVersion = mmmMatcher.group( 5 );
+            String microVersion = parsed.micro;
             if ( !isEmpty( microVersion ) )
             {
                 osgiMMM += OSGI_VERSION_DELIMITER + microVersion;
@@ -177,12 +179,7 @@ public class Version
 
     public static String getQualifier(String version)
     {
-        Matcher versionMatcher = versionPattern.matcher( version );
-        if ( versionMatcher.matches() )
-        {
-            return versionMatcher.group( 9 );
-        }
-        return removeLeadingDelimiter( version );
+        return parse( version ).qualifier;
     }
 
     /**
@@ -205,45 +202,44 @@ public class Version
      */
     public static String getQualifierBase(String version)
     {
-        Matcher versionMatcher = versionPattern.matcher( version );
-        if ( versionMatcher.matches() )
+        Parsed parsed = parse( version );
+        if ( parsed.matches )
         {
-            return versionMatcher.group( 10 );
+            return parsed.qualifierParts.base;
         }
-        Matcher qualifierMatcher = qualifierPattern.matcher( version );
-        if ( qualifierMatcher.matches() )
+        if ( parsed.parts != null )
         {
-            return qualifierMatcher.group( 1 );
+            return parsed.parts.base;
         }
         return removeLeadingDelimiter( version );
     }
 
     public static String getQualifierWithDelim(String version)
     {
-        Matcher versionMatcher = versionPattern.matcher( version );
-        if ( versionMatcher.matches() )
+        Parsed parsed = parse( version );
+        if ( parsed.matches )
         {
-            return versionMatcher.group( 7 );
+            return parsed.qualifierWithDelim;
         }
         return version;
     }
 
     public static String getSnapshot( String version )
     {
-        Matcher snapshotMatcher = snapshotPattern.matcher( version );
-        if ( snapshotMatcher.matches() )
+        Parsed parsed = parse( version );
+        if ( parsed.snapshot != null )
         {
-            return snapshotMatcher.group(4);
+            return parsed.snapshot;
         }
         return EMPTY_STRING;
     }
 
     public static String getSnapshotWithDelim( String version )
     {
-        Matcher snapshotMatcher = snapshotPattern.matcher( version );
-        if ( snapshotMatcher.matches() )
+        Parsed parsed = parse( version );
+        if ( parsed.snapshot != null )
         {
-            return snapshotMatcher.group(2);
+            return parsed.snapshotWithDelim;
         }
         return EMPTY_STRING;
     }
@@ -269,8 +265,7 @@ public class Version
 
     public static boolean isSnapshot( String version )
     {
-        Matcher snapshotMatcher = snapshotPattern.matcher( version );
-        return snapshotMatcher.matches();
+        return parse( version ).snapshot != null;
     }
 
     /**
@@ -288,10 +283,10 @@ public class Version
      */
     public static String removeBuildNumber( String version )
     {
-        Matcher qualifierMatcher = qualifierPattern.matcher( version );
-        if ( qualifierMatcher.matches() )
+        Qualifier parts = parse( version ).parts;
+        if ( parts != null )
         {
-            return qualifierMatcher.replaceFirst( "$1$5" );
+            return parts.base + parts.snapshotWithDelim;
         }
         return version;
     }
@@ -302,10 +297,10 @@ public class Version
      */
     public static String removeSnapshot( String version )
     {
-        Matcher snapshotMatcher = snapshotPattern.matcher( version );
-        if ( snapshotMatcher.matches() )
+        Parsed parsed = parse( version );
+        if ( parsed.snapshot != null )
         {
-            return snapshotMatcher.group(1);
+            return parsed.snapshotBase;
         }
         return version;
     }
@@ -316,7 +311,7 @@ public class Version
         {
             return false;
         }
-        return versionStringDelimiters.contains( versionPart.charAt( 0 ) );
+        return isDelimiter( versionPart.charAt( 0 ) );
     }
 
     /**
@@ -324,7 +319,7 @@ public class Version
      */
     static String removeLeadingDelimiter(String versionPart )
     {
-        return versionPart.replaceAll(LEADING_DELIMITER_REGEX, "");
+        return hasLeadingDelimiter( versionPart ) ? versionPart.substring( 1 ) : versionPart;
     }
 
     /**
@@ -406,12 +401,12 @@ public class Version
             return newVersion;
         }
 
-        Matcher qualifierMatcher = qualifierPattern.matcher( version );
-        if ( qualifierMatcher.matches() )
+        Qualifier parts = parse( version ).parts;
+        if ( parts != null )
         {
             if ( hasLeadingDelimiter( suffixWoSnapshot ) )
             {
-                String newVersion = qualifierMatcher.replaceFirst( "$1$3$4" + suffixWoSnapshot + "$5");
+                String newVersion = parts.replaceBuildNumber( parts.buildNumber + suffixWoSnapshot );
                 if ( isSnapshot( suffix ) )
                 {
                     newVersion = Version.setSnapshot( newVersion, true );
@@ -423,7 +418,7 @@ public class Version
             {
                 delimiter = DEFAULT_DELIMITER;
             }
-            String newVersion = qualifierMatcher.replaceFirst( "$1$3$4" + delimiter + suffixWoSnapshot + "$5");
+            String newVersion = parts.replaceBuildNumber( parts.buildNumber + delimiter + suffixWoSnapshot );
             if ( isSnapshot( suffix ) )
             {
                 newVersion = Version.setSnapshot( newVersion, true );
@@ -437,7 +432,7 @@ public class Version
     {
         final String SUFFIX_REGEX = "(.*?)(" + DELIMITER_REGEX + ")?(" + suffix + ")(("
                 + DELIMITER_REGEX + ")?(\\d+))?((" + DELIMITER_REGEX + ")?((?i:" + SNAPSHOT_SUFFIX + ")))?$";
-        return Pattern.compile( SUFFIX_REGEX ).matcher( version );
+        return compile( SUFFIX_REGEX ).matcher( version );
     }
 
     /**
@@ -462,14 +457,14 @@ public class Version
         {
             return version + DEFAULT_DELIMITER + buildNumber;
         }
-        Matcher qualifierMatcher = qualifierPattern.matcher( version );
-        if ( qualifierMatcher.matches() )
+        Qualifier parts = parse( version ).parts;
+        if ( parts != null )
         {
-            if ( isEmpty( qualifierMatcher.group( 2 ) ) )
+            if ( parts.buildNumber.isEmpty() )
             {
                 buildNumber = prependDelimiter( buildNumber, DEFAULT_QUALIFIER_DELIMITER );
             }
-            return qualifierMatcher.replaceFirst( "$1$3" + buildNumber + "$5" );
+            return parts.replaceBuildNumber( buildNumber );
         }
         return version;
     }
@@ -513,38 +508,17 @@ public class Version
     {
         int highestBuildNum = 0;
 
-        String osgiVersion = getOsgiVersion( version );
-        String qualifier = getQualifier( osgiVersion );
-        Matcher qualifierMatcher = qualifierPattern.matcher( qualifier );
-        if ( qualifierMatcher.matches() )
-        {
-            qualifier = removeLeadingDelimiter( qualifierMatcher.group( 1 ) );
-        }
-
-        // Build version pattern regex, matches something like "<mmm>.<qualifier>.<buildnum>".
-        StringBuilder versionPatternBuf = new StringBuilder();
-        versionPatternBuf.append( '(' )
-                .append( Pattern.quote( getMMM( version ) ) ).append('(').append( DELIMITER_REGEX ).append("0)*") // Match zeros appended to a major only version
-                .append( ")?" )
-                .append( DELIMITER_REGEX );
-
-        if ( !isEmpty( qualifier ) )
-        {
-            versionPatternBuf.append( Pattern.quote( qualifier ) );
-            versionPatternBuf.append( DELIMITER_REGEX );
-        }
-        versionPatternBuf.append( "(\\d+)" );
-        String candidatePatternStr = versionPatternBuf.toString();
+        // Matches something like "<mmm>.<qualifier>.<buildnum>".
+        String mmm = getMMM( version );
+        String qualifier = getMatchingQualifier( version );
 
-        logger.debug( "Using pattern: '{}' to find compatible versions from metadata.", candidatePatternStr );
-        final Pattern candidateSuffixPattern = Pattern.compile( candidatePatternStr );
+        logger.debug( "Using MMM '{}' and qualifier '{}' to find compatible versions from metadata.", mmm, qualifier );
 
         for ( final String compareVersion : versionSet )
         {
-            final Matcher candidateSuffixMatcher = candidateSuffixPattern.matcher( compareVersion );
-            if ( candidateSuffixMatcher.matches() )
+            String buildNumberStr = matchBuildNumber( compareVersion, mmm, qualifier );
+            if ( buildNumberStr != null )
             {
-                String buildNumberStr = candidateSuffixMatcher.group( 3 );
                 int compareBuildNum = Integer.parseInt( buildNumberStr );
                 if ( compareBuildNum > highestBuildNum )
                 {
@@ -557,6 +531,97 @@ public class Version
         return highestBuildNum;
     }
 
+    /**
+     * @param version the version to match.
+     * @return the qualifier, without any build number, that candidate versions must have to be matched by
+     * {@link #findHighestMatchingBuildNumber(String, Set)} ; empty if they must have none.
+     */
+    static String getMatchingQualifier( String version )
+    {
+        Parsed parsedOsgiVersion = parse( getOsgiVersion( version ) );
+        String qualifier = parsedOsgiVersion.qualifier;
+        if ( parsedOsgiVersion.qualifierParts != null )
+        {
+            qualifier = removeLeadingDelimiter( parsedOsgiVersion.qualifierParts.base );
+        }
+        if ( isEmpty( qualifier ) )
+        {
+            qualifier = EMPTY_STRING;
+        }
+        return qualifier;
+    }
+
+    /**
+     * Matches a candidate version as the regular expression {@code (<mmm>([.\-_]0)*)?[.\-_]<qualifier>[.\-_](\d+)}
+     * would, the zeros matching those appended to a major only version, but without building and compiling it.
+     *
+     * @param candidate the version to match.
+     * @param mmm the major, minor and micro to match literally.
+     * @param qualifier the qualifier to match literally, or empty if the candidate has none.
+     * @return the build number of the candidate, or null if it does not match.
+     */
+    private static String matchBuildNumber( String candidate, String mmm, String qualifier )
+    {
+        if ( candidate.startsWith( mmm ) )
+        {
+            int end = mmm.length();
+            while ( end + 1 < candidate.length() && isDelimiter( candidate.charAt( end ) )
+                            && candidate.charAt( end + 1 ) == '0' )
+            {
+                end += 2;
+            }
+            // The zeros are matched greedily so fewer are only tried if the rest does not match.
+            for ( ; end >= mmm.length(); end -= 2 )
+            {
+                String buildNumber = matchBuildNumber( candidate, end, qualifier );
+                if ( buildNumber != null )
+                {
+                    return buildNumber;
+                }
+            }
+        }
+        return matchBuildNumber( candidate, 0, qualifier );
+    }
+
+    /**
+     * @return the build number if the candidate from the start index matches {@code [.\-_]<qualifier>[.\-_](\d+)},
+     * otherwise null.
+     */
+    private static String matchBuildNumber( String candidate, int start, String qualifier )
+    {
+        int length = candidate.length();
+        if ( start >= length || !isDelimiter( candidate.charAt( start ) ) )
+        {
+            return null;
+        }
+        int buildStart = start + 1;
+        if ( !qualifier.isEmpty() )
+        {
+            if ( !candidate.startsWith( qualifier, buildStart ) )
+            {
+                return null;
+            }
+            buildStart += qualifier.length();
+            if ( buildStart >= length || !isDelimiter( candidate.charAt( buildStart ) ) )
+            {
+                return null;
+            }
+            buildStart++;
+        }
+        if ( buildStart >= length )
+        {
+            return null;
+        }
+        for ( int i = buildStart; i < length; i++ )
+        {
+            if ( !isDigit( candidate.charAt( i ) ) )
+            {
+                return null;
+            }
+        }
+        return candidate.substring( buildStart );
+    }
+
     /**
      * Get the build number as an integer instead of a string for each numeric comparison
      *
@@ -578,4 +643,262 @@ public class Version
         }
     }
 
+    static boolean isDelimiter( char c )
+    {
+        return c == '.' || c == '-' || c == '_';
+    }
+
+    static boolean isDigit( char c )
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * The regular expressions match '.', and so the whole version, only if it has no line terminators.
+     */
+    private static boolean hasLineTerminator( String version )
+    {
+        for ( int i = 0; i < version.length(); i++ )
+        {
+            char c = version.charAt( i );
+            if ( c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029' )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the index of the snapshot suffix at the end of version (matched case insensitively as by the ASCII only
+     * {@code (?i:SNAPSHOT)}), or -1 if there is none at or after from.
+     */
+    private static int snapshotIndex( String version, int from )
+    {
+        int start = version.length() - SNAPSHOT_SUFFIX.length();
+        if ( start < from )
+        {
+            return -1;
+        }
+        for ( int i = 0; i < SNAPSHOT_SUFFIX.length(); i++ )
+        {
+            char c = version.charAt( start + i );
+            char upper = SNAPSHOT_SUFFIX.charAt( i );
+            if ( c != upper && c != Character.toLowerCase( upper ) )
+            {
+                return -1;
+            }
+        }
+        return start;
+    }
+
+    private static Parsed parse( String version )
+    {
+        Parsed parsed = parsedVersions.get( version );
+        if ( parsed == null )
+        {
+            if ( parsedVersions.size() >= MAX_PARSED_VERSIONS )
+            {
+                parsedVersions.clear();
+            }
+            parsed = new Parsed( version );
+            parsedVersions.put( version, parsed );
+        }
+        return parsed;
+    }
+
+    /**
+     * The same suffix patterns are built for every project and every strict comparison so are compiled once.
+     */
+    private static Pattern compile( String regex )
+    {
+        Pattern pattern = compiledPatterns.get( regex );
+        if ( pattern == null )
+        {
+            if ( compiledPatterns.size() >= MAX_COMPILED_PATTERNS )
+            {
+                compiledPatterns.clear();
+            }
+            pattern = Pattern.compile( regex );
+            compiledPatterns.put( regex, pattern );
+        }
+        return pattern;
+    }
+
+    /**
+     * A version split into the groups of {@link #VERSION_REGEX} and {@link #SNAPSHOT_REGEX}.
+     */
+    private static final class Parsed
+    {
+        /**
+         * Whether the version matches {@link #VERSION_REGEX} ; if not the MMM and qualifier groups are null.
+         */
+        final boolean matches;
+
+        final String mmm;
+
+        final String major;
+
+        final String minor;
+
+        final String micro;
+
+        final String qualifierWithDelim;
+
+        /**
+         * The qualifier group, or the version without any leading delimiter if it does not match.
+         */
+        final String qualifier;
+
+        /**
+         * The qualifier split by {@link #QUALIFIER_REGEX}, or null if it does not match.
+         */
+        final Qualifier qualifierParts;
+
+        /**
+         * The whole version split by {@link #QUALIFIER_REGEX}, or null if it does not match.
+         */
+        final Qualifier parts;
+
+        /**
+         * The snapshot suffix, or null if the version does not match {@link #SNAPSHOT_REGEX}.
+         */
+        final String snapshot;
+
+        final String snapshotWithDelim;
+
+        final String snapshotBase;
+
+        Parsed( String version )
+        {
+            if ( hasLineTerminator( version ) )
+            {
+                matches = false;
+                mmm = major = minor = micro = qualifierWithDelim = null;
+                qualifier = removeLeadingDelimiter( version );
+                qualifierParts = parts = null;
+                snapshot = snapshotWithDelim = snapshotBase = null;
+                return;
+            }
+
+            int length = version.length();
+            matches = length > 0 && isDigit( version.charAt( 0 ) );
+            if ( matches )
+            {
+                // Each of major, minor and micro takes all the digits it can ; the qualifier matches anything so
+                // the regular expression never backtracks into them.
+                int end = digitsEnd( version, 0 );
+                major = version.substring( 0, end );
+                String minor = null;
+                String micro = null;
+                if ( end + 1 < length && isDelimiter( version.charAt( end ) ) && isDigit( version.charAt( end + 1 ) ) )
+                {
+                    int minorEnd = digitsEnd( version, end + 1 );
+                    minor = version.substring( end + 1, minorEnd );
+                    end = minorEnd;
+                    if ( end + 1 < length && isDelimiter( version.charAt( end ) ) && isDigit(
+                                    version.charAt( end + 1 ) ) )
+                    {
+                        int microEnd = digitsEnd( version, end + 1 );
+                        micro = version.substring( end + 1, microEnd );
+                        end = microEnd;
+                    }
+                }
+                this.minor = minor;
+                this.micro = micro;
+                mmm = version.substring( 0, end );
+                qualifierWithDelim = version.substring( end );
+
+                int qualifierStart = end < length && isDelimiter( version.charAt( end ) ) ? end + 1 : end;
+                qualifier = version.substring( qualifierStart );
+                qualifierParts = new Qualifier( version, qualifierStart );
+            }
+            else
+            {
+                mmm = major = minor = micro = qualifierWithDelim = null;
+                qualifier = removeLeadingDelimiter( version );
+                qualifierParts = new Qualifier( version, hasLeadingDelimiter( version ) ? 1 : 0 );
+            }
+            parts = new Qualifier( version, 0 );
+
+            int snapshotStart = snapshotIndex( version, 0 );
+            if ( snapshotStart >= 0 )
+            {
+                int start = snapshotStart > 0 && isDelimiter( version.charAt( snapshotStart - 1 ) ) ?
+                                snapshotStart - 1 :
+                                snapshotStart;
+                snapshot = version.substring( snapshotStart );
+                snapshotWithDelim = version.substring( start );
+                snapshotBase = version.substring( 0, start );
+            }
+            else
+            {
+                snapshot = snapshotWithDelim = snapshotBase = null;
+            }
+        }
+
+        private static int digitsEnd( String version, int start )
+        {
+            int end = start;
+            while ( end < version.length() && isDigit( version.charAt( end ) ) )
+            {
+                end++;
+            }
+            return end;
+        }
+    }
+
+    /**
+     * The part of a version from a given index split into the groups of {@link #QUALIFIER_REGEX}. As the base is
+     * matched reluctantly the build number and snapshot suffixes are the longest that end the version.
+     */
+    private static final class Qualifier
+    {
+        final String base;
+
+        final String buildDelimiter;
+
+        final String buildNumber;
+
+        final String snapshotWithDelim;
+
+        Qualifier( String version, int from )
+        {
+            int length = version.length();
+
+            int snapshotStart = snapshotIndex( version, from );
+            int buildEnd = length;
+            if ( snapshotStart >= 0 )
+            {
+                buildEnd = snapshotStart > from && isDelimiter( version.charAt( snapshotStart - 1 ) ) ?
+                                snapshotStart - 1 :
+                                snapshotStart;
+            }
+
+            int buildStart = buildEnd;
+            while ( buildStart > from && isDigit( version.charAt( buildStart - 1 ) ) )
+            {
+                buildStart--;
+            }
+            int baseEnd = buildStart;
+            if ( buildStart < buildEnd && buildStart > from && isDelimiter( version.charAt( buildStart - 1 ) ) )
+            {
+                baseEnd = buildStart - 1;
+            }
+
+            base = version.substring( from, baseEnd );
+            buildDelimiter = version.substring( baseEnd, buildStart );
+            buildNumber = version.substring( buildStart, buildEnd );
+            snapshotWithDelim = version.substring( buildEnd );
+        }
+
+        /**
+         * @param replacement to replace the build number with.
+         * @return the version from the split index with the build number replaced.
+         */
+        String replaceBuildNumber( String replacement )
+        {
+            return base + buildDelimiter + replacement + snapshotWithDelim;
+        }
+    }
 }
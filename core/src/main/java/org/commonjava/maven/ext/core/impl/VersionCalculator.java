@@ -85,7 +85,7 @@ public class VersionCalculator
     {
         final VersioningState state = session.getState( VersioningState.class );
         final Map<ProjectVersionRef, String> versionsByGAV = new HashMap<>();
-        final Set<String> vesionsWithBuildNums = new HashSet<>();
+        final BuildNumberIndex versionsWithBuildNums = new BuildNumberIndex();
 
         for ( final Project project : projects )
         {
@@ -101,7 +101,7 @@ public class VersionCalculator
 
             if ( Version.hasBuildNumber( modifiedVersion ) )
             {
-                vesionsWithBuildNums.add( modifiedVersion );
+                versionsWithBuildNums.add( modifiedVersion );
             }
         }
 
@@ -115,9 +115,9 @@ public class VersionCalculator
 
             // If there is only a single version there is no real need to try and find the highest matching.
             // This also fixes the problem where there is a single version and leading zeros.
-            if (vesionsWithBuildNums.size() > 1)
+            if (versionsWithBuildNums.size() > 1)
             {
-                int buildNumber = findHighestMatchingBuildNumber( modifiedVersion, vesionsWithBuildNums );
+                int buildNumber = versionsWithBuildNums.findHighestMatchingBuildNumber( modifiedVersion );
 
                 // If the buildNumber is greater than zero, it means we found a match and have to
                 // set the build number to avoid version conflicts.
@@ -129,7 +129,7 @@ public class VersionCalculator
                 }
             }
 
-            vesionsWithBuildNums.add( modifiedVersion );
+            versionsWithBuildNums.add( modifiedVersion );
             logger.debug( gav( project ) + " has updated version: {}. Marking for rewrite.", modifiedVersion );
 
             if ( !originalVersion.equals( modifiedVersion ) )
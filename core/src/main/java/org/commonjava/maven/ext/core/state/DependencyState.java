@@ -83,6 +83,12 @@ public class DependencyState
      */
     private static final String DEPENDENCY_MANAGEMENT_POM_PROPERTY = "dependencyManagement";
 
+    /**
+     * Denotes whether the projects are aligned concurrently. The result is identical to sequential alignment.
+     * Default is false (sequential alignment).
+     */
+    public static final String PARALLEL_ALIGNMENT = "parallelAlignment";
+
     private static final Logger logger = LoggerFactory.getLogger( DependencyState.class );
 
     private final boolean overrideDependencies;
@@ -95,6 +101,8 @@ public class DependencyState
 
     private DependencyPrecedence precedence;
 
+    private final boolean parallelAlignment;
+
     public DependencyState( final Properties userProps ) throws ManipulationException
     {
         if ( userProps.containsKey( "overrideDependencies" ) )
@@ -104,6 +112,7 @@ public class DependencyState
         overrideDependencies = Boolean.valueOf( userProps.getProperty( "overrideDependencies", "true" ) );
         remoteBOMdepMgmt = IdUtils.parseGAVs( userProps.getProperty( DEPENDENCY_MANAGEMENT_POM_PROPERTY ) );
         dependencyExclusions = getPropertiesByPrefix( userProps, DEPENDENCY_EXCLUSION_PREFIX );
+        parallelAlignment = Boolean.parseBoolean( userProps.getProperty( PARALLEL_ALIGNMENT, "false" ) );
 
         Map<String, String> oP = PropertiesUtils.getPropertiesByPrefix( userProps, DEPENDENCY_OVERRIDE_PREFIX );
         for ( String s : oP.keySet() )
@@ -170,6 +179,14 @@ public class DependencyState
         return overrideDependencies;
     }
 
+    /**
+     * @return whether the projects are aligned concurrently. Defaults to false.
+     */
+    public boolean getParallelAlignment()
+    {
+        return parallelAlignment;
+    }
+
     public DependencyPrecedence getPrecedence()
     {
         return precedence;
@@ -17,9 +17,8 @@ package org.commonjava.maven.ext.core.state;
 
 import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
-import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
-import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
 import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.model.CoordinatePool;
 import org.commonjava.maven.ext.core.util.PropertiesUtils;
 import org.commonjava.maven.ext.core.util.WildcardMap;
 import org.slf4j.Logger;
@@ -113,9 +112,9 @@ public class RelocationState
             logger.debug( "Relocation found oldGroupId '{}' : oldArtifactId '{}' -> newGroupId '{}' : newArtifactId '{}' and version '{}' ",
                           groupId, artifactId, newGroupId, newArtifactId, version );
 
-            ProjectRef sp = new SimpleProjectRef( groupId, artifactId );
+            ProjectRef sp = CoordinatePool.projectRef( groupId, artifactId );
 
-            dependencyRelocations.put( sp, new SimpleProjectVersionRef( newGroupId, newArtifactId, version ) );
+            dependencyRelocations.put( sp, CoordinatePool.projectVersionRef( newGroupId, newArtifactId, version ) );
         }
 
         logger.trace ("Wildcard map {} ", dependencyRelocations);
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.ext.common.model.CoordinatePool;
+import org.commonjava.maven.ext.core.state.DependencyState.DependencyPrecedence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Merges the REST and BOM dependency overrides according to the {@link DependencyPrecedence}. Where both sources are
+ * used an override from the lower precedence source is dropped if the higher precedence source has any override for
+ * the same groupId:artifactId ; the merged table holds the remaining lower precedence overrides followed by all of the
+ * higher precedence ones, each in their original order.
+ */
+public final class OverrideMerger
+{
+    private static final Logger logger = LoggerFactory.getLogger( OverrideMerger.class );
+
+    private OverrideMerger()
+    {
+    }
+
+    /**
+     * @param precedence the precedence of the sources.
+     * @param restOverrides the overrides from the REST source.
+     * @param bomOverrides the overrides from the remote BOMs.
+     * @return a read-only view of the merged overrides. The source maps are not modified.
+     */
+    public static Map<ArtifactRef, String> merge( final DependencyPrecedence precedence,
+                                                  final Map<ArtifactRef, String> restOverrides,
+                                                  final Map<ArtifactRef, String> bomOverrides )
+    {
+        switch ( precedence )
+        {
+            case REST:
+                return Collections.unmodifiableMap( restOverrides );
+            case BOM:
+                return Collections.unmodifiableMap( bomOverrides );
+            case RESTBOM:
+                return Collections.unmodifiableMap( merge( bomOverrides, restOverrides ) );
+            case BOMREST:
+                return Collections.unmodifiableMap( merge( restOverrides, bomOverrides ) );
+            default:
+                throw new IllegalArgumentException( "Unknown precedence " + precedence );
+        }
+    }
+
+    private static Map<ArtifactRef, String> merge( final Map<ArtifactRef, String> lower,
+                                                   final Map<ArtifactRef, String> higher )
+    {
+        // Index the higher precedence overrides by groupId:artifactId, keeping the first for each for logging.
+        final Map<ProjectRef, ArtifactRef> higherGAs = new HashMap<>();
+        for ( final ArtifactRef target : higher.keySet() )
+        {
+            final ProjectRef ga = CoordinatePool.projectRef( target.getGroupId(), target.getArtifactId() );
+            if ( !higherGAs.containsKey( ga ) )
+            {
+                higherGAs.put( ga, target );
+            }
+        }
+
+        final Map<ArtifactRef, String> merged = new LinkedHashMap<>();
+        for ( final Map.Entry<ArtifactRef, String> entry : lower.entrySet() )
+        {
+            final ArtifactRef key = entry.getKey();
+            final ArtifactRef target =
+                            higherGAs.get( CoordinatePool.projectRef( key.getGroupId(), key.getArtifactId() ) );
+            if ( target != null )
+            {
+                logger.debug( "From source overrides artifact {} clashes with target {}", key, target );
+            }
+            else
+            {
+                merged.put( key, entry.getValue() );
+            }
+        }
+        merged.putAll( higher );
+        return merged;
+    }
+}
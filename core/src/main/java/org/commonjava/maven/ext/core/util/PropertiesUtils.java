@@ -16,11 +16,10 @@
 package org.commonjava.maven.ext.core.util;
 
 import org.apache.commons.lang.StringUtils;
-import org.apache.maven.model.Profile;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.Project;
-import org.commonjava.maven.ext.common.util.ProfileUtils;
 import org.commonjava.maven.ext.common.util.PropertyResolver;
+import org.commonjava.maven.ext.common.util.PropertyScope;
 import org.commonjava.maven.ext.core.ManipulationSession;
 import org.commonjava.maven.ext.core.impl.Version;
 import org.commonjava.maven.ext.core.state.CommonState;
@@ -91,7 +90,7 @@ public final class PropertiesUtils
     public static PropertyUpdate updateProperties( ManipulationSession session, Project project, boolean ignoreStrict,
                                                    String key, String newValue ) throws ManipulationException
     {
-        final String resolvedValue = PropertyResolver.resolveProperties( session, project.getInheritedList(), "${" + key + '}' );
+        final String resolvedValue = PropertyResolver.resolveInheritedProperties( session, project, "${" + key + '}' );
 
         logger.debug( "Fully resolvedValue is {} for {} ", resolvedValue, key );
 
@@ -101,28 +100,15 @@ public final class PropertiesUtils
             return PropertyUpdate.IGNORE;
         }
 
-        for ( final Project p : project.getReverseInheritedList() )
+        // Nearest project first ; within a project its own properties before those of its active profiles.
+        final PropertyScope.Definition definition = project.getPropertyScope( session ).findDefinition( key );
+        if ( definition == null )
         {
-            if ( p.getModel().getProperties().containsKey( key ) )
-            {
-                logger.trace( "Searching properties of {} ", p );
-                return internalUpdateProperty( session, p, ignoreStrict, key, newValue, resolvedValue, p.getModel().getProperties() );
-            }
-            else
-            {
-                for ( Profile pr : ProfileUtils.getProfiles( session, p.getModel() ) )
-                {
-                    logger.trace( "Searching properties of profile {} within project {} ", pr.getId(), p );
-                    // Lets check the profiles for property updates...
-                    if ( pr.getProperties().containsKey( key ) )
-                    {
-                        return internalUpdateProperty( session, p, ignoreStrict, key, newValue, resolvedValue, pr.getProperties() );
-                    }
-                }
-            }
+            return PropertyUpdate.NOTFOUND;
         }
-
-        return PropertyUpdate.NOTFOUND;
+        logger.trace( "Found definition of {} within project {} ", key, definition.getProject() );
+        return internalUpdateProperty( session, definition.getProject(), ignoreStrict, key, newValue, resolvedValue,
+                                       definition.getProperties() );
     }
 
 
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.impl;
+
+import ch.qos.logback.classic.Level;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Times synchronizing the build numbers of a reactor by scanning every version against using a
+ * {@link BuildNumberIndex}. Only run by the benchmark profile i.e. {@code mvn test -Pbenchmark}.
+ */
+public class BuildNumberIndexBenchmark
+{
+    private static final int MODULES = 2000;
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    @Test
+    public void synchronizeReactor()
+    {
+        final List<String> versions = new ArrayList<>();
+        for ( int i = 0; i < MODULES; i++ )
+        {
+            versions.add( "1." + ( i % 100 ) + ".0.redhat-" + ( i % 7 + 1 ) );
+        }
+
+        // Disable logging for this benchmark as impacts timing.
+        final ch.qos.logback.classic.Logger versionLogger =
+                        (ch.qos.logback.classic.Logger) LoggerFactory.getLogger( Version.class );
+        final Level level = versionLogger.getLevel();
+        versionLogger.setLevel( Level.WARN );
+
+        try
+        {
+            // As the reactor synchronization of VersionCalculator does, querying each version and then adding it.
+            long start = System.currentTimeMillis();
+            final Set<String> scanned = new HashSet<>();
+            final List<Integer> expected = new ArrayList<>();
+            for ( final String version : versions )
+            {
+                expected.add( Version.findHighestMatchingBuildNumber( version, scanned ) );
+                scanned.add( version );
+            }
+            final long scan = System.currentTimeMillis() - start;
+
+            start = System.currentTimeMillis();
+            final BuildNumberIndex index = new BuildNumberIndex();
+            final List<Integer> actual = new ArrayList<>();
+            for ( final String version : versions )
+            {
+                actual.add( index.findHighestMatchingBuildNumber( version ) );
+                index.add( version );
+            }
+            final long indexed = System.currentTimeMillis() - start;
+
+            assertEquals( expected, actual );
+            logger.info( "Synchronized {} versions in {} ms by scanning and {} ms indexed", MODULES, scan, indexed );
+        }
+        finally
+        {
+            versionLogger.setLevel( level );
+        }
+    }
+}
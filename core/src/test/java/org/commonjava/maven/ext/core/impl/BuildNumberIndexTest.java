@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.impl;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BuildNumberIndexTest
+{
+    @Test
+    public void testMatchesVersion()
+    {
+        final List<String> versions = new ArrayList<>();
+        for ( final String mmm : new String[] { "", "1", "1.0", "1-0", "1.0.0.0" } )
+        {
+            for ( final String qualifier : new String[] { "", ".Final", "-redhat", ".Final-redhat", "_GA.1",
+                            ".t20170216-223844-555-redhat", ".0" } )
+            {
+                for ( final String buildNumber : new String[] { "", "-1", "_003", "4" } )
+                {
+                    versions.add( mmm + qualifier + buildNumber );
+                }
+            }
+        }
+
+        for ( final String version : versions )
+        {
+            for ( final String candidate : versions )
+            {
+                final Set<String> candidates = new HashSet<>( Arrays.asList( candidate, "1.0.0.Final-redhat-2" ) );
+                assertEquals( version + " " + candidate, Version.findHighestMatchingBuildNumber( version, candidates ),
+                              new BuildNumberIndex( candidates ).findHighestMatchingBuildNumber( version ) );
+            }
+        }
+
+        final BuildNumberIndex index = new BuildNumberIndex( versions );
+        for ( final String version : versions )
+        {
+            assertEquals( version, Version.findHighestMatchingBuildNumber( version, new HashSet<>( versions ) ),
+                          index.findHighestMatchingBuildNumber( version ) );
+        }
+    }
+
+    @Test
+    public void testSize()
+    {
+        final BuildNumberIndex index = new BuildNumberIndex();
+        assertTrue( index.add( "1.0.0.redhat-1" ) );
+        assertTrue( index.add( "1.0.0" ) );
+        assertFalse( index.add( "1.0.0.redhat-1" ) );
+        assertEquals( 2, index.size() );
+        assertEquals( 1, index.findHighestMatchingBuildNumber( "1.0.0.redhat-5" ) );
+        assertEquals( 0, index.findHighestMatchingBuildNumber( "1.0.1.redhat-5" ) );
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.impl;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
+import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.core.ManipulationSession;
+import org.commonjava.maven.ext.core.state.DependencyState;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Times applying a large set of REST overrides to a large reactor, sequentially and in parallel. Only run by the
+ * benchmark profile i.e. {@code mvn test -Pbenchmark}.
+ */
+public class DependencyManipulatorBenchmark
+{
+    private static final int OVERRIDES = 20000;
+
+    private static final int MODULES = 200;
+
+    private static final int DEPENDENCIES = 150;
+
+    private final org.slf4j.Logger logger = LoggerFactory.getLogger( getClass() );
+
+    @Test
+    public void applyOverridesToLargeReactor()
+                    throws Exception
+    {
+        // Disable logging for this benchmark as impacts timing.
+        final Logger manipulation = (Logger) LoggerFactory.getLogger( "org.commonjava.maven.ext" );
+        final Level level = manipulation.getLevel();
+        manipulation.setLevel( Level.WARN );
+
+        final long elapsed;
+        final long parallel;
+        try
+        {
+            // Warm up so the measured run isn't dominated by class loading and JIT.
+            apply( 20, false );
+
+            elapsed = apply( MODULES, false );
+            parallel = apply( MODULES, true );
+        }
+        finally
+        {
+            manipulation.setLevel( level );
+        }
+
+        logger.info( "Applied {} overrides to {} modules with {} dependencies each in {} ms ({} ms in parallel on {} "
+                                     + "processors)", OVERRIDES, MODULES, DEPENDENCIES, elapsed, parallel,
+                     Runtime.getRuntime().availableProcessors() );
+    }
+
+    private long apply( final int modules, final boolean parallel )
+                    throws Exception
+    {
+        final Properties p = new Properties();
+        p.setProperty( "dependencySource", "REST" );
+        p.setProperty( "parallelAlignment", Boolean.toString( parallel ) );
+        p.setProperty( "strictAlignment", "true" );
+        p.setProperty( "version.suffix", "redhat-1" );
+
+        final ManipulationSession session = DependencyManipulatorTest.session( p );
+        final DependencyManipulator manipulator = new DependencyManipulator();
+        manipulator.init( session );
+
+        final Map<ArtifactRef, String> overrides = new LinkedHashMap<>();
+        for ( int i = 0; i < OVERRIDES; i++ )
+        {
+            overrides.put( new SimpleArtifactRef( "org.dep", "artifact-" + i, "1.0", "jar", null ), "1.0.redhat-1" );
+        }
+        session.getState( DependencyState.class ).setRemoteRESTOverrides( overrides );
+
+        final List<Project> projects = new ArrayList<>( modules );
+        for ( int i = 0; i < modules; i++ )
+        {
+            final Model model = new Model();
+            model.setGroupId( "org.foo" );
+            model.setArtifactId( "module-" + i );
+            model.setVersion( "1.0" );
+            for ( int j = 0; j < DEPENDENCIES; j++ )
+            {
+                final Dependency d = new Dependency();
+                d.setGroupId( "org.dep" );
+                d.setArtifactId( "artifact-" + ( ( i * DEPENDENCIES + j ) % OVERRIDES ) );
+                d.setVersion( "1.0" );
+                model.addDependency( d );
+            }
+            projects.add( new Project( model ) );
+        }
+        session.setProjects( projects );
+
+        final long start = System.currentTimeMillis();
+        assertEquals( modules, manipulator.applyChanges( projects ).size() );
+        final long elapsed = System.currentTimeMillis() - start;
+
+        for ( final Project project : projects )
+        {
+            for ( final Dependency d : project.getModel().getDependencies() )
+            {
+                assertEquals( "1.0.redhat-1", d.getVersion() );
+            }
+        }
+        return elapsed;
+    }
+}
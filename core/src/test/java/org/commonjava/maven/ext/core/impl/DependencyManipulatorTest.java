@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.impl;
+
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.codehaus.plexus.DefaultPlexusContainer;
+import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.core.ManipulationSession;
+import org.commonjava.maven.ext.core.state.CommonState;
+import org.commonjava.maven.ext.core.state.DependencyState;
+import org.commonjava.maven.ext.core.state.VersioningState;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+
+public class DependencyManipulatorTest
+{
+    @Test
+    public void testModuleSpecificOverrides()
+                    throws Exception
+    {
+        final Properties p = new Properties();
+        p.setProperty( "dependencySource", "REST" );
+        p.setProperty( "strictAlignment", "true" );
+        p.setProperty( "version.suffix", "redhat-1" );
+        p.setProperty( "dependencyExclusion.org.dep:artifact-1@org.foo:module-0", "" );
+        p.setProperty( "dependencyExclusion.org.dep:*@org.foo:module-1", "" );
+        p.setProperty( "dependencyExclusion.org.dep:artifact-2@*", "2.0" );
+        p.setProperty( "dependencyExclusion.org.dep:artifact-3@org.foo:*", "3.0" );
+
+        final ManipulationSession session = session( p );
+        final DependencyManipulator manipulator = new DependencyManipulator();
+        manipulator.init( session );
+
+        final Map<ArtifactRef, String> overrides = new LinkedHashMap<>();
+        for ( int i = 0; i < 4; i++ )
+        {
+            overrides.put( new SimpleArtifactRef( "org.dep", "artifact-" + i, "1.0", "jar", null ), "1.0.redhat-1" );
+        }
+        overrides.put( new SimpleArtifactRef( "org.foo", "module-0", "1.0", "pom", null ), "1.0.redhat-1" );
+        session.getState( DependencyState.class ).setRemoteRESTOverrides( overrides );
+
+        final List<Project> projects = new ArrayList<>();
+        for ( int i = 0; i < 3; i++ )
+        {
+            final Model model = new Model();
+            model.setGroupId( "org.foo" );
+            model.setArtifactId( "module-" + i );
+            model.setVersion( "1.0" );
+            for ( int j = 0; j < 4; j++ )
+            {
+                model.addDependency( dependency( "org.dep", "artifact-" + j, "jar" ) );
+            }
+            model.addDependency( dependency( "org.foo", "module-0", "pom" ) );
+            projects.add( new Project( model ) );
+        }
+        session.setProjects( projects );
+
+        manipulator.applyChanges( projects );
+
+        assertVersions( projects.get( 0 ), "1.0.redhat-1", "1.0", "2.0", "3.0", "1.0" );
+        assertVersions( projects.get( 1 ), "1.0", "1.0", "2.0", "3.0", "1.0" );
+        assertVersions( projects.get( 2 ), "1.0.redhat-1", "1.0.redhat-1", "2.0", "3.0", "1.0" );
+    }
+
+    @Test
+    public void testSharedPropertyClashFollowsDependencyOrder()
+                    throws Exception
+    {
+        final Properties p = new Properties();
+        p.setProperty( "dependencySource", "REST" );
+        p.setProperty( "strictAlignment", "false" );
+        p.setProperty( "version.suffix", "redhat-1" );
+        p.setProperty( "propertyClashFails", "false" );
+
+        final ManipulationSession session = session( p );
+        final DependencyManipulator manipulator = new DependencyManipulator();
+        manipulator.init( session );
+
+        final Model model = new Model();
+        model.setGroupId( "org.foo" );
+        model.setArtifactId( "module" );
+        model.setVersion( "1.0" );
+        model.getProperties().setProperty( "v", "1.0" );
+        for ( int i = 0; i < 2; i++ )
+        {
+            final Dependency d = dependency( "org.dep", "artifact-" + i, "jar" );
+            d.setVersion( "${v}" );
+            model.addDependency( d );
+        }
+        final Project project = new Project( model );
+        project.setInheritanceRoot( true );
+        final List<Project> projects = Collections.singletonList( project );
+        session.setProjects( projects );
+
+        // Order the overrides opposite to the dependencies as they are resolved, so that iterating the overrides
+        // rather than the dependencies would clash on the shared property with the other dependency.
+        final List<ArtifactRef> resolved = new ArrayList<>( project.getResolvedDependencies( session ).keySet() );
+        final Map<ArtifactRef, String> overrides = new LinkedHashMap<>();
+        overrides.put( new SimpleArtifactRef( resolved.get( 1 ).getGroupId(), resolved.get( 1 ).getArtifactId(),
+                                              "1.0", "jar", null ), "1.0.redhat-2" );
+        overrides.put( new SimpleArtifactRef( resolved.get( 0 ).getGroupId(), resolved.get( 0 ).getArtifactId(),
+                                              "1.0", "jar", null ), "1.0.redhat-1" );
+        session.getState( DependencyState.class ).setRemoteRESTOverrides( overrides );
+
+        manipulator.applyChanges( projects );
+
+        // The first dependency caches the property update and the second, clashing, purges it and is inlined.
+        final Map<String, String> versions = new LinkedHashMap<>();
+        for ( final Dependency d : model.getDependencies() )
+        {
+            versions.put( d.getArtifactId(), d.getVersion() );
+        }
+        assertEquals( "${v}", versions.get( resolved.get( 0 ).getArtifactId() ) );
+        assertEquals( "${v}.redhat-2", versions.get( resolved.get( 1 ).getArtifactId() ) );
+        assertEquals( "1.0", model.getProperties().getProperty( "v" ) );
+    }
+
+    @Test
+    public void testParallelAlignmentIsIdentical()
+                    throws Exception
+    {
+        assertEquals( align( false, false ), align( true, false ) );
+    }
+
+    @Test( expected = ManipulationException.class )
+    public void testParallelAlignmentPropertyClash()
+                    throws Exception
+    {
+        align( true, true );
+    }
+
+    /**
+     * Aligns a reactor whose modules update their own properties, and a shared property to clashing versions.
+     *
+     * @return the resulting POMs.
+     */
+    private List<String> align( final boolean parallel, final boolean propertyClashFails )
+                    throws Exception
+    {
+        final Properties p = new Properties();
+        p.setProperty( "dependencySource", "REST" );
+        p.setProperty( "strictAlignment", "true" );
+        p.setProperty( "version.suffix", "redhat-1" );
+        p.setProperty( "propertyClashFails", Boolean.toString( propertyClashFails ) );
+        p.setProperty( "parallelAlignment", Boolean.toString( parallel ) );
+        p.setProperty( "dependencyExclusion.org.dep:artifact-3@*", "3.0" );
+
+        final ManipulationSession session = session( p );
+        final DependencyManipulator manipulator = new DependencyManipulator();
+        manipulator.init( session );
+
+        final Map<ArtifactRef, String> overrides = new LinkedHashMap<>();
+        for ( int i = 0; i < 10; i++ )
+        {
+            overrides.put( new SimpleArtifactRef( "org.dep", "artifact-" + i, "1.0", "jar", null ),
+                           "1.0.redhat-" + ( 1 + i % 2 ) );
+        }
+        session.getState( DependencyState.class ).setRemoteRESTOverrides( overrides );
+
+        final Model rootModel = new Model();
+        rootModel.setGroupId( "org.foo" );
+        rootModel.setArtifactId( "root" );
+        rootModel.setVersion( "1.0" );
+        rootModel.getProperties().setProperty( "dep.version", "1.0" );
+        rootModel.addDependency( dependency( "org.dep", "artifact-0", "jar" ) );
+        final Project root = new Project( rootModel );
+        root.setInheritanceRoot( true );
+
+        final List<Project> projects = new ArrayList<>();
+        projects.add( root );
+        for ( int i = 0; i < 50; i++ )
+        {
+            final Model model = new Model();
+            model.setGroupId( "org.foo" );
+            model.setArtifactId( "module-" + i );
+            model.setVersion( "1.0" );
+            model.getProperties().setProperty( "module.version", "1.0" );
+            model.getProperties().setProperty( "aligned.version", "1.0" );
+            for ( int j = 0; j < 10; j++ )
+            {
+                final Dependency d = dependency( "org.dep", "artifact-" + j, "jar" );
+                // Every other module references a property ; the even and odd artifacts are aligned to different
+                // versions so updating a single property with both clashes.
+                if ( j < 2 )
+                {
+                    d.setVersion( i % 2 == 0 ? "${dep.version}" : "${module.version}" );
+                }
+                else if ( j == 2 )
+                {
+                    d.setVersion( "${aligned.version}" );
+                }
+                model.addDependency( d );
+            }
+            final Project project = new Project( model );
+            project.setProjectParent( root );
+            projects.add( project );
+        }
+        session.setProjects( projects );
+
+        manipulator.applyChanges( projects );
+
+        final List<String> result = new ArrayList<>();
+        final MavenXpp3Writer writer = new MavenXpp3Writer();
+        for ( final Project project : projects )
+        {
+            final StringWriter pom = new StringWriter();
+            writer.write( pom, project.getModel() );
+            result.add( pom.toString() );
+        }
+        return result;
+    }
+
+    private static Dependency dependency( final String groupId, final String artifactId, final String type )
+    {
+        final Dependency d = new Dependency();
+        d.setGroupId( groupId );
+        d.setArtifactId( artifactId );
+        d.setVersion( "1.0" );
+        d.setType( type );
+        return d;
+    }
+
+    private static void assertVersions( final Project project, final String... versions )
+    {
+        final List<Dependency> dependencies = project.getModel().getDependencies();
+        assertEquals( versions.length, dependencies.size() );
+        for ( int i = 0; i < versions.length; i++ )
+        {
+            assertEquals( project + " " + dependencies.get( i ), versions[i], dependencies.get( i ).getVersion() );
+        }
+    }
+
+    static ManipulationSession session( final Properties p )
+                    throws Exception
+    {
+        final ManipulationSession session = new ManipulationSession();
+        final MavenExecutionRequest req = new DefaultMavenExecutionRequest().setUserProperties( p )
+                                                                            .setRemoteRepositories(
+                                                                                            Collections.<ArtifactRepository>emptyList() );
+        session.setMavenSession( new MavenSession( new DefaultPlexusContainer(), null, req,
+                                                   new DefaultMavenExecutionResult() ) );
+        session.setState( new CommonState( p ) );
+        session.setState( new VersioningState( p ) );
+        return session;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.impl;
+
+import ch.qos.logback.classic.Level;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Times the {@link Version} operations against the regular expressions they replaced. Only run by the benchmark
+ * profile i.e. {@code mvn test -Pbenchmark}.
+ */
+public class VersionBenchmark
+{
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    @Test
+    public void parse()
+    {
+        final List<String> corpus = VersionTest.corpus();
+        final int rounds = 50;
+
+        // Each round queries the versions as strict mode checks do for every dependency.
+        long start = System.currentTimeMillis();
+        for ( int i = 0; i < rounds; i++ )
+        {
+            for ( final String version : corpus )
+            {
+                VersionTest.regexParts( version );
+            }
+        }
+        final long regex = System.currentTimeMillis() - start;
+
+        start = System.currentTimeMillis();
+        for ( int i = 0; i < rounds; i++ )
+        {
+            for ( final String version : corpus )
+            {
+                VersionTest.parts( version );
+            }
+        }
+        final long parsed = System.currentTimeMillis() - start;
+
+        logger.info( "Split {} versions {} times in {} ms by regular expressions and {} ms parsed", corpus.size(),
+                     rounds, regex, parsed );
+    }
+
+    @Test
+    public void findHighestMatchingBuildNumberRepeated()
+    {
+        final int modules = 500;
+        final Set<String> versionSet = new HashSet<>();
+        for ( int i = 0; i < modules; i++ )
+        {
+            versionSet.add( "1." + i + ".0.redhat-1" );
+            versionSet.add( "1." + i + ".0.redhat-2" );
+        }
+
+        // Disable logging for this benchmark as impacts timing.
+        final ch.qos.logback.classic.Logger versionLogger =
+                        (ch.qos.logback.classic.Logger) LoggerFactory.getLogger( Version.class );
+        final Level level = versionLogger.getLevel();
+        versionLogger.setLevel( Level.WARN );
+
+        // As the versioning of a reactor does, for each module and again when synchronizing the reactor.
+        final long start = System.currentTimeMillis();
+        try
+        {
+            for ( int round = 0; round < 20; round++ )
+            {
+                for ( int i = 0; i < modules; i++ )
+                {
+                    final String version = Version.appendQualifierSuffix( "1." + i + ".0", "redhat-1" );
+                    assertEquals( 2, Version.findHighestMatchingBuildNumber( version, versionSet ) );
+                }
+            }
+        }
+        finally
+        {
+            versionLogger.setLevel( level );
+        }
+        logger.info( "Found the highest build number of {} versions 20 times in {} ms", modules,
+                     System.currentTimeMillis() - start );
+    }
+}
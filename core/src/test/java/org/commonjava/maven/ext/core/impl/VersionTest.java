@@ -17,8 +17,14 @@ package org.commonjava.maven.ext.core.impl;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertEquals;
@@ -105,6 +111,39 @@ public class VersionTest
         assertThat( Version.findHighestMatchingBuildNumber( version, versionSet ), equalTo( 4 ) );
     }
 
+    @Test
+    public void testFindHighestMatchingBuildNumber_MatchesRegularExpression()
+    {
+        final List<String> candidates = new ArrayList<>( corpus() );
+        candidates.addAll( Arrays.asList( "1.0.0.Final-1", "1.0.Final_2", "1-0-0-Final.3", "1.0.0.0.Final-4",
+                                          ".Final-5", "1.0.Final-x6", "1.0-7", "1.0.0-0-8", "1.2-0-9",
+                                          "1.2.3.redhat-10", "1.2.3-redhat-00011", "1.2.3.redhat-" ) );
+
+        for ( final String version : new String[] { "1", "1.0", "1.0.0", "1.0.Final", "1.0.0.Final-1", "1.2",
+                        "1.2.3.redhat-1", "1.2.3-SNAPSHOT", "1.0.0.0", "Final" } )
+        {
+            String qualifier = Version.getQualifier( Version.getOsgiVersion( version ) );
+            final Matcher qualifierMatcher = QUALIFIER.matcher( qualifier );
+            if ( qualifierMatcher.matches() )
+            {
+                qualifier = qualifierMatcher.group( 1 ).replaceAll( "^" + DELIMITER, "" );
+            }
+            final Pattern candidatePattern = Pattern.compile(
+                            "(" + Pattern.quote( Version.getMMM( version ) ) + "(" + DELIMITER + "0)*)?" + DELIMITER
+                                            + ( Version.isEmpty( qualifier ) ?
+                                            "" :
+                                            Pattern.quote( qualifier ) + DELIMITER ) + "(\\d+)" );
+
+            for ( final String candidate : candidates )
+            {
+                final Matcher candidateMatcher = candidatePattern.matcher( candidate );
+                final int expected = candidateMatcher.matches() ? Integer.parseInt( candidateMatcher.group( 3 ) ) : 0;
+                assertEquals( version + " " + candidate, expected, Version.findHighestMatchingBuildNumber(
+                                version, Collections.singleton( candidate ) ) );
+            }
+        }
+    }
+
     @Test
     public void testFindHighestMatchingBuildNumber_OSGi()
     {
@@ -391,4 +430,94 @@ public class VersionTest
         assertEquals(".t-20170216-223844-555-rebuild-5", Version.getQualifierWithDelim( v ));
         assertEquals("t-20170216-223844-555-rebuild", Version.getQualifierBase( v ));
     }
+
+    @Test
+    public void testParsedMatchesRegularExpressions()
+    {
+        for ( final String version : corpus() )
+        {
+            assertEquals( version, regexParts( version ), parts( version ) );
+        }
+    }
+
+    static List<String> corpus()
+    {
+        final List<String> corpus = new ArrayList<>( Arrays.asList( "", "-", "_1", ".Final", "SNAPSHOT", "1\n2",
+                                                                    "1.0-SNAPSHOT\n", "1.0-\u017fNAP\u017fHOT",
+                                                                    "\uff11.0", "1.0-\u0661", "1..2", "1.2.",
+                                                                    "${project.version}-foo-10", "1.0.${micro}" ) );
+        for ( final String mmm : new String[] { "", "1", "1.2", "1.2.3", "10.20.30.40", "1_2-3" } )
+        {
+            for ( final String delimiter : new String[] { "", ".", "-", "_" } )
+            {
+                for ( final String qualifier : new String[] { "", "Final", "Beta10", "redhat-1", "1", "-",
+                                "t20170216-223844-555-redhat-1", "GA-rebuild1" } )
+                {
+                    for ( final String snapshot : new String[] { "", "-SNAPSHOT", "SNAPSHOT", ".snapshot",
+                                    "_SnapShot" } )
+                    {
+                        corpus.add( mmm + delimiter + qualifier + snapshot );
+                    }
+                }
+            }
+        }
+        return corpus;
+    }
+
+    static List<String> parts( String version )
+    {
+        return Arrays.asList( Version.getMMM( version ), Version.getQualifier( version ),
+                              Version.getQualifierBase( version ), Version.getQualifierWithDelim( version ),
+                              Version.getBuildNumber( version ), Version.getSnapshot( version ),
+                              Version.getSnapshotWithDelim( version ), Version.removeSnapshot( version ),
+                              Version.removeBuildNumber( version ), Version.getOsgiMMM( version, false ) );
+    }
+
+    /**
+     * The same parts as {@link #parts(String)} taken from the regular expressions that define them.
+     */
+    static List<String> regexParts( String version )
+    {
+        final Matcher versionMatcher = VERSION.matcher( version );
+        final boolean matches = versionMatcher.matches();
+        final String qualifier = matches ? versionMatcher.group( 9 ) : version.replaceAll( "^" + DELIMITER, "" );
+
+        final Matcher qualifierMatcher = QUALIFIER.matcher( qualifier );
+        final String buildNumber =
+                        qualifierMatcher.matches() && !Version.isEmpty( qualifierMatcher.group( 4 ) ) ?
+                                        qualifierMatcher.group( 4 ) :
+                                        "";
+
+        final Matcher wholeMatcher = QUALIFIER.matcher( version );
+        final boolean wholeMatches = wholeMatcher.matches();
+        final String qualifierBase =
+                        matches ? versionMatcher.group( 10 ) : wholeMatches ? wholeMatcher.group( 1 ) : qualifier;
+        final String removedBuildNumber = wholeMatches ? wholeMatcher.replaceFirst( "$1$5" ) : version;
+
+        final Matcher snapshotMatcher = SNAPSHOT.matcher( version );
+        final boolean snapshot = snapshotMatcher.matches();
+
+        String osgiMMM = "";
+        final Matcher mmmMatcher = MMM.matcher( matches ? versionMatcher.group( 1 ) : "" );
+        if ( mmmMatcher.matches() )
+        {
+            osgiMMM = mmmMatcher.group( 1 ) + ( mmmMatcher.group( 3 ) == null ? "" : "." + mmmMatcher.group( 3 ) )
+                            + ( mmmMatcher.group( 5 ) == null ? "" : "." + mmmMatcher.group( 5 ) );
+        }
+
+        return Arrays.asList( matches ? versionMatcher.group( 1 ) : "", qualifier, qualifierBase,
+                              matches ? versionMatcher.group( 7 ) : version, buildNumber,
+                              snapshot ? snapshotMatcher.group( 4 ) : "", snapshot ? snapshotMatcher.group( 2 ) : "",
+                              snapshot ? snapshotMatcher.group( 1 ) : version, removedBuildNumber, osgiMMM );
+    }
+
+    private static final String DELIMITER = Version.DELIMITER_REGEX;
+
+    private static final Pattern MMM = Pattern.compile( Version.MMM_REGEX );
+
+    private static final Pattern QUALIFIER = Pattern.compile( Version.QUALIFIER_REGEX );
+
+    private static final Pattern VERSION = Pattern.compile( Version.VERSION_REGEX );
+
+    private static final Pattern SNAPSHOT = Pattern.compile( Version.SNAPSHOT_REGEX );
 }
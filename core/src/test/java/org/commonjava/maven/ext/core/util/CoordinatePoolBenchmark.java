@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.core.ManipulationSession;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reports the heap retained by the resolved dependencies of a large reactor. The figure is approximate as it relies on
+ * {@link System#gc()}. Only run by the benchmark profile i.e. {@code mvn test -Pbenchmark}.
+ */
+public class CoordinatePoolBenchmark
+{
+    private static final int MODULES = 5000;
+
+    private static final int DEPENDENCIES = 60;
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    @Test
+    public void retainedHeap()
+                    throws Exception
+    {
+        final ManipulationSession session = new ManipulationSession();
+        final long before = used();
+        final List<Project> reactor = new ArrayList<>( MODULES );
+        for ( int i = 0; i < MODULES; i++ )
+        {
+            final Project project = new Project( CoordinatePoolTest.module( i, DEPENDENCIES ) );
+            project.getGAIndex( project.getResolvedDependencies( session ) );
+            reactor.add( project );
+        }
+        final long retained = used() - before;
+
+        logger.info( "Heap retained by a reactor of {} modules with {} dependencies each: {} KB", reactor.size(),
+                     DEPENDENCIES, retained / 1024 );
+    }
+
+    private static long used()
+                    throws InterruptedException
+    {
+        final Runtime runtime = Runtime.getRuntime();
+        for ( int i = 0; i < 5; i++ )
+        {
+            System.gc();
+            Thread.sleep( 50 );
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
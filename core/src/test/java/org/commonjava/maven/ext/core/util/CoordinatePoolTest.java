@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
+import org.commonjava.maven.ext.common.model.CoordinatePool;
+import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.common.model.SimpleScopedArtifactRef;
+import org.commonjava.maven.ext.core.ManipulationSession;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CoordinatePoolTest
+{
+    private static final int MODULES = 200;
+
+    private static final int DEPENDENCIES = 60;
+
+    static final int COORDINATES = 3000;
+
+    private final ManipulationSession session = new ManipulationSession();
+
+    @Test
+    public void testResolvedCoordinatesAreShared()
+                    throws Exception
+    {
+        final Project first = new Project( module( 0, DEPENDENCIES ) );
+        final Project second = new Project( module( 1, DEPENDENCIES ) );
+        first.getModel().getDependencies().set( 0, dependency( 42 ) );
+        second.getModel().getDependencies().set( 0, dependency( 42 ) );
+
+        final ArtifactRef a = find( first.getResolvedDependencies( session ), "artifact-42" );
+        final ArtifactRef b = find( second.getResolvedDependencies( session ), "artifact-42" );
+        assertNotSame( first.getModel().getDependencies().get( 0 ).getArtifactId(),
+                       second.getModel().getDependencies().get( 0 ).getArtifactId() );
+        assertSame( a, b );
+        assertSame( a.getGroupId(), b.getGroupId() );
+        assertSame( a.asProjectRef().getArtifactId(), b.getArtifactId() );
+
+        assertSame( a, CoordinatePool.intern( new SimpleArtifactRef( a ) ) );
+        // Scoped references carry a scope their equality ignores so are never replaced by a pooled instance.
+        final ArtifactRef scoped = new SimpleScopedArtifactRef( a, a.getTypeAndClassifier(), "test" );
+        assertSame( scoped, CoordinatePool.intern( scoped ) );
+    }
+
+    @Test
+    public void testReactorSharesCoordinates()
+                    throws Exception
+    {
+        final List<Project> reactor = new ArrayList<>( MODULES );
+        for ( int i = 0; i < MODULES; i++ )
+        {
+            final Project project = new Project( module( i, DEPENDENCIES ) );
+            project.getGAIndex( project.getResolvedDependencies( session ) );
+            reactor.add( project );
+        }
+
+        final Set<ArtifactRef> coordinates = Collections.newSetFromMap( new IdentityHashMap<ArtifactRef, Boolean>() );
+        final Set<String> strings = Collections.newSetFromMap( new IdentityHashMap<String, Boolean>() );
+        final Set<String> artifactIds = new HashSet<>();
+        for ( final Project project : reactor )
+        {
+            for ( final ArtifactRef ref : project.getResolvedDependencies( session ).keySet() )
+            {
+                coordinates.add( ref );
+                strings.add( ref.getArtifactId() );
+                artifactIds.add( ref.getArtifactId() );
+            }
+        }
+
+        // Every coordinate, and its artifactId, is a single instance however many modules depend on it.
+        assertEquals( new HashSet<>( coordinates ).size(), coordinates.size() );
+        assertEquals( artifactIds.size(), strings.size() );
+        assertTrue( coordinates.size() < MODULES * DEPENDENCIES );
+    }
+
+    static Model module( final int i, final int dependencies )
+    {
+        final Model model = new Model();
+        model.setGroupId( "org.foo" );
+        model.setArtifactId( "module-" + i );
+        model.setVersion( "1.0" );
+        for ( int j = 0; j < dependencies; j++ )
+        {
+            model.addDependency( dependency( ( i * 7 + j * 131 ) % COORDINATES ) );
+        }
+        return model;
+    }
+
+    /**
+     * @return a dependency whose strings are distinct instances, as they would be when read from XML.
+     */
+    private static Dependency dependency( final int coordinate )
+    {
+        final Dependency d = new Dependency();
+        d.setGroupId( "org.dep" + coordinate % 50 );
+        d.setArtifactId( "artifact-" + coordinate );
+        d.setVersion( "1." + coordinate % 10 );
+        return d;
+    }
+
+    private static ArtifactRef find( final Map<ArtifactRef, Dependency> resolved, final String artifactId )
+    {
+        for ( final ArtifactRef ref : resolved.keySet() )
+        {
+            if ( ref.getArtifactId().equals( artifactId ) )
+            {
+                return ref;
+            }
+        }
+        throw new AssertionError( "No resolved dependency " + artifactId );
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Profile;
+import org.commonjava.maven.ext.common.model.ModelChange;
+import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.common.util.ModelDiff;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ModelDiffTest
+{
+    @Test
+    public void testModifiedModel()
+                    throws Exception
+    {
+        final Project project = new Project( model() );
+        assertTrue( project.getModelChanges().isEmpty() );
+
+        // Setting a value to what it already is doesn't count as a modification.
+        project.getModel().setVersion( "1.0" );
+        project.getModel().getProperties().setProperty( "foo.version", "1.0" );
+        assertTrue( project.getModelChanges().isEmpty() );
+
+        project.getModel().getProperties().setProperty( "foo.version", "1.0.redhat-1" );
+        assertFalse( project.getModelChanges().isEmpty() );
+
+        project.getModel().getProperties().setProperty( "foo.version", "1.0" );
+        assertTrue( project.getModelChanges().isEmpty() );
+    }
+
+    @Test
+    public void testModelChanges()
+                    throws Exception
+    {
+        final Project project = new Project( model() );
+        assertTrue( project.getModelChanges().isEmpty() );
+
+        project.getModel().getDependencies().get( 0 ).setVersion( "2.0.redhat-1" );
+        assertEquals( "[dependencies/org.foo:foo:jar/version : 2.0 -> 2.0.redhat-1]",
+                      project.getModelChanges().toString() );
+
+        // Never loads the model.
+        final Project lazy = Project.lazy( project.getKey(), null, new Project.ModelLoader()
+        {
+            @Override
+            public Model load()
+            {
+                throw new AssertionError( "Model loaded" );
+            }
+        } );
+        assertTrue( lazy.getModelChanges().isEmpty() );
+        assertFalse( lazy.isModelLoaded() );
+    }
+
+    @Test
+    public void testDiff()
+    {
+        final Model before = model();
+        final Model after = model();
+        after.setVersion( "1.0.redhat-1" );
+        after.getProperties().setProperty( "foo.version", "1.0.redhat-1" );
+        after.getDependencies().get( 0 ).setVersion( "2.0.redhat-1" );
+        after.getDependencies().remove( 1 );
+        after.getProfiles().get( 0 ).addDependency( dependency( "baz", "3.0" ) );
+
+        final List<String> changes = new ArrayList<>();
+        for ( final ModelChange change : ModelDiff.diff( before, after ) )
+        {
+            changes.add( change.toString() );
+        }
+        assertEquals( Arrays.asList( "version : 1.0 -> 1.0.redhat-1",
+                                     "properties/foo.version : 1.0 -> 1.0.redhat-1",
+                                     "dependencies/org.foo:foo:jar/version : 2.0 -> 2.0.redhat-1",
+                                     "profiles/extra/dependencies/org.foo:baz:jar/version : null -> 3.0",
+                                     "dependencies/org.foo:bar:jar/version : ${foo.version} -> null" ), changes );
+
+        assertTrue( ModelDiff.diff( model(), model() ).isEmpty() );
+    }
+
+    private static Model model()
+    {
+        final Model model = new Model();
+        model.setModelVersion( "4.0.0" );
+        model.setGroupId( "org.foo" );
+        model.setArtifactId( "parent" );
+        model.setVersion( "1.0" );
+        model.getProperties().setProperty( "foo.version", "1.0" );
+        model.addDependency( dependency( "foo", "2.0" ) );
+        model.addDependency( dependency( "bar", "${foo.version}" ) );
+
+        final Profile profile = new Profile();
+        profile.setId( "extra" );
+        model.addProfile( profile );
+        return model;
+    }
+
+    private static Dependency dependency( final String artifactId, final String version )
+    {
+        final Dependency dependency = new Dependency();
+        dependency.setGroupId( "org.foo" );
+        dependency.setArtifactId( artifactId );
+        dependency.setVersion( version );
+        return dependency;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import ch.qos.logback.classic.Level;
+import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.ext.core.state.DependencyState.DependencyPrecedence;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Times merging large REST and BOM override sources. Only run by the benchmark profile i.e.
+ * {@code mvn test -Pbenchmark}.
+ */
+public class OverrideMergerBenchmark
+{
+    private static final int OVERRIDES = 50000;
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    @Test
+    public void mergeLargeSources()
+    {
+        final Map<ArtifactRef, String> rest = new LinkedHashMap<>();
+        final Map<ArtifactRef, String> bom = new LinkedHashMap<>();
+        OverrideMergerTest.overlapping( OVERRIDES, rest, bom );
+
+        // Disable logging for this benchmark as impacts timing.
+        final ch.qos.logback.classic.Logger merger =
+                        (ch.qos.logback.classic.Logger) LoggerFactory.getLogger( OverrideMerger.class );
+        final Level level = merger.getLevel();
+        merger.setLevel( Level.WARN );
+
+        final Map<ArtifactRef, String> merged;
+        final long start = System.currentTimeMillis();
+        try
+        {
+            merged = OverrideMerger.merge( DependencyPrecedence.BOMREST, rest, bom );
+        }
+        finally
+        {
+            merger.setLevel( level );
+        }
+        logger.info( "Merged {} REST and {} BOM overrides in {} ms", OVERRIDES, OVERRIDES,
+                     System.currentTimeMillis() - start );
+
+        assertEquals( OVERRIDES + OVERRIDES / 2, merged.size() );
+    }
+}
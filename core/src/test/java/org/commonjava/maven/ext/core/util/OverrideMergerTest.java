@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
+import org.commonjava.maven.ext.core.state.DependencyState.DependencyPrecedence;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class OverrideMergerTest
+{
+    private static final int OVERRIDES = 1000;
+
+    @Test
+    public void testPrecedence()
+    {
+        final Map<ArtifactRef, String> rest = new LinkedHashMap<>();
+        rest.put( ref( "org.foo", "a", "1.0", "jar" ), "1.0.rest" );
+        rest.put( ref( "org.foo", "b", "1.0", "jar" ), "1.0.rest" );
+
+        final Map<ArtifactRef, String> bom = new LinkedHashMap<>();
+        bom.put( ref( "org.foo", "c", "1.0", "jar" ), "1.0.bom" );
+        // Clashes with the REST override by groupId:artifactId only.
+        bom.put( ref( "org.foo", "b", "2.0", "pom" ), "2.0.bom" );
+        bom.put( ref( "org.foo", "d", "1.0", "jar" ), "1.0.bom" );
+
+        assertEquals( new ArrayList<>( rest.keySet() ),
+                      new ArrayList<>( OverrideMerger.merge( DependencyPrecedence.REST, rest, bom ).keySet() ) );
+        assertEquals( new ArrayList<>( bom.keySet() ),
+                      new ArrayList<>( OverrideMerger.merge( DependencyPrecedence.BOM, rest, bom ).keySet() ) );
+
+        final Map<ArtifactRef, String> restbom = OverrideMerger.merge( DependencyPrecedence.RESTBOM, rest, bom );
+        assertEquals( Arrays.asList( ref( "org.foo", "c", "1.0", "jar" ), ref( "org.foo", "d", "1.0", "jar" ),
+                                     ref( "org.foo", "a", "1.0", "jar" ), ref( "org.foo", "b", "1.0", "jar" ) ),
+                      new ArrayList<>( restbom.keySet() ) );
+        assertEquals( "1.0.rest", restbom.get( ref( "org.foo", "b", "1.0", "jar" ) ) );
+
+        final Map<ArtifactRef, String> bomrest = OverrideMerger.merge( DependencyPrecedence.BOMREST, rest, bom );
+        assertEquals( Arrays.asList( ref( "org.foo", "a", "1.0", "jar" ), ref( "org.foo", "c", "1.0", "jar" ),
+                                     ref( "org.foo", "b", "2.0", "pom" ), ref( "org.foo", "d", "1.0", "jar" ) ),
+                      new ArrayList<>( bomrest.keySet() ) );
+
+        // The sources are left untouched.
+        assertEquals( 2, rest.size() );
+        assertEquals( 3, bom.size() );
+    }
+
+    @Test( expected = UnsupportedOperationException.class )
+    public void testMergedIsReadOnly()
+    {
+        final Map<ArtifactRef, String> rest = new LinkedHashMap<>();
+        final Map<ArtifactRef, String> bom = new LinkedHashMap<>();
+        bom.put( ref( "org.foo", "a", "1.0", "jar" ), "1.0.bom" );
+
+        OverrideMerger.merge( DependencyPrecedence.RESTBOM, rest, bom ).clear();
+    }
+
+    @Test
+    public void testMergeOverlappingSources()
+    {
+        final Map<ArtifactRef, String> rest = new LinkedHashMap<>();
+        final Map<ArtifactRef, String> bom = new LinkedHashMap<>();
+        overlapping( OVERRIDES, rest, bom );
+
+        final Map<ArtifactRef, String> merged = OverrideMerger.merge( DependencyPrecedence.BOMREST, rest, bom );
+
+        assertEquals( OVERRIDES + OVERRIDES / 2, merged.size() );
+        assertEquals( "1.0.rest", merged.get( ref( "org.foo", "artifact-0", "1.0", "jar" ) ) );
+        assertEquals( "1.0.bom", merged.get( ref( "org.foo", "artifact-" + OVERRIDES / 2, "1.0", "jar" ) ) );
+    }
+
+    /**
+     * Fills the sources with the given number of overrides each, the second half of the REST overrides clashing with
+     * the first half of the BOM overrides.
+     */
+    static void overlapping( final int overrides, final Map<ArtifactRef, String> rest,
+                             final Map<ArtifactRef, String> bom )
+    {
+        for ( int i = 0; i < overrides; i++ )
+        {
+            rest.put( ref( "org.foo", "artifact-" + i, "1.0", "jar" ), "1.0.rest" );
+            bom.put( ref( "org.foo", "artifact-" + ( i + overrides / 2 ), "1.0", "jar" ), "1.0.bom" );
+        }
+    }
+
+    private static ArtifactRef ref( final String groupId, final String artifactId, final String version,
+                                    final String type )
+    {
+        return new SimpleArtifactRef( groupId, artifactId, version, type, null );
+    }
+}
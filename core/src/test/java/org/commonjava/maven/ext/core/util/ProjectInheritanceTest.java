@@ -16,8 +16,11 @@
 package org.commonjava.maven.ext.core.util;
 
 import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
 import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
 import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.core.ManipulationSession;
 import org.commonjava.maven.ext.core.fixture.TestUtils;
@@ -29,8 +32,12 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class ProjectInheritanceTest
@@ -182,6 +189,33 @@ public class ProjectInheritanceTest
 
 
 
+    @Test
+    public void testVerifyParallelDiscovery() throws Exception
+    {
+        final File projectroot = new File (TestUtils.resolveFileResource( RESOURCE_BASE, "" )
+                                                    .getParentFile()
+                                                    .getParentFile()
+                                                    .getParentFile()
+                                                    .getParentFile(), "integration-test/src/it/project-inheritance/pom.xml" );
+
+        List<Project> sequential = new PomIO().parseProject( projectroot );
+
+        Properties p = new Properties();
+        p.setProperty( PomIO.PARALLEL_DISCOVERY, "true" );
+        PomIO pomIO = new PomIO();
+        pomIO.init( new File( "target" ), p );
+        List<Project> parallel = pomIO.parseProject( projectroot );
+
+        assertEquals( sequential.size(), parallel.size() );
+        for ( int i = 0; i < sequential.size(); i++ )
+        {
+            assertEquals( sequential.get( i ).getPom(), parallel.get( i ).getPom() );
+            assertEquals( sequential.get( i ).getKey(), parallel.get( i ).getKey() );
+            assertEquals( sequential.get( i ).isInheritanceRoot(), parallel.get( i ).isInheritanceRoot() );
+            assertEquals( sequential.get( i ).getInheritedList().size(), parallel.get( i ).getInheritedList().size() );
+        }
+    }
+
     @Test
     public void testVerifyProjectVersion() throws Exception
     {
@@ -226,4 +260,81 @@ public class ProjectInheritanceTest
         }
     }
 
+    @Test
+    public void testResolvedDependenciesFollowModifications() throws Exception
+    {
+        final ManipulationSession session = new ManipulationSession();
+
+        final Model model = new Model();
+        model.setGroupId( "org.foo" );
+        model.setArtifactId( "bar" );
+        model.setVersion( "1.0" );
+        model.addProperty( "version.baz", "2.0" );
+        model.addDependency( dependency( "baz", "${version.baz}" ) );
+        model.addDependency( dependency( "qux", "3.0" ) );
+        final Project project = new Project( model );
+
+        final HashMap<ArtifactRef, Dependency> deps = project.getResolvedDependencies( session );
+        assertEquals( 2, deps.size() );
+        assertTrue( deps.containsKey( SimpleArtifactRef.parse( "org.foo:baz:jar:2.0" ) ) );
+        assertSame( deps, project.getResolvedDependencies( session ) );
+
+        // Changing a dependency version or a property it references re-keys it.
+        model.getDependencies().get( 1 ).setVersion( "3.1" );
+        assertTrue( project.getResolvedDependencies( session ).containsKey( SimpleArtifactRef.parse( "org.foo:qux:jar:3.1" ) ) );
+
+        model.getProperties().setProperty( "version.baz", "2.1" );
+        final HashMap<ArtifactRef, Dependency> updated = project.getResolvedDependencies( session );
+        assertEquals( 2, updated.size() );
+        assertTrue( updated.containsKey( SimpleArtifactRef.parse( "org.foo:baz:jar:2.1" ) ) );
+        assertFalse( updated.containsKey( SimpleArtifactRef.parse( "org.foo:baz:jar:2.0" ) ) );
+
+        // Unrelated property changes do not re-key anything.
+        model.getProperties().setProperty( "unrelated", "value" );
+        assertSame( updated, project.getResolvedDependencies( session ) );
+
+        model.getDependencies().remove( 0 );
+        assertEquals( 1, project.getResolvedDependencies( session ).size() );
+    }
+
+    @Test
+    public void testGAIndexFollowsResolvedDependencies() throws Exception
+    {
+        final ManipulationSession session = new ManipulationSession();
+
+        final Model model = new Model();
+        model.setGroupId( "org.foo" );
+        model.setArtifactId( "bar" );
+        model.setVersion( "1.0" );
+        model.addDependency( dependency( "baz", "2.0" ) );
+        final Dependency tests = dependency( "baz", "2.0" );
+        tests.setType( "test-jar" );
+        model.addDependency( tests );
+        model.addDependency( dependency( "qux", "3.0" ) );
+        final Project project = new Project( model );
+
+        final HashMap<ArtifactRef, Dependency> deps = project.getResolvedDependencies( session );
+        final Map<ProjectRef, List<ArtifactRef>> index = project.getGAIndex( deps );
+        assertEquals( 2, index.size() );
+        assertEquals( 2, index.get( SimpleProjectRef.parse( "org.foo:baz" ) ).size() );
+        assertSame( index, project.getGAIndex( project.getResolvedDependencies( session ) ) );
+
+        tests.setVersion( "2.1" );
+        final HashMap<ArtifactRef, Dependency> updated = project.getResolvedDependencies( session );
+        assertTrue( project.getGAIndex( updated )
+                           .get( SimpleProjectRef.parse( "org.foo:baz" ) )
+                           .contains( new SimpleArtifactRef( "org.foo", "baz", "2.1", "test-jar", null ) ) );
+
+        // Maps which are not resolved views are indexed on demand.
+        assertEquals( 2, project.getGAIndex( new HashMap<>( updated ) ).size() );
+    }
+
+    private static Dependency dependency( String artifactId, String version )
+    {
+        final Dependency d = new Dependency();
+        d.setGroupId( "org.foo" );
+        d.setArtifactId( artifactId );
+        d.setVersion( version );
+        return d;
+    }
 }
@@ -29,7 +29,9 @@ import org.junit.rules.TemporaryFolder;
 import java.util.HashMap;
 import java.util.Properties;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class PropertyInterpolatorTest
@@ -93,4 +95,27 @@ public class PropertyInterpolatorTest
 
         assertTrue( deps.size() == 66 );
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testReusableInterpolator() throws Exception
+    {
+        final Model model = TestUtils.resolveModelResource( RESOURCE_BASE, "infinispan-bom-8.2.0.Final.pom" );
+        final Project project = new Project( model );
+        final ManipulationSession session = new ManipulationSession();
+
+        PropertyInterpolator pi = project.getInterpolator( session );
+        assertSame( pi, project.getInterpolator( session ) );
+
+        // Literals are returned as is.
+        String literal = "5.0.4.Final";
+        assertSame( literal, pi.interp( literal ) );
+        assertEquals( "", pi.interp( null ) );
+
+        assertEquals( "5.0.4.Final", pi.interp( "${version.hibernate.osgi}" ) );
+        assertEquals( "5.0.4.Final", pi.interp( "${version.hibernate.osgi}" ) );
+        assertEquals( project.getVersion(), pi.interp( "${project.version}" ) );
+
+        model.getProperties().setProperty( "version.hibernate.osgi", "5.0.5.Final" );
+        assertEquals( "5.0.5.Final", pi.interp( "${version.hibernate.osgi}" ) );
+    }
+}
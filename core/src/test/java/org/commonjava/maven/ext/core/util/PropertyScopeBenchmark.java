@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.common.util.PropertyInterpolator;
+import org.commonjava.maven.ext.common.util.PropertyResolver;
+import org.commonjava.maven.ext.core.ManipulationSession;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+import static org.commonjava.maven.ext.core.util.PropertyScopeTest.DEPTH;
+import static org.commonjava.maven.ext.core.util.PropertyScopeTest.PROPERTIES;
+
+/**
+ * Compares resolving three values for each of 200 dependencies with the layered scope against building an
+ * amalgamated copy of every property table for each value, as was done previously. Only run by the benchmark profile
+ * i.e. {@code mvn test -Pbenchmark}.
+ */
+public class PropertyScopeBenchmark
+{
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    @Test
+    public void layeredLookup()
+                    throws Exception
+    {
+        final ManipulationSession session = PropertyScopeTest.session();
+        final List<Project> hierarchy = PropertyScopeTest.hierarchy();
+        final int lookups = 200 * 3;
+
+        // Warm up both approaches.
+        time( session, hierarchy, lookups, true );
+        time( session, hierarchy, lookups, false );
+
+        final long amalgamated = time( session, hierarchy, lookups * 10, true );
+        final long layered = time( session, hierarchy, lookups * 10, false );
+
+        logger.info( "Resolved {} values in {} ms with amalgamated properties and {} ms with the project interpolator",
+                     lookups * 10, amalgamated, layered );
+    }
+
+    private long time( final ManipulationSession session, final List<Project> hierarchy, final int lookups,
+                       final boolean amalgamated )
+                    throws Exception
+    {
+        final Project leaf = hierarchy.get( DEPTH - 1 );
+        final long start = System.currentTimeMillis();
+        for ( int i = 0; i < lookups; i++ )
+        {
+            final String value = "${prop" + ( i % PROPERTIES ) + "}";
+            if ( amalgamated )
+            {
+                new PropertyInterpolator( PropertyScopeTest.amalgamate( session, leaf ), hierarchy.get( 0 ) ).interp(
+                                value );
+            }
+            else
+            {
+                PropertyResolver.resolveInheritedProperties( session, leaf, value );
+            }
+        }
+        return System.currentTimeMillis() - start;
+    }
+}
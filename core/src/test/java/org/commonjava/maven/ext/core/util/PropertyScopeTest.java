@@ -0,0 +1,319 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.core.util;
+
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Profile;
+import org.codehaus.plexus.DefaultPlexusContainer;
+import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.common.util.ProfileUtils;
+import org.commonjava.maven.ext.common.util.PropertyInterpolator;
+import org.commonjava.maven.ext.common.util.PropertyResolver;
+import org.commonjava.maven.ext.common.util.PropertyScope;
+import org.commonjava.maven.ext.core.ManipulationSession;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class PropertyScopeTest
+{
+    static final int DEPTH = 5;
+
+    static final int PROPERTIES = 50;
+
+    private ManipulationSession session;
+
+    private List<Project> hierarchy;
+
+    @Before
+    public void setup()
+                    throws Exception
+    {
+        session = session();
+        hierarchy = hierarchy();
+    }
+
+    static ManipulationSession session()
+                    throws Exception
+    {
+        final MavenExecutionRequest req = new DefaultMavenExecutionRequest().setUserProperties( new Properties() )
+                                                                            .setRemoteRepositories(
+                                                                                            Collections.<ArtifactRepository>emptyList() );
+        final ManipulationSession session = new ManipulationSession();
+        session.setMavenSession( new MavenSession( new DefaultPlexusContainer(), null, req,
+                                                   new DefaultMavenExecutionResult() ) );
+        return session;
+    }
+
+    /**
+     * @return a hierarchy of {@link #DEPTH} projects where each level overrides some of the properties of its parent,
+     * and its profiles override some of its own.
+     */
+    static List<Project> hierarchy()
+                    throws Exception
+    {
+        final List<Project> hierarchy = new ArrayList<>();
+        Project parent = null;
+        for ( int level = 0; level < DEPTH; level++ )
+        {
+            final Model model = new Model();
+            model.setGroupId( "org.foo" );
+            model.setArtifactId( "level-" + level );
+            model.setVersion( "1.0" );
+            if ( parent != null )
+            {
+                final Parent p = new Parent();
+                p.setGroupId( "org.foo" );
+                p.setArtifactId( parent.getArtifactId() );
+                p.setVersion( "1.0" );
+                model.setParent( p );
+            }
+            for ( int i = level; i < PROPERTIES; i += level + 1 )
+            {
+                model.addProperty( "prop" + i, "level-" + level + "-" + i + ( i > 0 ? "-${prop" + ( i - 1 ) + "}" : "" ) );
+            }
+            for ( int pr = 0; pr < 2; pr++ )
+            {
+                final Profile profile = new Profile();
+                profile.setId( "profile-" + pr );
+                profile.addProperty( "prop" + ( level * 7 + pr ) % PROPERTIES, "profile-" + level + "-" + pr );
+                model.addProfile( profile );
+            }
+
+            final Project project = new Project( model );
+            project.setProjectParent( parent );
+            hierarchy.add( project );
+            parent = project;
+        }
+        return hierarchy;
+    }
+
+    @Test
+    public void testLayeredLookupMatchesAmalgamatedProperties()
+                    throws Exception
+    {
+        final Project leaf = hierarchy.get( DEPTH - 1 );
+        final PropertyInterpolator reference = new PropertyInterpolator( amalgamate( session, leaf ), hierarchy.get( 0 ) );
+
+        for ( int i = 0; i < PROPERTIES; i++ )
+        {
+            assertEquals( reference.interp( "${prop" + i + "}" ),
+                          PropertyResolver.resolveInheritedProperties( session, leaf, "${prop" + i + "}" ) );
+            assertEquals( reference.interp( "${prop" + i + "}" ),
+                          PropertyResolver.resolveProperties( session, leaf.getInheritedList(), "${prop" + i + "}" ) );
+        }
+        assertEquals( "level-0", PropertyResolver.resolveInheritedProperties( session, leaf, "${project.artifactId}" ) );
+    }
+
+    @Test
+    public void testScopeIsReusedUntilReplaced()
+                    throws Exception
+    {
+        final Project leaf = hierarchy.get( DEPTH - 1 );
+        final Project root = hierarchy.get( 0 );
+
+        final PropertyScope scope = leaf.getPropertyScope( session );
+        assertSame( scope, leaf.getPropertyScope( session ) );
+
+        // Values set on the existing tables are visible without a rebuild.
+        root.getModel().getProperties().setProperty( "newProp", "root" );
+        assertEquals( "root", PropertyResolver.resolveInheritedProperties( session, leaf, "${newProp}" ) );
+        assertSame( scope, leaf.getPropertyScope( session ) );
+
+        // Replacing the profiles of an ancestor rebuilds the scope.
+        final Profile profile = new Profile();
+        profile.setId( "injected" );
+        profile.addProperty( "newProp", "injected" );
+        root.getModel().addProfile( profile );
+
+        assertNotSame( scope, leaf.getPropertyScope( session ) );
+        assertEquals( "injected", PropertyResolver.resolveInheritedProperties( session, leaf, "${newProp}" ) );
+    }
+
+    @Test
+    public void testInterpolationIsMemoizedUntilModified()
+                    throws Exception
+    {
+        final Project leaf = hierarchy.get( DEPTH - 1 );
+        final Project root = hierarchy.get( 0 );
+
+        final String value = "${prop1}";
+        final String expected = leaf.interpolate( session, value );
+        assertEquals( 0, leaf.getInterpolationHits() );
+        assertEquals( 1, leaf.getInterpolationMisses() );
+
+        assertEquals( expected, leaf.interpolate( session, value ) );
+        assertEquals( "compile", leaf.interpolate( session, "compile" ) );
+        assertEquals( 1, leaf.getInterpolationHits() );
+        assertEquals( 1, leaf.getInterpolationMisses() );
+
+        // prop1 is defined by the first two levels and refers to prop0, defined only by the root.
+        root.getModel().getProperties().setProperty( "prop0", "changed" );
+        final String changed = leaf.interpolate( session, value );
+        assertEquals( expected.replace( "level-0-0", "changed" ), changed );
+        assertEquals( 2, leaf.getInterpolationMisses() );
+
+        root.getModel().getProperties().remove( "prop0" );
+        assertEquals( expected.replace( "level-0-0", "${prop0}" ), leaf.interpolate( session, value ) );
+        assertEquals( 3, leaf.getInterpolationMisses() );
+    }
+
+    @Test
+    public void testProjectExpressionsAreNotMemoized()
+                    throws Exception
+    {
+        final Project leaf = hierarchy.get( DEPTH - 1 );
+        final Project root = hierarchy.get( 0 );
+        root.getModel().getProperties().setProperty( "rootVersion", "${project.model.version}" );
+
+        final Dependency dependency = new Dependency();
+        dependency.setGroupId( "org.foo" );
+        dependency.setArtifactId( "bar" );
+        dependency.setVersion( "${rootVersion}" );
+        leaf.getModel().addDependency( dependency );
+
+        assertEquals( "1.0", leaf.interpolate( session, "${project.model.version}" ) );
+        assertEquals( "1.0", leaf.interpolate( session, "${rootVersion}" ) );
+        assertEquals( "org.foo:bar:jar:1.0",
+                      leaf.getResolvedDependencies( session ).keySet().iterator().next().toString() );
+
+        // Changing the model doesn't modify any property, but must still be seen by later lookups.
+        root.getModel().setVersion( "1.0.redhat-1" );
+        assertEquals( "1.0.redhat-1", leaf.interpolate( session, "${project.model.version}" ) );
+        assertEquals( "1.0.redhat-1", leaf.interpolate( session, "${rootVersion}" ) );
+        assertEquals( "org.foo:bar:jar:1.0.redhat-1",
+                      leaf.getResolvedDependencies( session ).keySet().iterator().next().toString() );
+        assertEquals( 0, leaf.getInterpolationHits() );
+    }
+
+    @Test
+    public void testFindDefinitionMatchesInheritanceWalk()
+                    throws Exception
+    {
+        final Project leaf = hierarchy.get( DEPTH - 1 );
+        final Project root = hierarchy.get( 0 );
+        final PropertyScope scope = leaf.getPropertyScope( session );
+
+        for ( int i = 0; i < PROPERTIES; i++ )
+        {
+            final String key = "prop" + i;
+            final PropertyScope.Definition definition = scope.findDefinition( key );
+
+            Project expectedProject = null;
+            Properties expectedProperties = null;
+            search:
+            for ( Project p : leaf.getReverseInheritedList() )
+            {
+                if ( p.getModel().getProperties().containsKey( key ) )
+                {
+                    expectedProject = p;
+                    expectedProperties = p.getModel().getProperties();
+                    break;
+                }
+                for ( Profile pr : ProfileUtils.getProfiles( session, p.getModel() ) )
+                {
+                    if ( pr.getProperties().containsKey( key ) )
+                    {
+                        expectedProject = p;
+                        expectedProperties = pr.getProperties();
+                        break search;
+                    }
+                }
+            }
+            assertSame( expectedProject, definition.getProject() );
+            assertSame( expectedProperties, definition.getProperties() );
+        }
+        assertNull( scope.findDefinition( "newProp" ) );
+
+        // Adding and removing keys is reflected by the index.
+        root.getModel().getProperties().setProperty( "newProp", "root" );
+        assertSame( root, scope.findDefinition( "newProp" ).getProject() );
+        root.getModel().getProperties().remove( "newProp" );
+        assertNull( scope.findDefinition( "newProp" ) );
+    }
+
+    @Test
+    public void testProfileViewIsReusedUntilChanged()
+                    throws Exception
+    {
+        final Model model = hierarchy.get( 0 ).getModel();
+
+        final List<Profile> profiles = ProfileUtils.getProfiles( session, model );
+        assertEquals( model.getProfiles(), profiles );
+        assertSame( profiles, ProfileUtils.getProfiles( session, model ) );
+        try
+        {
+            profiles.clear();
+            fail( "Profile view should be unmodifiable" );
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            // Expected.
+        }
+
+        session.getUserProperties().setProperty( ProfileUtils.PROFILE_SCANNING, "true" );
+        session.getActiveProfiles().add( "profile-1" );
+        final List<Profile> active = ProfileUtils.getProfiles( session, model );
+        assertEquals( Collections.singletonList( model.getProfiles().get( 1 ) ), active );
+        assertSame( active, ProfileUtils.getProfiles( session, model ) );
+
+        final Profile profile = new Profile();
+        profile.setId( "profile-1" );
+        model.addProfile( profile );
+        assertEquals( 2, ProfileUtils.getProfiles( session, model ).size() );
+
+        final Profile replacement = new Profile();
+        replacement.setId( "profile-1" );
+        model.getProfiles().set( model.getProfiles().indexOf( profile ), replacement );
+        assertSame( replacement, ProfileUtils.getProfiles( session, model ).get( 1 ) );
+
+        // Models that are not tracked are filtered on every call.
+        final Model untracked = new Model();
+        untracked.addProfile( profile );
+        assertEquals( Collections.singletonList( profile ), ProfileUtils.getProfiles( session, untracked ) );
+    }
+
+    static Properties amalgamate( final ManipulationSession session, final Project project )
+    {
+        final Properties amalgamated = new Properties();
+        for ( Project p : project.getInheritedList() )
+        {
+            amalgamated.putAll( p.getModel().getProperties() );
+            for ( Profile pr : ProfileUtils.getProfiles( session, p.getModel() ) )
+            {
+                amalgamated.putAll( pr.getProperties() );
+            }
+        }
+        return amalgamated;
+    }
+}
@@ -104,6 +104,12 @@ public class ResultJsonFileTest
         assertEquals( "org.commonjava.maven.ext.versioning.test", groupId.textValue() );
         assertEquals( "project-version", artifactId.textValue() );
         assertEquals( "1.0.0.redhat-2", version.textValue() );
+
+        JsonNode changes = rootNode.get( "changes" );
+        assertNotNull( changes );
+        assertEquals( "pom.xml", changes.get( 0 ).get( "pom" ).textValue() );
+        assertEquals( "version", changes.get( 0 ).get( "changes" ).get( 0 ).get( "path" ).textValue() );
+        assertEquals( "1.0.0.redhat-2", changes.get( 0 ).get( "changes" ).get( 0 ).get( "newValue" ).textValue() );
     }
 
     @Test
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io;
+
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * On-disk cache of parsed POMs keyed by the SHA-256 digest of their content. Entries hold the peek data and the raw
+ * {@link org.apache.maven.model.Model} in a binary form which is cheaper to restore than re-parsing the XML. As the key
+ * is the content digest a modified POM can never be served a stale entry. The least recently used entries are evicted
+ * once the cache grows beyond its maximum size. The cache is purely an optimisation so any failure to read or write an
+ * entry is logged and otherwise ignored.
+ */
+final class ModelCache
+{
+    private static final Logger logger = LoggerFactory.getLogger( ModelCache.class );
+
+    /**
+     * Bumped whenever the entry layout in {@link PomContent#writeTo(ObjectOutputStream)} changes.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String SUFFIX = ".bin";
+
+    private final File directory;
+
+    private final long maxSize;
+
+    private final AtomicInteger hits = new AtomicInteger();
+
+    private final AtomicInteger misses = new AtomicInteger();
+
+    ModelCache( final File directory, final long maxSize )
+    {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Restore the peek data and model for the supplied content from the cache. Safe to call concurrently.
+     *
+     * @param content the POM content to look up.
+     * @return true if the entry was found and restored.
+     */
+    boolean load( final PomContent content )
+    {
+        final File entry = new File( directory, content.getDigest() + SUFFIX );
+        if ( !entry.isFile() )
+        {
+            misses.incrementAndGet();
+            return false;
+        }
+
+        try ( ObjectInputStream in = new ObjectInputStream(
+                        new BufferedInputStream( new FileInputStream( entry ) ) ) )
+        {
+            if ( in.readInt() != FORMAT_VERSION )
+            {
+                throw new IOException( "Unknown cache entry format" );
+            }
+            content.readFrom( in );
+        }
+        catch ( final IOException | ClassNotFoundException | ClassCastException e )
+        {
+            logger.debug( "Discarding unreadable cache entry {} for {}: {}", entry, content.getPom(), e.getMessage() );
+            //noinspection ResultOfMethodCallIgnored
+            entry.delete();
+            misses.incrementAndGet();
+            return false;
+        }
+
+        // Used as the access time for eviction.
+        //noinspection ResultOfMethodCallIgnored
+        entry.setLastModified( System.currentTimeMillis() );
+        hits.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Store the peek data and model for the supplied content. Must be called before the model is modified.
+     *
+     * @param content the POM content to store.
+     */
+    void store( final PomContent content )
+    {
+        if ( content.isCached() )
+        {
+            return;
+        }
+
+        File tmp = null;
+        try
+        {
+            Files.createDirectories( directory.toPath() );
+
+            tmp = File.createTempFile( content.getDigest(), ".tmp", directory );
+            try ( ObjectOutputStream out = new ObjectOutputStream(
+                            new BufferedOutputStream( new FileOutputStream( tmp ) ) ) )
+            {
+                out.writeInt( FORMAT_VERSION );
+                content.writeTo( out );
+            }
+            Files.move( tmp.toPath(), new File( directory, content.getDigest() + SUFFIX ).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING );
+        }
+        catch ( final IOException | XmlPullParserException e )
+        {
+            logger.debug( "Unable to cache model for {}: {}", content.getPom(), e.getMessage() );
+        }
+        finally
+        {
+            if ( tmp != null )
+            {
+                //noinspection ResultOfMethodCallIgnored
+                tmp.delete();
+            }
+        }
+    }
+
+    /**
+     * Delete the least recently used entries until the cache is no larger than its maximum size.
+     */
+    void evict()
+    {
+        final File[] entries = directory.listFiles( new FileFilter()
+        {
+            @Override
+            public boolean accept( final File file )
+            {
+                return file.isFile() && file.getName().endsWith( SUFFIX );
+            }
+        } );
+        if ( entries == null )
+        {
+            return;
+        }
+
+        long total = 0;
+        for ( final File entry : entries )
+        {
+            total += entry.length();
+        }
+        if ( total <= maxSize )
+        {
+            return;
+        }
+
+        Arrays.sort( entries, new Comparator<File>()
+        {
+            @Override
+            public int compare( final File o1, final File o2 )
+            {
+                return Long.compare( o1.lastModified(), o2.lastModified() );
+            }
+        } );
+
+        int evicted = 0;
+        for ( int i = 0; i < entries.length && total > maxSize; i++ )
+        {
+            final long length = entries[i].length();
+            if ( entries[i].delete() )
+            {
+                total -= length;
+                evicted++;
+            }
+        }
+        logger.debug( "Evicted {} entries from model cache {}.", evicted, directory );
+    }
+
+    int getHits()
+    {
+        return hits.get();
+    }
+
+    int getMisses()
+    {
+        return misses.get();
+    }
+}
@@ -29,6 +29,7 @@ import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
 import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
 import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.model.CoordinatePool;
 import org.commonjava.maven.ext.io.resolver.GalleyAPIWrapper;
 import org.commonjava.maven.galley.TransferException;
 import org.commonjava.maven.galley.maven.GalleyMavenException;
@@ -174,7 +175,7 @@ public class ModelIO
             {
                 for ( final DependencyView dep : deps )
                 {
-                    versionOverrides.put( dep.asArtifactRef(), dep.getVersion() );
+                    versionOverrides.put( CoordinatePool.intern( dep.asArtifactRef() ), CoordinatePool.intern( dep.getVersion() ) );
                     logger.debug( "Added version override for: " + dep.asProjectRef().toString() + ":" + dep.getVersion() );
                 }
             }
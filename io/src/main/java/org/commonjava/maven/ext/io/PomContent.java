@@ -0,0 +1,418 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.XmlStreamReader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.ext.common.model.CoordinatePool;
+import org.commonjava.maven.galley.maven.parse.PomPeek;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Holds the raw bytes of a POM so that it only needs to be read from disk once. The peek data, the {@link Model},
+ * the modified-by marker, the line separator and the content digest are all derived from this single read. Large
+ * files are memory-mapped rather than copied onto the heap. The peek data and the {@link Model} may alternatively be
+ * restored from a {@link ModelCache} entry.
+ */
+final class PomContent
+{
+    private static final long MAP_THRESHOLD = 1024 * 1024;
+
+    private final File pom;
+
+    private final ByteBuffer buffer;
+
+    private String digest;
+
+    private boolean peeked;
+
+    private ProjectVersionRef key;
+
+    private ProjectVersionRef parentKey;
+
+    private String parentRelativePath;
+
+    private Set<String> modules;
+
+    private boolean inheritanceRoot;
+
+    private Model model;
+
+    private String encoding;
+
+    private boolean cached;
+
+    private PomContent( final File pom, final ByteBuffer buffer )
+    {
+        this.pom = pom;
+        this.buffer = buffer;
+    }
+
+    static PomContent read( final File pom )
+        throws IOException
+    {
+        if ( pom.length() < MAP_THRESHOLD )
+        {
+            return new PomContent( pom, ByteBuffer.wrap( Files.readAllBytes( pom.toPath() ) ) );
+        }
+
+        try ( RandomAccessFile raf = new RandomAccessFile( pom, "r" ); FileChannel channel = raf.getChannel() )
+        {
+            return new PomContent( pom, channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() ) );
+        }
+    }
+
+    File getPom()
+    {
+        return pom;
+    }
+
+    /**
+     * @return a new stream over the content. Each stream has an independent position.
+     */
+    InputStream openStream()
+    {
+        return new ByteBufferInputStream( buffer.duplicate() );
+    }
+
+    ProjectVersionRef getKey()
+    {
+        peek();
+        return key;
+    }
+
+    ProjectVersionRef getParentKey()
+    {
+        peek();
+        return parentKey;
+    }
+
+    String getParentRelativePath()
+    {
+        peek();
+        return parentRelativePath;
+    }
+
+    Set<String> getModules()
+    {
+        peek();
+        return modules;
+    }
+
+    boolean isInheritanceRoot()
+    {
+        return inheritanceRoot;
+    }
+
+    void setInheritanceRoot( final boolean inheritanceRoot )
+    {
+        this.inheritanceRoot = inheritanceRoot;
+    }
+
+    /**
+     * @return the raw model parsed from the content, or restored from the cache.
+     * @throws IOException if an error occurs reading the content.
+     * @throws XmlPullParserException if the content is not a valid POM.
+     */
+    Model getModel()
+        throws IOException, XmlPullParserException
+    {
+        if ( model == null )
+        {
+            try ( InputStream in = openStream() )
+            {
+                model = new MavenXpp3Reader().read( in );
+            }
+        }
+        return model;
+    }
+
+    /**
+     * @return the encoding of the content as detected from its byte order mark or XML declaration.
+     * @throws IOException if an error occurs reading the content.
+     */
+    String getEncoding()
+        throws IOException
+    {
+        if ( encoding == null )
+        {
+            try ( XmlStreamReader reader = new XmlStreamReader( openStream() ) )
+            {
+                encoding = reader.getEncoding();
+            }
+        }
+        return encoding;
+    }
+
+    /**
+     * @return the content decoded using {@link #getEncoding()}.
+     * @throws IOException if an error occurs reading the content.
+     */
+    String getText()
+        throws IOException
+    {
+        return Charset.forName( getEncoding() ).decode( buffer.duplicate() ).toString();
+    }
+
+    /**
+     * @return whether the peek data and model were restored from a cache entry.
+     */
+    boolean isCached()
+    {
+        return cached;
+    }
+
+    /**
+     * Writes the peek data and the model in a compact binary form for {@link ModelCache}. Must be called before
+     * the model is modified.
+     */
+    void writeTo( final ObjectOutputStream out )
+        throws IOException, XmlPullParserException
+    {
+        peek();
+        writeRef( out, key );
+        writeRef( out, parentKey );
+        out.writeObject( parentRelativePath );
+        out.writeInt( modules == null ? -1 : modules.size() );
+        if ( modules != null )
+        {
+            for ( final String module : modules )
+            {
+                out.writeUTF( module );
+            }
+        }
+        out.writeObject( getModel() );
+    }
+
+    /**
+     * Restores the peek data and the model previously written by {@link #writeTo(ObjectOutputStream)}.
+     */
+    void readFrom( final ObjectInputStream in )
+        throws IOException, ClassNotFoundException
+    {
+        final ProjectVersionRef k = readRef( in );
+        final ProjectVersionRef pk = readRef( in );
+        final String relPath = (String) in.readObject();
+        final int count = in.readInt();
+        Set<String> m = null;
+        if ( count >= 0 )
+        {
+            // Re-inserting in the stored iteration order reproduces the iteration order of the original set.
+            m = new HashSet<>();
+            for ( int i = 0; i < count; i++ )
+            {
+                m.add( in.readUTF() );
+            }
+        }
+        final Model mdl = (Model) in.readObject();
+
+        key = k;
+        parentKey = pk;
+        parentRelativePath = relPath;
+        modules = m;
+        model = mdl;
+        peeked = true;
+        cached = true;
+    }
+
+    private void peek()
+    {
+        if ( !peeked )
+        {
+            final PomPeek peek = new ContentPomPeek( this );
+            key = peek.getKey();
+            parentKey = peek.getParentKey();
+            parentRelativePath = peek.getParentRelativePath();
+            modules = peek.getModules();
+            peeked = true;
+        }
+    }
+
+    private static void writeRef( final ObjectOutputStream out, final ProjectVersionRef ref )
+        throws IOException
+    {
+        out.writeBoolean( ref != null );
+        if ( ref != null )
+        {
+            out.writeUTF( ref.getGroupId() );
+            out.writeUTF( ref.getArtifactId() );
+            out.writeUTF( ref.getVersionString() );
+        }
+    }
+
+    private static ProjectVersionRef readRef( final ObjectInputStream in )
+        throws IOException
+    {
+        if ( in.readBoolean() )
+        {
+            return CoordinatePool.projectVersionRef( in.readUTF(), in.readUTF(), in.readUTF() );
+        }
+        return null;
+    }
+
+    /**
+     * @return a hex encoded SHA-256 digest of the content.
+     */
+    String getDigest()
+    {
+        if ( digest == null )
+        {
+            digest = digest( buffer.duplicate() );
+        }
+        return digest;
+    }
+
+    /**
+     * @param content the bytes to digest, which are consumed by this call.
+     * @return a hex encoded SHA-256 digest of the supplied bytes, as compared against {@link #getDigest()}.
+     */
+    static String digest( final ByteBuffer content )
+    {
+        try
+        {
+            final MessageDigest digest = MessageDigest.getInstance( "SHA-256" );
+            digest.update( content );
+            return Hex.encodeHexString( digest.digest() );
+        }
+        catch ( final NoSuchAlgorithmException e )
+        {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException( e );
+        }
+    }
+
+    /**
+     * @param marker an ASCII string to search for.
+     * @return whether the content contains the marker.
+     */
+    boolean contains( final String marker )
+    {
+        final byte[] m = marker.getBytes( StandardCharsets.US_ASCII );
+        final int limit = buffer.limit() - m.length;
+
+        outer:
+        for ( int i = 0; i <= limit; i++ )
+        {
+            for ( int j = 0; j < m.length; j++ )
+            {
+                if ( buffer.get( i + j ) != m[j] )
+                {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the line separator used by the first line of the content, or null if there is no line separator.
+     */
+    String getLineSeparator()
+    {
+        int prev = -1;
+        for ( int i = 0; i < buffer.limit(); i++ )
+        {
+            final int ch = buffer.get( i );
+            if ( ch == '\n' )
+            {
+                return prev == '\r' ? "\r\n" : "\n";
+            }
+            else if ( prev == '\r' )
+            {
+                return "\r";
+            }
+            prev = ch;
+        }
+        return null;
+    }
+
+    private static final class ContentPomPeek
+        extends PomPeek
+    {
+        private final File pom;
+
+        private ContentPomPeek( final PomContent content )
+        {
+            super( content.openStream() );
+            this.pom = content.getPom();
+        }
+
+        @Override
+        public File getPom()
+        {
+            return pom;
+        }
+    }
+
+    private static final class ByteBufferInputStream
+        extends InputStream
+    {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream( final ByteBuffer buffer )
+        {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read()
+        {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read( final byte[] b, final int off, final int len )
+        {
+            if ( len == 0 )
+            {
+                return 0;
+            }
+            if ( !buffer.hasRemaining() )
+            {
+                return -1;
+            }
+            final int count = Math.min( len, buffer.remaining() );
+            buffer.get( b, off, count );
+            return count;
+        }
+
+        @Override
+        public int available()
+        {
+            return buffer.remaining();
+        }
+    }
+}
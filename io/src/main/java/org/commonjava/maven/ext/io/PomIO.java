@@ -15,47 +15,63 @@
  */
 package org.commonjava.maven.ext.io;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.maven.io.util.DocumentModifier;
 import org.apache.maven.model.Model;
 import org.apache.maven.model.io.ModelWriter;
 import org.apache.maven.model.io.jdom.MavenJDOMWriter;
-import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
 import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.GAV;
 import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.common.util.ManifestUtils;
-import org.commonjava.maven.galley.maven.parse.PomPeek;
+import org.commonjava.maven.ext.io.resolver.GalleyInfrastructure;
 import org.jdom2.Comment;
 import org.jdom2.Content;
 import org.jdom2.Document;
 import org.jdom2.JDOMException;
 import org.jdom2.filter.ContentFilter;
+import org.jdom2.input.SAXBuilder;
 import org.jdom2.output.LineSeparator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
-
-import static org.apache.commons.io.IOUtils.closeQuietly;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Utility class used to read raw models for POMs, and rewrite any project POMs that were changed.
@@ -69,61 +85,122 @@ public class PomIO
 
     private static final Logger logger = LoggerFactory.getLogger( PomIO.class );
 
+    /**
+     * Denotes whether the module hierarchy is discovered concurrently. Default is false (sequential discovery).
+     */
+    public static final String PARALLEL_DISCOVERY = "parallelDiscovery";
+
+    /**
+     * Denotes whether parsed POMs are cached on disk (under the manipulator cache directory) and reused by later runs
+     * while their content is unchanged. Default is false.
+     */
+    public static final String POM_CACHE = "pomCache";
+
+    /**
+     * Maximum size of the parsed POM cache in megabytes. Least recently used entries are evicted beyond this.
+     * Default is 100.
+     */
+    public static final String POM_CACHE_SIZE = "pomCacheSize";
+
+    /**
+     * Denotes whether changed POMs are rewritten by splicing changed version and property values into the original
+     * text, falling back to a full JDOM rewrite for any other kind of change. Default is false (always use JDOM).
+     */
+    public static final String PATCH_WRITER = "pomPatchWriter";
+
+    private static final int MAX_IO_THREADS = 16;
+
+    private static final String TMP_SUFFIX = ".pme-tmp";
+
+    private boolean parallelDiscovery;
+
+    private ModelCache modelCache;
+
+    private boolean patchWriter;
+
+    /**
+     * With the patch writer enabled, the content of each loaded POM and a copy of its model as parsed, keyed by POM
+     * file. Entries are removed when the POM is written, and any others once {@link #rewritePOMs(GAV, Set)} completes
+     * or {@link #release()} is called.
+     */
+    private final Map<File, PatchSource> patchSources = new ConcurrentHashMap<>();
+
+    /**
+     * Configure this instance from the user properties of the current session.
+     *
+     * @param cacheDirectory the manipulator cache directory (see {@link GalleyInfrastructure#getCacheDir()}) under which
+     *                       the model cache is stored.
+     * @param userProps the user properties.
+     */
+    public void init( final File cacheDirectory, final Properties userProps )
+    {
+        parallelDiscovery = Boolean.parseBoolean( userProps.getProperty( PARALLEL_DISCOVERY, "false" ) );
+        patchWriter = Boolean.parseBoolean( userProps.getProperty( PATCH_WRITER, "false" ) );
+        patchSources.clear();
+
+        if ( Boolean.parseBoolean( userProps.getProperty( POM_CACHE, "false" ) ) )
+        {
+            final long maxSize = Long.parseLong( userProps.getProperty( POM_CACHE_SIZE, "100" ) ) * 1024 * 1024;
+            modelCache = new ModelCache( new File( cacheDirectory, "pom-models" ), maxSize );
+        }
+        else
+        {
+            modelCache = null;
+        }
+    }
 
     public List<Project> parseProject (final File pom) throws ManipulationException
     {
-        final List<PomPeek> peeked = peekAtPomHierarchy(pom);
+        final List<PomContent> peeked = peekAtPomHierarchy(pom);
         return readModelsForManipulation( pom.getAbsoluteFile(), peeked );
     }
 
     /**
      * Read {@link Model} instances by parsing the POM directly. This is useful to escape some post-processing that happens when the
-     * {@link MavenProject#getOriginalModel()} instance is set.
+     * {@link MavenProject#getOriginalModel()} instance is set. The POM content read while peeking is reused so each file is
+     * only read from disk once. Other than the execution root, models are parsed lazily on first access so a failure
+     * to parse a module POM surfaces from {@link Project#getModel()}.
      *
      * @param executionRoot the top level pom file.
-     * @param peeked a collection of poms resolved from the top level file.
+     * @param peeked a collection of poms (and their content) resolved from the top level file.
      * @return a collection of Projects
      * @throws ManipulationException if an error occurs.
      */
-    private List<Project> readModelsForManipulation( File executionRoot, final List<PomPeek> peeked )
+    private List<Project> readModelsForManipulation( File executionRoot, final List<PomContent> peeked )
         throws ManipulationException
     {
         final List<Project> projects = new ArrayList<>();
         final HashMap<Project, ProjectVersionRef> projectToParent = new HashMap<>(  );
 
-        for ( final PomPeek peek : peeked )
+        for ( final PomContent content : peeked )
         {
-            final File pom = peek.getPom();
+            final File pom = content.getPom();
 
-            // Sucks, but we have to brute-force reading in the raw model.
-            // The effective-model building, below, has a tantalizing getRawModel()
-            // method on the result, BUT this seems to return models that have
-            // the plugin versions set inside profiles...so they're not entirely
-            // raw.
-            Model raw = null;
-            InputStream in = null;
-            try
-            {
-                in = new FileInputStream( pom );
-                raw = new MavenXpp3Reader().read( in );
-            }
-            catch ( final IOException | XmlPullParserException e )
-            {
-                throw new ManipulationException( "Failed to build model for POM: %s.\n--> %s", e, pom, e.getMessage() );
-            }
-            finally
+            final Project project;
+            if ( executionRoot.equals( pom ) || content.isCached() )
             {
-                closeQuietly( in );
+                project = new Project( pom, loadModel( content ) );
             }
-
-            if ( raw == null )
+            else
             {
-                continue;
+                // The peeked coordinates are sufficient to build the hierarchy so module models are only parsed
+                // once something asks for them. Root-only manipulations never need to parse the modules at all.
+                project = Project.lazy( content.getKey(), pom, new Project.ModelLoader()
+                {
+                    @Override
+                    public Model load()
+                        throws ManipulationException
+                    {
+                        logger.debug( "Loading model for {} on demand.", pom );
+                        return loadModel( content );
+                    }
+                } );
             }
 
-            final Project project = new Project( pom, raw );
-            projectToParent.put( project, peek.getParentKey() );
-            project.setInheritanceRoot( peek.isInheritanceRoot() );
+            projectToParent.put( project, content.getParentKey() );
+            project.setInheritanceRoot( content.isInheritanceRoot() );
+            project.setLineSeparator( content.getLineSeparator() );
+            project.setPomDigest( content.getDigest() );
 
             if ( executionRoot.equals( pom ))
             {
@@ -131,16 +208,9 @@ public class PomIO
                       (project.isInheritanceRoot() ? " and is the inheritance root. ": ""), project, pom );
                 project.setExecutionRoot ();
 
-                try
-                {
-                    if ( FileUtils.readFileToString( pom ).contains( MODIFIED_BY ) )
-                    {
-                        project.setIncrementalPME (true);
-                    }
-                }
-                catch ( final IOException e )
+                if ( content.contains( MODIFIED_BY ) )
                 {
-                    throw new ManipulationException( "Failed to read POM: %s", e, pom );
+                    project.setIncrementalPME (true);
                 }
             }
 
@@ -148,38 +218,70 @@ public class PomIO
         }
 
         // Fill out inheritance info for every project we have created.
+        final Map<ProjectVersionRef, Project> projectsByKey = new HashMap<>( projects.size() * 2 );
         for ( Project p : projects )
         {
+            // Retain the first project found for a key to match the original list ordering.
+            if ( !projectsByKey.containsKey( p.getKey() ) )
+            {
+                projectsByKey.put( p.getKey(), p );
+            }
+        }
+        for ( Project p : projects )
+        {
+            // If the PVR refers to something outside of the hierarchy we'll break the inheritance here.
             ProjectVersionRef pvr = projectToParent.get( p );
-            p.setProjectParent( getParent( projects, pvr ) );
+            p.setProjectParent( pvr == null ? null : projectsByKey.get( pvr ) );
         }
 
         return projects;
     }
 
-    private Project getParent( List<Project> projects, ProjectVersionRef pvr )
+    private Model loadModel( final PomContent content )
+        throws ManipulationException
     {
-        for ( Project p : projects )
+        // Sucks, but we have to brute-force reading in the raw model.
+        // The effective-model building, below, has a tantalizing getRawModel()
+        // method on the result, BUT this seems to return models that have
+        // the plugin versions set inside profiles...so they're not entirely
+        // raw.
+        final Model raw;
+        try
         {
-            if ( p.getKey().equals( pvr ) )
-            {
-                return p;
-            }
+            raw = content.getModel();
         }
-        // If the PVR refers to something outside of the hierarchy we'll break the inheritance here.
-        return null;
+        catch ( final IOException | XmlPullParserException e )
+        {
+            throw new ManipulationException( "Failed to build model for POM: %s.\n--> %s", e, content.getPom(),
+                                             e.getMessage() );
+        }
+
+        // Store before the model is handed out as it is modified from then on.
+        if ( modelCache != null )
+        {
+            modelCache.store( content );
+        }
+        if ( patchWriter )
+        {
+            patchSources.put( content.getPom(), new PatchSource( content, raw.clone() ) );
+        }
+        return raw;
     }
 
     /**
      * For any project listed as changed (tracked by GA in the session), write the modified model out to disk.
      * Uses JDOM {@link ModelWriter} and {@link MavenJDOMWriter} to preserve as much formatting as possible.
+     * Projects are written concurrently using a bounded pool and each file is replaced atomically so that
+     * a failure part way through never leaves a partially written POM. Files whose rendered content is
+     * identical to the content originally read are not rewritten.
      *
      *
      * @param gav GAV to fill in.
      * @param changed the modified Projects to write out.
+     * @return the Projects whose POM was actually rewritten.
      * @throws ManipulationException if an error occurs.
      */
-    public void rewritePOMs( GAV gav, final Set<Project> changed )
+    public Set<Project> rewritePOMs( GAV gav, final Set<Project> changed )
         throws ManipulationException
     {
         for ( final Project project : changed )
@@ -191,26 +293,120 @@ public class PomIO
                 gav.setArtifactId( m.getArtifactId() == null ? project.getArtifactId() : m.getArtifactId() );
                 gav.setVersion( m.getVersion() == null ? project.getVersion() : m.getVersion() );
             }
-            logger.debug( String.format( "%s modified! Rewriting.", project ) );
-            File pom = project.getPom();
+        }
+
+        try
+        {
+            return rewritePOMs( changed );
+        }
+        finally
+        {
+            patchSources.clear();
+        }
+    }
 
-            final Model model = project.getModel();
-            logger.trace( "Rewriting: " + model.toString() + " in place of: " + project.getId()
-                         + "\n       to POM: " + pom );
+    /**
+     * Release the content retained for rewriting the POMs read by {@link #parseProject(File)} with the patch writer
+     * and, with the model cache enabled, evict it back to its maximum size. Models of modules are loaded and cached
+     * lazily so this must be called once the run has completed.
+     */
+    public void release()
+    {
+        patchSources.clear();
 
-            write( project, pom, model );
+        if ( modelCache != null )
+        {
+            logger.info( "Model cache: {} hits, {} misses.", modelCache.getHits(), modelCache.getMisses() );
+            modelCache.evict();
+        }
+    }
 
-            // this happens with integration tests!
-            // This is a total hack, but the alternative seems to be adding complexity through a custom model processor.
-            if ( pom.getName()
-                            .equals( "interpolated-pom.xml" ) )
+    private Set<Project> rewritePOMs( final Set<Project> changed )
+        throws ManipulationException
+    {
+        final Set<Project> written = new HashSet<>();
+        if ( changed.size() <= 1 )
+        {
+            for ( final Project project : changed )
             {
-                final File dir = pom.getParentFile();
-                pom = dir == null ? new File( "pom.xml" ) : new File( dir, "pom.xml" );
+                if ( rewritePOM( project ) )
+                {
+                    written.add( project );
+                }
+            }
+            return written;
+        }
 
-                write( project, pom, model );
+        final ExecutorService executor = Executors.newFixedThreadPool( Math.min( changed.size(), ioThreads() ) );
+        try
+        {
+            final Map<Project, Future<Boolean>> results = new LinkedHashMap<>( changed.size() * 2 );
+            for ( final Project project : changed )
+            {
+                results.put( project, executor.submit( new Callable<Boolean>()
+                {
+                    @Override
+                    public Boolean call()
+                        throws ManipulationException
+                    {
+                        return rewritePOM( project );
+                    }
+                } ) );
+            }
+            for ( final Map.Entry<Project, Future<Boolean>> result : results.entrySet() )
+            {
+                if ( result.getValue().get() )
+                {
+                    written.add( result.getKey() );
+                }
             }
+            return written;
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new ManipulationException( "Interrupted while rewriting POMs.", e );
+        }
+        catch ( final ExecutionException e )
+        {
+            if ( e.getCause() instanceof ManipulationException )
+            {
+                throw (ManipulationException) e.getCause();
+            }
+            throw new ManipulationException( "Problem rewriting POMs: %s", e.getCause(), e.getCause().getMessage() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return whether the POM was written, i.e. its content changed.
+     */
+    private boolean rewritePOM( final Project project )
+        throws ManipulationException
+    {
+        logger.debug( String.format( "%s modified! Rewriting.", project ) );
+        File pom = project.getPom();
+
+        final Model model = project.getModel();
+        logger.trace( "Rewriting: " + model.toString() + " in place of: " + project.getId()
+                     + "\n       to POM: " + pom );
+
+        boolean written = write( project, pom, model );
+
+        // this happens with integration tests!
+        // This is a total hack, but the alternative seems to be adding complexity through a custom model processor.
+        if ( pom.getName()
+                        .equals( "interpolated-pom.xml" ) )
+        {
+            final File dir = pom.getParentFile();
+            pom = dir == null ? new File( "pom.xml" ) : new File( dir, "pom.xml" );
+
+            written |= write( project, pom, model );
         }
+        return written;
     }
 
 
@@ -234,72 +430,204 @@ public class PomIO
         }
     }
 
-    private void write( final Project project, final File pom, final Model model )
+    private boolean write( final Project project, final File pom, final Model model )
         throws ManipulationException
     {
         try
         {
             final String manifestInformation = project.isInheritanceRoot() ? ManifestUtils.getManifestInformation() : null;
 
-            MavenJDOMWriter mjw = new MavenJDOMWriter( model );
+            // The EOL type is captured when the POM is first read ; only fall back to re-reading
+            // the file if this is a different file or the project did not come from parseProject.
+            final String lineSeparator;
+            if ( pom.equals( project.getPom() ) && project.getLineSeparator() != null )
+            {
+                lineSeparator = project.getLineSeparator();
+            }
+            else
+            {
+                lineSeparator = determineEOL( pom ).value();
+            }
+
+            // Only add the modified by to the top level pom.
+            final String modifiedBy = project.isExecutionRoot() ?
+                            "\n" + MODIFIED_BY + " " + manifestInformation + "\n" : null;
 
-            // We possibly could store the EOL type in the Project when we first read
-            // the file but we would then have to do a dual read, then write as opposed
-            // to a read, then read + write now.
-            LineSeparator ls = determineEOL( pom );
-            mjw.setLineSeparator( ls );
+            final PatchSource source = pom.equals( project.getPom() ) ? patchSources.remove( pom ) : null;
+            byte[] bytes = source == null ? null : patch( pom, source, model, lineSeparator, modifiedBy );
+            if ( bytes == null )
+            {
+                bytes = render( pom, model, lineSeparator, modifiedBy );
+            }
 
-            mjw.write( model, pom, new DocumentModifier()
+            // Avoid touching files whose content would not change so their timestamps are preserved.
+            if ( pom.equals( project.getPom() ) && project.getPomDigest() != null
+                            && project.getPomDigest().equals( PomContent.digest( ByteBuffer.wrap( bytes ) ) ) )
             {
-                @Override
-                public void postProcess( final Document doc )
+                logger.debug( "Content of {} is unchanged ; skipping rewrite.", pom );
+                return false;
+            }
+
+            // Write to a temporary file alongside the POM and then move it into place so the POM is
+            // never left partially written. A symlinked POM is resolved first so the link itself is kept and its
+            // target is replaced instead.
+            final Path target = pom.exists() ? pom.toPath().toRealPath() : pom.toPath().toAbsolutePath();
+            final Path tmp = target.resolveSibling( '.' + target.getFileName().toString() + TMP_SUFFIX );
+            try
+            {
+                Files.write( tmp, bytes );
+                copyAttributes( target, tmp );
+                replace( tmp, target );
+            }
+            finally
+            {
+                Files.deleteIfExists( tmp );
+            }
+            return true;
+        }
+        catch ( final IOException e )
+        {
+            throw new ManipulationException( "Failed to read POM for rewrite: %s. Reason: %s", e, pom, e.getMessage() );
+        }
+        catch ( final JDOMException e )
+        {
+            throw new ManipulationException( "Failed to parse POM for rewrite: %s. Reason: %s", e, pom, e.getMessage() );
+        }
+    }
+
+    /**
+     * Render the model by synchronising it with a JDOM tree of the current file.
+     */
+    private byte[] render( final File pom, final Model model, final String lineSeparator, final String modifiedBy )
+        throws IOException, JDOMException
+    {
+        final MavenJDOMWriter mjw = new MavenJDOMWriter( model );
+        mjw.setLineSeparator( lineSeparator );
+
+        final DocumentModifier modifier = new DocumentModifier()
+        {
+            @Override
+            public void postProcess( final Document doc )
+            {
+                if ( modifiedBy != null )
                 {
-                    // Only add the modified by to the top level pom.
-                    if ( project.isExecutionRoot() )
+                    final Iterator<Content> it = doc.getContent( new ContentFilter( ContentFilter.COMMENT ) )
+                                                    .iterator();
+                    while ( it.hasNext() )
                     {
-                        final Iterator<Content> it = doc.getContent( new ContentFilter( ContentFilter.COMMENT ) )
-                                                        .iterator();
-                        while ( it.hasNext() )
-                        {
-                            final Comment c = (Comment) it.next();
+                        final Comment c = (Comment) it.next();
 
-                            if ( c.toString().contains( MODIFIED_BY ) )
-                            {
-                                it.remove();
-                            }
+                        if ( c.toString().contains( MODIFIED_BY ) )
+                        {
+                            it.remove();
                         }
-
-                        doc.addContent( Collections.<Content>singletonList(
-                                        new Comment( "\nModified by POM Manipulation Extension for Maven "
-                                                                     + manifestInformation + "\n" ) ) );
                     }
+
+                    doc.addContent( Collections.<Content>singletonList( new Comment( modifiedBy ) ) );
                 }
-            });
+            }
+        };
+
+        final Document doc = new SAXBuilder().build( pom );
+
+        final ByteArrayOutputStream rendered = new ByteArrayOutputStream( (int) pom.length() + 1024 );
+        try ( Writer writer = new OutputStreamWriter( rendered, mjw.getEncoding() ) )
+        {
+            mjw.write( model, doc, writer, modifier );
+        }
+        return rendered.toByteArray();
+    }
+
+    /**
+     * Render the model by splicing changed values into the text the POM was read from (see {@link PomPatcher}). If
+     * the model has changes that cannot be patched null is returned so that the caller falls back to
+     * {@link #render(File, Model, String, String)}.
+     */
+    private byte[] patch( final File pom, final PatchSource source, final Model model, final String lineSeparator,
+                          final String modifiedBy )
+        throws IOException
+    {
+        final String patched = PomPatcher.patch( source.content.getText(), source.model, model, modifiedBy,
+                                                 MODIFIED_BY, lineSeparator );
+        if ( patched == null )
+        {
+            logger.debug( "Changes to {} cannot be patched in place ; rewriting.", pom );
+            return null;
+        }
+        logger.debug( "Patched {} in place.", pom );
+        return patched.getBytes( source.content.getEncoding() );
+    }
+
+    /**
+     * Give the temporary file the permissions, owner and group of the POM it replaces. The owner and group can only
+     * be changed by a privileged user so failing to do so is not an error.
+     */
+    private static void copyAttributes( final Path source, final Path target )
+        throws IOException
+    {
+        if ( !Files.exists( source ) )
+        {
+            return;
+        }
+
+        final PosixFileAttributeView view = Files.getFileAttributeView( target, PosixFileAttributeView.class );
+        if ( view == null )
+        {
+            return;
+        }
+
+        final PosixFileAttributes attributes = Files.readAttributes( source, PosixFileAttributes.class );
+        view.setPermissions( attributes.permissions() );
+        try
+        {
+            if ( !attributes.owner().equals( view.getOwner() ) )
+            {
+                view.setOwner( attributes.owner() );
+            }
+            if ( !attributes.group().equals( view.readAttributes().group() ) )
+            {
+                view.setGroup( attributes.group() );
+            }
         }
         catch ( final IOException e )
         {
-            throw new ManipulationException( "Failed to read POM for rewrite: %s. Reason: %s", e, pom, e.getMessage() );
+            logger.debug( "Unable to preserve the owner of {}: {}", source, e.getMessage() );
         }
-        catch ( final JDOMException e )
+    }
+
+    private static void replace( final Path source, final Path target )
+        throws IOException
+    {
+        try
         {
-            throw new ManipulationException( "Failed to parse POM for rewrite: %s. Reason: %s", e, pom, e.getMessage() );
+            Files.move( source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        }
+        catch ( final AtomicMoveNotSupportedException e )
+        {
+            logger.debug( "Atomic move not supported for {} ; falling back to replace.", target );
+            Files.move( source, target, StandardCopyOption.REPLACE_EXISTING );
         }
     }
 
-    private List<PomPeek> peekAtPomHierarchy(final File topPom)
+    private List<PomContent> peekAtPomHierarchy(final File topPom)
         throws ManipulationException
     {
-        final List<PomPeek> peeked = new ArrayList<>();
+        final List<PomContent> peeked = new ArrayList<>();
+        final long start = System.currentTimeMillis();
+
+        final ExecutorService executor = parallelDiscovery ? Executors.newFixedThreadPool( ioThreads() ) : null;
 
         try
         {
-            final LinkedList<File> pendingPoms = new LinkedList<>();
+            final PendingPoms pendingPoms = new PendingPoms();
             pendingPoms.add( topPom.getCanonicalFile() );
 
             final String topDir = topPom.getAbsoluteFile().getParentFile().getCanonicalPath();
 
             final Set<File> seen = new HashSet<>();
 
+            final Map<File, PeekTask> prefetched = new HashMap<>();
+
             File topLevelParent = topPom;
 
             while ( !pendingPoms.isEmpty() )
@@ -309,29 +637,34 @@ public class PomIO
 
                 logger.debug( "PEEK: " + pom );
 
-                final PomPeek peek = new PomPeek( pom );
-                final ProjectVersionRef key = peek.getKey();
-                if ( key != null )
+                PeekTask task = prefetched.remove( pom );
+                if ( task == null )
                 {
-                    peeked.add( peek );
+                    if ( executor != null )
+                    {
+                        // Peek at everything currently pending (i.e. the rest of this level of the module tree)
+                        // concurrently. The results are consumed below in exactly the order the sequential walk
+                        // would have used so the resulting list and inheritance roots are identical.
+                        prefetch( executor, topDir, pom, pendingPoms, prefetched );
+                        task = prefetched.remove( pom );
+                    }
+                    else
+                    {
+                        task = new PeekTask( pom, topDir, modelCache ).call();
+                    }
+                }
 
-                    final File dir = pom.getParentFile();
+                final ProjectVersionRef key = task.content.getKey();
+                if ( key != null )
+                {
+                    peeked.add( task.content );
 
-                    final String relPath = peek.getParentRelativePath();
+                    final String relPath = task.content.getParentRelativePath();
                     if ( relPath != null )
                     {
                         logger.debug( "Found parent relativePath: " + relPath + " in pom: " + pom );
-                        File parent = new File( dir, relPath );
-                        if ( parent.isDirectory() )
-                        {
-                            parent = new File( parent, "pom.xml" );
-                        }
-
-                        parent = parent.getCanonicalFile();
-                        if ( parent.getParentFile()
-                                   .getCanonicalPath()
-                                   .startsWith( topDir ) && parent.exists() && !seen.contains( parent )
-                            && !pendingPoms.contains( parent ) )
+                        final File parent = task.parent;
+                        if ( task.parentInTree && !seen.contains( parent ) && !pendingPoms.contains( parent ) )
                         {
                             topLevelParent = parent;
                             logger.debug( "Possible top level parent " + parent );
@@ -344,28 +677,20 @@ public class PomIO
                         }
                     }
 
-                    final Set<String> modules = peek.getModules();
-                    if ( modules != null && !modules.isEmpty() )
+                    for ( final Map.Entry<String, File> module : task.modules.entrySet() )
                     {
-                        for ( final String module : modules )
+                        logger.debug( "Found module: " + module.getKey() + " in pom: " + pom );
+
+                        final File modPom = module.getValue();
+
+                        if ( modPom != null && !seen.contains( modPom )
+                            && !pendingPoms.contains( modPom ) )
                         {
-                            logger.debug( "Found module: " + module + " in pom: " + pom );
-
-                            File modPom = new File( dir, module );
-                            if ( modPom.isDirectory() )
-                            {
-                                modPom = new File( modPom, "pom.xml" );
-                            }
-
-                            if ( modPom.exists() && !seen.contains( modPom )
-                                && !pendingPoms.contains( modPom ) )
-                            {
-                                pendingPoms.addLast( modPom );
-                            }
-                            else
-                            {
-                                logger.debug( "Skipping reference to non-existent module: '" + module + "' in: " + pom );
-                            }
+                            pendingPoms.add( modPom );
+                        }
+                        else
+                        {
+                            logger.debug( "Skipping reference to non-existent module: '" + module.getKey() + "' in: " + pom );
                         }
                     }
                 }
@@ -375,11 +700,11 @@ public class PomIO
                 }
             }
 
-            final HashSet<ProjectVersionRef> projectrefs = new HashSet<>();
+            final Set<ProjectRef> projectrefs = new HashSet<>();
 
-            for ( final PomPeek p : peeked )
+            for ( final PomContent p : peeked )
             {
-                projectrefs.add( p.getKey() );
+                projectrefs.add( p.getKey().asProjectRef() );
 
                 if ( p.getPom()
                       .equals( topLevelParent ) )
@@ -389,10 +714,10 @@ public class PomIO
                 }
             }
 
-            for ( final PomPeek p : peeked )
+            for ( final PomContent p : peeked )
             {
                 if ( p.getParentKey() == null ||
-                     ! seenThisParent(projectrefs, p.getParentKey()))
+                     ! projectrefs.contains( p.getParentKey().asProjectRef() ) )
                 {
                     logger.debug( "Found a standalone pom " + p.getPom() + " :: " + p.getKey() );
                     p.setInheritanceRoot( true );
@@ -403,30 +728,213 @@ public class PomIO
         {
             throw new ManipulationException( "Problem peeking at POMs.", e );
         }
+        finally
+        {
+            if ( executor != null )
+            {
+                executor.shutdownNow();
+            }
+        }
+
+        logger.info( "Peeked at {} POMs in {} ms ({} discovery).", peeked.size(), System.currentTimeMillis() - start,
+                     parallelDiscovery ? "parallel" : "sequential" );
 
         return peeked;
     }
 
     /**
-     * Search the list of project references to establish if this parent reference exists in them. This
-     * determines whether the module is inheriting something inside the project or an external reference.
+     * Concurrently peek at the supplied POM and every currently pending POM, storing the results for the
+     * sequential walk in {@link #peekAtPomHierarchy(File)} to consume.
+     */
+    private void prefetch( final ExecutorService executor, final String topDir, final File pom,
+                           final PendingPoms pendingPoms, final Map<File, PeekTask> prefetched )
+        throws IOException, ManipulationException
+    {
+        final List<PeekTask> tasks = new ArrayList<>( pendingPoms.size() + 1 );
+        tasks.add( new PeekTask( pom, topDir, modelCache ) );
+        for ( final File pending : pendingPoms )
+        {
+            if ( !prefetched.containsKey( pending ) )
+            {
+                tasks.add( new PeekTask( pending, topDir, modelCache ) );
+            }
+        }
 
-     * @param projectrefs
-     * @param parentKey
-     * @return
+        try
+        {
+            for ( final Future<PeekTask> f : executor.invokeAll( tasks ) )
+            {
+                final PeekTask task = f.get();
+                prefetched.put( task.pom, task );
+            }
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new ManipulationException( "Interrupted while peeking at POMs.", e );
+        }
+        catch ( final ExecutionException e )
+        {
+            if ( e.getCause() instanceof IOException )
+            {
+                throw (IOException) e.getCause();
+            }
+            throw new ManipulationException( "Problem peeking at POM: %s", e.getCause(), e.getCause().getMessage() );
+        }
+    }
+
+    /**
+     * The content a POM was read from and a copy of its model as parsed, from which {@link PomPatcher} derives the
+     * edits to splice into that content.
      */
-    private boolean seenThisParent(final HashSet<ProjectVersionRef> projectrefs, final ProjectVersionRef parentKey)
+    private static final class PatchSource
     {
-        for (final ProjectVersionRef p : projectrefs)
+        private final PomContent content;
+
+        private final Model model;
+
+        private PatchSource( final PomContent content, final Model model )
         {
-            if ( p.versionlessEquals( parentKey ))
+            this.content = content;
+            this.model = model;
+        }
+    }
+
+    /**
+     * FIFO queue of POMs still to be peeked at, with constant time membership checks.
+     */
+    private static final class PendingPoms
+        implements Iterable<File>
+    {
+        private final LinkedList<File> queue = new LinkedList<>();
+
+        private final Set<File> members = new HashSet<>();
+
+        private void add( final File pom )
+        {
+            if ( members.add( pom ) )
             {
-                return true;
+                queue.addLast( pom );
             }
         }
-        return false;
+
+        private File removeFirst()
+        {
+            final File pom = queue.removeFirst();
+            members.remove( pom );
+            return pom;
+        }
+
+        private boolean contains( final File pom )
+        {
+            return members.contains( pom );
+        }
+
+        private boolean isEmpty()
+        {
+            return queue.isEmpty();
+        }
+
+        private int size()
+        {
+            return queue.size();
+        }
+
+        @Override
+        public Iterator<File> iterator()
+        {
+            return Collections.unmodifiableList( queue ).iterator();
+        }
     }
 
+    private static int ioThreads()
+    {
+        return Math.min( MAX_IO_THREADS, Runtime.getRuntime().availableProcessors() );
+    }
+
+    /**
+     * Reads and peeks at a single POM and resolves the files referenced by its parent relativePath and modules. This
+     * is the I/O bound portion of the hierarchy walk and is safe to run concurrently.
+     */
+    private static final class PeekTask
+        implements Callable<PeekTask>
+    {
+        private final File pom;
+
+        private final String topDir;
+
+        private final ModelCache modelCache;
+
+        private PomContent content;
+
+        /**
+         * The canonical parent POM referenced via relativePath, or null.
+         */
+        private File parent;
+
+        /**
+         * Whether {@link #parent} exists and is within the top level directory.
+         */
+        private boolean parentInTree;
+
+        /**
+         * Module name to module POM ; the value is null if the module POM does not exist.
+         */
+        private final Map<String, File> modules = new LinkedHashMap<>();
+
+        private PeekTask( final File pom, final String topDir, final ModelCache modelCache )
+        {
+            this.pom = pom;
+            this.topDir = topDir;
+            this.modelCache = modelCache;
+        }
+
+        @Override
+        public PeekTask call()
+            throws IOException
+        {
+            content = PomContent.read( pom );
+            if ( modelCache != null )
+            {
+                modelCache.load( content );
+            }
+
+            if ( content.getKey() == null )
+            {
+                return this;
+            }
+
+            final File dir = pom.getParentFile();
+
+            final String relPath = content.getParentRelativePath();
+            if ( relPath != null )
+            {
+                parent = new File( dir, relPath );
+                if ( parent.isDirectory() )
+                {
+                    parent = new File( parent, "pom.xml" );
+                }
+
+                parent = parent.getCanonicalFile();
+                parentInTree = parent.getParentFile().getCanonicalPath().startsWith( topDir ) && parent.exists();
+            }
+
+            final Set<String> moduleNames = content.getModules();
+            if ( moduleNames != null )
+            {
+                for ( final String module : moduleNames )
+                {
+                    File modPom = new File( dir, module );
+                    if ( modPom.isDirectory() )
+                    {
+                        modPom = new File( modPom, "pom.xml" );
+                    }
+                    modules.put( module, modPom.exists() ? modPom : null );
+                }
+            }
+            return this;
+        }
+    }
 
     private static LineSeparator determineEOL( File pom )
         throws ManipulationException
@@ -0,0 +1,506 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io;
+
+import org.apache.maven.model.BuildBase;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.ModelBase;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginManagement;
+import org.apache.maven.model.Profile;
+
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Rewrites a POM by splicing changed element values into the original text rather than re-serializing a document
+ * tree. Only the text content of version elements (project, parent, dependencies, plugins and their managed and
+ * profile counterparts) and of properties is patched ; everything else in the file is copied through untouched so the
+ * formatting is preserved by construction.
+ * <p>
+ * The edits are derived by comparing the model originally parsed from the text with the modified model, and are
+ * applied to the original model as well. If the two models are not then structurally equal the modification includes
+ * some other kind of change (added or removed elements, changed coordinates, ...) that is not representable as a
+ * patch, and no patch is produced so that the caller falls back to a full rewrite.
+ */
+final class PomPatcher
+{
+    private static final String MODEL_PACKAGE = "org.apache.maven.model.";
+
+    private static final Set<String> IGNORED_FIELDS = new HashSet<>(
+                    Arrays.asList( "locations", "pomFile", "inheritanceApplied", "key", "executionMap", "pluginMap",
+                                   "reportSetMap" ) );
+
+    private static final ConcurrentMap<Class<?>, List<Field>> FIELDS = new ConcurrentHashMap<>();
+
+    private final Map<String, String> edits = new LinkedHashMap<>();
+
+    private PomPatcher()
+    {
+    }
+
+    /**
+     * @param original the original POM text.
+     * @param originalModel the model parsed from the original text. It is updated with the edits so callers must
+     *                      pass a copy of any model that is still in use.
+     * @param model the modified model.
+     * @param modifiedBy if non-null, the text of a comment that replaces any top level comment containing
+     *                   {@code marker} and is appended after the root element.
+     * @param marker identifies comments replaced by {@code modifiedBy}.
+     * @param eol the line separator of the original text.
+     * @return the patched text, or null if the modified model differs other than in patchable values or the original
+     * text could not be patched.
+     */
+    static String patch( final String original, final Model originalModel, final Model model, final String modifiedBy,
+                         final String marker, final String eol )
+    {
+        final PomPatcher patcher = new PomPatcher();
+        patcher.diff( originalModel, model );
+        if ( !equal( originalModel, model ) )
+        {
+            return null;
+        }
+        return patcher.apply( original, modifiedBy, marker, eol );
+    }
+
+    private void diff( final Model o, final Model m )
+    {
+        final String project = "/project[0]";
+        if ( text( project + "/version[0]", o.getVersion(), m.getVersion() ) )
+        {
+            o.setVersion( m.getVersion() );
+        }
+        if ( o.getParent() != null && m.getParent() != null
+                        && text( project + "/parent[0]/version[0]", o.getParent().getVersion(),
+                                 m.getParent().getVersion() ) )
+        {
+            o.getParent().setVersion( m.getParent().getVersion() );
+        }
+        modelBase( project, o, m );
+        build( project + "/build[0]", o.getBuild(), m.getBuild() );
+
+        final List<Profile> op = o.getProfiles();
+        final List<Profile> mp = m.getProfiles();
+        if ( op.size() == mp.size() )
+        {
+            for ( int i = 0; i < op.size(); i++ )
+            {
+                final String profile = project + "/profiles[0]/profile[" + i + "]";
+                modelBase( profile, op.get( i ), mp.get( i ) );
+                build( profile + "/build[0]", op.get( i ).getBuild(), mp.get( i ).getBuild() );
+            }
+        }
+    }
+
+    private void modelBase( final String path, final ModelBase o, final ModelBase m )
+    {
+        final Properties op = o.getProperties();
+        final Properties mp = m.getProperties();
+        for ( final String key : op.stringPropertyNames() )
+        {
+            if ( text( path + "/properties[0]/" + key + "[0]", op.getProperty( key ), mp.getProperty( key ) ) )
+            {
+                op.setProperty( key, mp.getProperty( key ) );
+            }
+        }
+
+        dependencies( path + "/dependencies[0]", o.getDependencies(), m.getDependencies() );
+
+        final DependencyManagement odm = o.getDependencyManagement();
+        final DependencyManagement mdm = m.getDependencyManagement();
+        if ( odm != null && mdm != null )
+        {
+            dependencies( path + "/dependencyManagement[0]/dependencies[0]", odm.getDependencies(),
+                          mdm.getDependencies() );
+        }
+    }
+
+    private void build( final String path, final BuildBase o, final BuildBase m )
+    {
+        if ( o == null || m == null )
+        {
+            return;
+        }
+        plugins( path + "/plugins[0]", o.getPlugins(), m.getPlugins() );
+
+        final PluginManagement opm = o.getPluginManagement();
+        final PluginManagement mpm = m.getPluginManagement();
+        if ( opm != null && mpm != null )
+        {
+            plugins( path + "/pluginManagement[0]/plugins[0]", opm.getPlugins(), mpm.getPlugins() );
+        }
+    }
+
+    private void plugins( final String path, final List<Plugin> o, final List<Plugin> m )
+    {
+        if ( o.size() != m.size() )
+        {
+            return;
+        }
+        for ( int i = 0; i < o.size(); i++ )
+        {
+            final String plugin = path + "/plugin[" + i + "]";
+            if ( text( plugin + "/version[0]", o.get( i ).getVersion(), m.get( i ).getVersion() ) )
+            {
+                o.get( i ).setVersion( m.get( i ).getVersion() );
+            }
+            dependencies( plugin + "/dependencies[0]", o.get( i ).getDependencies(), m.get( i ).getDependencies() );
+        }
+    }
+
+    private void dependencies( final String path, final List<Dependency> o, final List<Dependency> m )
+    {
+        if ( o.size() != m.size() )
+        {
+            return;
+        }
+        for ( int i = 0; i < o.size(); i++ )
+        {
+            if ( text( path + "/dependency[" + i + "]/version[0]", o.get( i ).getVersion(), m.get( i ).getVersion() ) )
+            {
+                o.get( i ).setVersion( m.get( i ).getVersion() );
+            }
+        }
+    }
+
+    /**
+     * @return whether an edit was recorded, in which case the caller applies it to the original model.
+     */
+    private boolean text( final String path, final String o, final String m )
+    {
+        if ( o != null && m != null && !o.equals( m ) )
+        {
+            edits.put( path, m );
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Compare two values field by field, recursing into the model classes and comparing lists and maps element-wise.
+     * Anything else (e.g. the {@link Xpp3Dom} of plugin configuration) is compared with equals. Input locations and
+     * fields that only cache derived data are ignored.
+     */
+    static boolean equal( final Object o, final Object m )
+    {
+        if ( o == m )
+        {
+            return true;
+        }
+        if ( o == null || m == null || o.getClass() != m.getClass() )
+        {
+            return false;
+        }
+        if ( o instanceof List )
+        {
+            final List<?> ol = (List<?>) o;
+            final List<?> ml = (List<?>) m;
+            if ( ol.size() != ml.size() )
+            {
+                return false;
+            }
+            for ( int i = 0; i < ol.size(); i++ )
+            {
+                if ( !equal( ol.get( i ), ml.get( i ) ) )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if ( o instanceof Map )
+        {
+            final Map<?, ?> om = (Map<?, ?>) o;
+            final Map<?, ?> mm = (Map<?, ?>) m;
+            if ( om.size() != mm.size() )
+            {
+                return false;
+            }
+            for ( final Map.Entry<?, ?> entry : om.entrySet() )
+            {
+                if ( !mm.containsKey( entry.getKey() ) || !equal( entry.getValue(), mm.get( entry.getKey() ) ) )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if ( !o.getClass().getName().startsWith( MODEL_PACKAGE ) )
+        {
+            return o.equals( m );
+        }
+        try
+        {
+            for ( final Field field : fields( o.getClass() ) )
+            {
+                if ( !equal( field.get( o ), field.get( m ) ) )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        catch ( final IllegalAccessException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private static List<Field> fields( final Class<?> type )
+    {
+        List<Field> result = FIELDS.get( type );
+        if ( result == null )
+        {
+            result = new ArrayList<>();
+            for ( Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass() )
+            {
+                for ( final Field field : c.getDeclaredFields() )
+                {
+                    if ( !Modifier.isStatic( field.getModifiers() ) && !IGNORED_FIELDS.contains( field.getName() ) )
+                    {
+                        field.setAccessible( true );
+                        result.add( field );
+                    }
+                }
+            }
+            FIELDS.putIfAbsent( type, result );
+        }
+        return result;
+    }
+
+    /**
+     * Scan the original text, tracking the element path of each start tag, and splice in the new value for every
+     * element with an edit.
+     */
+    private String apply( final String original, final String modifiedBy, final String marker, final String eol )
+    {
+        final List<int[]> ranges = new ArrayList<>();
+        final List<String> replacements = new ArrayList<>();
+
+        final Deque<String> paths = new ArrayDeque<>();
+        final Deque<Integer> contentStarts = new ArrayDeque<>();
+        final Deque<Map<String, Integer>> siblings = new ArrayDeque<>();
+        siblings.push( new HashMap<String, Integer>() );
+
+        int applied = 0;
+        int rootEnd = -1;
+        int i = 0;
+        final int len = original.length();
+        while ( i < len )
+        {
+            final char c = original.charAt( i );
+            if ( c != '<' )
+            {
+                final int next = original.indexOf( '<', i );
+                i = next < 0 ? len : next;
+            }
+            else if ( original.startsWith( "<!--", i ) )
+            {
+                final int end = original.indexOf( "-->", i + 4 );
+                if ( end < 0 )
+                {
+                    return null;
+                }
+                if ( modifiedBy != null && paths.isEmpty() && original.substring( i, end ).contains( marker ) )
+                {
+                    // Remove the comment along with the whitespace preceding it.
+                    int start = i;
+                    while ( start > 0 && Character.isWhitespace( original.charAt( start - 1 ) ) )
+                    {
+                        start--;
+                    }
+                    ranges.add( new int[] { start, end + 3 } );
+                    replacements.add( "" );
+                }
+                i = end + 3;
+            }
+            else if ( original.startsWith( "<![CDATA[", i ) )
+            {
+                final int end = original.indexOf( "]]>", i );
+                if ( end < 0 )
+                {
+                    return null;
+                }
+                i = end + 3;
+            }
+            else if ( original.startsWith( "<?", i ) || original.startsWith( "<!", i ) )
+            {
+                final int end = original.indexOf( '>', i );
+                if ( end < 0 )
+                {
+                    return null;
+                }
+                i = end + 1;
+            }
+            else if ( original.startsWith( "</", i ) )
+            {
+                final int end = original.indexOf( '>', i );
+                if ( end < 0 || paths.isEmpty() )
+                {
+                    return null;
+                }
+                final String path = paths.pop();
+                final int contentStart = contentStarts.pop();
+                siblings.pop();
+
+                final String value = edits.get( path );
+                if ( value != null )
+                {
+                    ranges.add( new int[] { contentStart, i } );
+                    replacements.add( escape( value ) );
+                    applied++;
+                }
+                i = end + 1;
+                if ( paths.isEmpty() )
+                {
+                    rootEnd = i;
+                }
+            }
+            else
+            {
+                final int end = tagEnd( original, i );
+                if ( end < 0 )
+                {
+                    return null;
+                }
+                int nameEnd = i + 1;
+                while ( nameEnd < end && !Character.isWhitespace( original.charAt( nameEnd ) )
+                                && original.charAt( nameEnd ) != '/' && original.charAt( nameEnd ) != '>' )
+                {
+                    nameEnd++;
+                }
+                final String name = original.substring( i + 1, nameEnd );
+                final Map<String, Integer> counts = siblings.peek();
+                final Integer count = counts.get( name );
+                final int index = count == null ? 0 : count;
+                counts.put( name, index + 1 );
+
+                if ( original.charAt( end - 1 ) != '/' )
+                {
+                    paths.push( ( paths.isEmpty() ? "" : paths.peek() ) + '/' + name + '[' + index + ']' );
+                    contentStarts.push( end + 1 );
+                    siblings.push( new HashMap<String, Integer>() );
+                }
+                else if ( paths.isEmpty() )
+                {
+                    rootEnd = end + 1;
+                }
+                i = end + 1;
+            }
+        }
+
+        if ( rootEnd < 0 || applied != edits.size() )
+        {
+            // Malformed, or an edited element was not found (e.g. it is self-closing).
+            return null;
+        }
+
+        final StringBuilder result = new StringBuilder( len + 256 );
+        int last = 0;
+        boolean appended = false;
+        for ( int r = 0; r < ranges.size(); r++ )
+        {
+            final int[] range = ranges.get( r );
+            if ( modifiedBy != null && !appended && range[0] >= rootEnd )
+            {
+                result.append( original, last, rootEnd ).append( eol ).append( "<!--" ).append( modifiedBy )
+                      .append( "-->" );
+                last = rootEnd;
+                appended = true;
+            }
+            result.append( original, last, range[0] ).append( replacements.get( r ) );
+            last = range[1];
+        }
+        if ( modifiedBy != null && !appended )
+        {
+            result.append( original, last, rootEnd ).append( eol ).append( "<!--" ).append( modifiedBy )
+                  .append( "-->" );
+            last = rootEnd;
+        }
+        result.append( original, last, len );
+        return result.toString();
+    }
+
+    /**
+     * @return the index of the '&gt;' closing the start tag beginning at {@code start}, skipping quoted attribute
+     * values, or -1 if there is none.
+     */
+    private static int tagEnd( final String text, final int start )
+    {
+        char quote = 0;
+        for ( int i = start + 1; i < text.length(); i++ )
+        {
+            final char c = text.charAt( i );
+            if ( quote != 0 )
+            {
+                if ( c == quote )
+                {
+                    quote = 0;
+                }
+            }
+            else if ( c == '"' || c == '\'' )
+            {
+                quote = c;
+            }
+            else if ( c == '>' )
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String escape( final String value )
+    {
+        final StringBuilder sb = new StringBuilder( value.length() );
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            final char c = value.charAt( i );
+            switch ( c )
+            {
+                case '&':
+                    sb.append( "&amp;" );
+                    break;
+                case '<':
+                    sb.append( "&lt;" );
+                    break;
+                case '>':
+                    sb.append( "&gt;" );
+                    break;
+                default:
+                    sb.append( c );
+            }
+        }
+        return sb.toString();
+    }
+}
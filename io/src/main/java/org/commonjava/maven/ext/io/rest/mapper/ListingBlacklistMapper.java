@@ -17,7 +17,7 @@ package org.commonjava.maven.ext.io.rest.mapper;
 
 import com.mashape.unirest.http.ObjectMapper;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
-import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.maven.ext.common.model.CoordinatePool;
 import org.commonjava.maven.ext.io.rest.Translator.RestProtocol;
 import org.commonjava.maven.ext.io.rest.exception.RestException;
 import org.slf4j.Logger;
@@ -98,7 +98,7 @@ public class ListingBlacklistMapper
             String artifactId = (String) gav.get( "artifactId" );
             String version = (String) gav.get( "version" );
 
-            ProjectVersionRef project = new SimpleProjectVersionRef( groupId, artifactId, version );
+            ProjectVersionRef project = CoordinatePool.projectVersionRef( groupId, artifactId, version );
             result.add ( project );
         }
 
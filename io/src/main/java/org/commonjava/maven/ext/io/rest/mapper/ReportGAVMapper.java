@@ -18,7 +18,7 @@ package org.commonjava.maven.ext.io.rest.mapper;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.mashape.unirest.http.ObjectMapper;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
-import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.maven.ext.common.model.CoordinatePool;
 import org.commonjava.maven.ext.io.rest.Translator;
 import org.commonjava.maven.ext.io.rest.exception.RestException;
 import org.slf4j.Logger;
@@ -104,8 +104,8 @@ public class ReportGAVMapper
 
                 if ( bestMatchVersion != null )
                 {
-                    ProjectVersionRef project = new SimpleProjectVersionRef( groupId, artifactId, version );
-                    result.put( project, bestMatchVersion );
+                    ProjectVersionRef project = CoordinatePool.projectVersionRef( groupId, artifactId, version );
+                    result.put( project, CoordinatePool.intern( bestMatchVersion ) );
                 }
             }
         }
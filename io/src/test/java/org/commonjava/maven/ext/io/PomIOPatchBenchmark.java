@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.commonjava.maven.ext.common.model.GAV;
+import org.commonjava.maven.ext.common.model.Project;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares rewriting the modules of a reactor after a version alignment with the JDOM writer and with the patch
+ * writer, and compares the structural check the patch writer uses to accept a patch with re-parsing the patched text
+ * and comparing serialized models. Only run by the benchmark profile i.e. {@code mvn test -Pbenchmark}.
+ */
+public class PomIOPatchBenchmark
+{
+    private static final int MODULES = 1000;
+
+    private static final int DEPENDENCIES = 20;
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void rewritePOMs()
+                    throws Exception
+    {
+        // Warm up both writers.
+        rewrite( false );
+        rewrite( true );
+
+        final long jdom = rewrite( false );
+        final long patched = rewrite( true );
+
+        logger.info( "Rewrote {} POMs in {} ms with the JDOM writer and {} ms with the patch writer", MODULES, jdom,
+                     patched );
+    }
+
+    @Test
+    public void verifyPatch()
+                    throws Exception
+    {
+        final List<String> texts = new ArrayList<>( MODULES );
+        for ( int i = 0; i < MODULES; i++ )
+        {
+            texts.add( module( i ) );
+        }
+
+        // Warm up both checks.
+        verify( texts, false );
+        verify( texts, true );
+
+        final long reparsed = verify( texts, false );
+        final long structural = verify( texts, true );
+
+        logger.info( "Verified {} patches in {} ms by re-parsing and serializing and {} ms structurally", MODULES,
+                     reparsed, structural );
+    }
+
+    private long rewrite( final boolean patchWriter )
+                    throws Exception
+    {
+        final File root = createReactor();
+        final Properties p = new Properties();
+        p.setProperty( PomIO.PATCH_WRITER, Boolean.toString( patchWriter ) );
+
+        final PomIO pomIO = new PomIO();
+        pomIO.init( folder.newFolder(), p );
+        final List<Project> projects = pomIO.parseProject( root );
+
+        final HashSet<Project> changed = new HashSet<>();
+        for ( final Project project : projects.subList( 1, projects.size() ) )
+        {
+            align( project.getModel() );
+            changed.add( project );
+        }
+
+        final long start = System.currentTimeMillis();
+        pomIO.rewritePOMs( new GAV(), changed );
+        final long elapsed = System.currentTimeMillis() - start;
+
+        assertTrue( FileUtils.readFileToString( projects.get( 1 ).getPom() ).contains( "1.0.redhat-1" ) );
+        return elapsed;
+    }
+
+    private long verify( final List<String> texts, final boolean structural )
+                    throws Exception
+    {
+        long elapsed = 0;
+        for ( final String text : texts )
+        {
+            final Model original = new MavenXpp3Reader().read( new StringReader( text ) );
+            final Model model = original.clone();
+            align( model );
+
+            final long start = System.nanoTime();
+            final String patched = PomPatcher.patch( text, original, model, null, "marker", "\n" );
+            assertTrue( patched != null );
+            if ( !structural )
+            {
+                assertTrue( canonical( new MavenXpp3Reader().read( new StringReader( patched ) ) ).equals(
+                                canonical( model ) ) );
+            }
+            elapsed += System.nanoTime() - start;
+        }
+        return elapsed / 1000000;
+    }
+
+    private static void align( final Model model )
+    {
+        model.getParent().setVersion( "1.0.redhat-1" );
+        for ( final Dependency dependency : model.getDependencies() )
+        {
+            dependency.setVersion( dependency.getVersion() + ".redhat-1" );
+        }
+    }
+
+    private static String canonical( final Model model )
+                    throws IOException
+    {
+        final StringWriter writer = new StringWriter();
+        new MavenXpp3Writer().write( writer, model );
+        return writer.toString();
+    }
+
+    private File createReactor()
+                    throws IOException
+    {
+        final File dir = folder.newFolder();
+        final StringBuilder root = new StringBuilder( "<project>\n" );
+        root.append( "  <modelVersion>4.0.0</modelVersion>\n" )
+            .append( "  <groupId>org.foo</groupId>\n" )
+            .append( "  <artifactId>root</artifactId>\n" )
+            .append( "  <version>1.0</version>\n" )
+            .append( "  <packaging>pom</packaging>\n" )
+            .append( "  <modules>\n" );
+        for ( int i = 0; i < MODULES; i++ )
+        {
+            root.append( "    <module>module-" ).append( i ).append( "</module>\n" );
+            FileUtils.writeStringToFile( new File( dir, "module-" + i + "/pom.xml" ), module( i ) );
+        }
+        root.append( "  </modules>\n</project>\n" );
+
+        final File pom = new File( dir, "pom.xml" );
+        FileUtils.writeStringToFile( pom, root.toString() );
+        return pom;
+    }
+
+    private static String module( final int i )
+    {
+        final StringBuilder module = new StringBuilder( "<project>\n" );
+        module.append( "  <modelVersion>4.0.0</modelVersion>\n" )
+              .append( "  <parent>\n" )
+              .append( "    <groupId>org.foo</groupId>\n" )
+              .append( "    <artifactId>root</artifactId>\n" )
+              .append( "    <version>1.0</version>\n" )
+              .append( "  </parent>\n" )
+              .append( "  <artifactId>module-" ).append( i ).append( "</artifactId>\n" )
+              .append( "  <dependencies>\n" );
+        for ( int d = 0; d < DEPENDENCIES; d++ )
+        {
+            module.append( "    <dependency>\n" )
+                  .append( "      <groupId>org.bar</groupId>\n" )
+                  .append( "      <artifactId>bar-" ).append( d ).append( "</artifactId>\n" )
+                  .append( "      <version>" ).append( d ).append( ".0</version>\n" )
+                  .append( "    </dependency>\n" );
+        }
+        module.append( "  </dependencies>\n</project>\n" );
+        return module.toString();
+    }
+}
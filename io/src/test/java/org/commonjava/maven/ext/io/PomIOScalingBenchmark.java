@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io;
+
+import org.apache.commons.io.FileUtils;
+import org.commonjava.maven.ext.common.model.Project;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures how reading and linking a reactor grows with the number of modules. Only run by the benchmark profile
+ * i.e. {@code mvn test -Pbenchmark}.
+ */
+public class PomIOScalingBenchmark
+{
+    private static final String HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                    + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                    + "  <modelVersion>4.0.0</modelVersion>\n";
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void parseProject()
+                    throws Exception
+    {
+        // Warm up the parsers so the smallest reactor isn't dominated by class loading and JIT.
+        parse( createReactor( 100 ), 100 );
+
+        final long small = parse( createReactor( 100 ), 100 );
+        final long medium = parse( createReactor( 1000 ), 1000 );
+        final long large = parse( createReactor( 10000 ), 10000 );
+
+        logger.info( "Parsed reactors of 100, 1000 and 10000 modules in {}, {} and {} ms", small, medium, large );
+    }
+
+    private long parse( final File root, final int modules )
+                    throws Exception
+    {
+        final long start = System.currentTimeMillis();
+        final List<Project> projects = new PomIO().parseProject( root );
+        final long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals( modules + 1, projects.size() );
+        return elapsed;
+    }
+
+    private File createReactor( final int modules )
+                    throws IOException
+    {
+        final File dir = folder.newFolder();
+        final StringBuilder root = new StringBuilder( HEADER );
+        root.append( "  <groupId>org.foo</groupId>\n" )
+            .append( "  <artifactId>root</artifactId>\n" )
+            .append( "  <version>1.0</version>\n" )
+            .append( "  <packaging>pom</packaging>\n" )
+            .append( "  <modules>\n" );
+
+        for ( int i = 0; i < modules; i++ )
+        {
+            root.append( "    <module>module-" ).append( i ).append( "</module>\n" );
+
+            final String module = HEADER
+                            + "  <parent>\n"
+                            + "    <groupId>org.foo</groupId>\n"
+                            + "    <artifactId>root</artifactId>\n"
+                            + "    <version>1.0</version>\n"
+                            + "  </parent>\n"
+                            + "  <artifactId>module-" + i + "</artifactId>\n"
+                            + "  <dependencies>\n"
+                            + "    <dependency>\n"
+                            + "      <groupId>org.foo</groupId>\n"
+                            + "      <artifactId>module-" + ( i == 0 ? 0 : i - 1 ) + "</artifactId>\n"
+                            + "      <version>${project.version}</version>\n"
+                            + "    </dependency>\n"
+                            + "  </dependencies>\n"
+                            + "</project>\n";
+            FileUtils.writeStringToFile( new File( dir, "module-" + i + "/pom.xml" ), module );
+        }
+        root.append( "  </modules>\n</project>\n" );
+
+        final File pom = new File( dir, "pom.xml" );
+        FileUtils.writeStringToFile( pom, root.toString() );
+        return pom;
+    }
+}
@@ -16,6 +16,8 @@
 package org.commonjava.maven.ext.io;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.reflect.FieldUtils;
 import org.apache.maven.model.Model;
 import org.commonjava.maven.ext.common.model.GAV;
 import org.commonjava.maven.ext.common.model.Project;
@@ -26,11 +28,26 @@ import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
 import java.net.URL;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
 
 public class PomIOTest
 {
@@ -76,6 +93,334 @@ public class PomIOTest
         assertTrue( FileUtils.contentEquals( targetFile, pom ) );
     }
 
+    @Test
+    public void testRewriteMultiplePOMs()
+                    throws Exception
+    {
+        URL resource = PomIOTest.class.getResource( filename );
+        assertNotNull( resource );
+        File pom = new File( resource.getFile() );
+
+        HashSet<Project> changed = new HashSet<>();
+        for ( int i = 0; i < 10; i++ )
+        {
+            File targetFile = new File( folder.newFolder(), "pom.xml" );
+            FileUtils.copyFile( pom, targetFile );
+
+            Project p = pomIO.parseProject( targetFile ).get( 0 );
+            p.getModel().setVersion( "1.0." + i );
+            changed.add( new Project( targetFile, p.getModel() ) );
+        }
+
+        pomIO.rewritePOMs( new GAV(), changed );
+
+        for ( Project p : changed )
+        {
+            String result = FileUtils.readFileToString( p.getPom() );
+            assertTrue( result.contains( "<version>" + p.getModel().getVersion() + "</version>\r\n" ) );
+            assertEquals( 1, p.getPom().getParentFile().list().length );
+        }
+    }
+
+    @Test
+    public void testRewriteSkipsUnchangedPOMs()
+                    throws Exception
+    {
+        File root = writeReactor();
+        File child = new File( folder.getRoot(), "child/pom.xml" );
+        long timestamp = child.lastModified() - 60000;
+        assertTrue( child.setLastModified( timestamp ) );
+
+        List<Project> projects = pomIO.parseProject( root );
+        Project p = projects.get( 1 );
+        assertEquals( child, p.getPom() );
+
+        assertTrue( pomIO.rewritePOMs( new GAV(), Collections.singleton( p ) ).isEmpty() );
+        assertEquals( timestamp, child.lastModified() );
+
+        p.getModel().getParent().setVersion( "1.1" );
+        assertEquals( Collections.singleton( p ), pomIO.rewritePOMs( new GAV(), Collections.singleton( p ) ) );
+        assertTrue( FileUtils.readFileToString( child ).contains( "<version>1.1</version>" ) );
+    }
+
+    @Test
+    public void testRewritePreservesSymlinkAndPermissions()
+                    throws Exception
+    {
+        assumeTrue( FileSystems.getDefault().supportedFileAttributeViews().contains( "posix" ) );
+
+        URL resource = PomIOTest.class.getResource( filename );
+        assertNotNull( resource );
+
+        File real = new File( folder.newFolder( "real" ), "pom.xml" );
+        FileUtils.copyFile( new File( resource.getFile() ), real );
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString( "rw-r-----" );
+        Files.setPosixFilePermissions( real.toPath(), permissions );
+
+        File link = new File( folder.newFolder( "link" ), "pom.xml" );
+        Files.createSymbolicLink( link.toPath(), real.toPath() );
+
+        Project p = pomIO.parseProject( link ).get( 0 );
+        p.getModel().setVersion( "1.1" );
+        pomIO.rewritePOMs( new GAV(), Collections.singleton( p ) );
+
+        assertTrue( Files.isSymbolicLink( link.toPath() ) );
+        assertTrue( FileUtils.readFileToString( real ).contains( "<version>1.1</version>" ) );
+        assertEquals( permissions, Files.getPosixFilePermissions( real.toPath() ) );
+        assertEquals( 1, link.getParentFile().list().length );
+        assertEquals( 1, real.getParentFile().list().length );
+    }
+
+    @Test
+    public void testParseProjectWithModelCache()
+                    throws Exception
+    {
+        File root = writeReactor();
+        File child = new File( folder.getRoot(), "child/pom.xml" );
+
+        File cache = folder.newFolder( "manipulator-cache" );
+        Properties p = new Properties();
+        p.setProperty( PomIO.POM_CACHE, "true" );
+        pomIO.init( cache, p );
+
+        List<Project> uncached = pomIO.parseProject( root );
+        File cacheDir = new File( cache, "pom-models" );
+        // Module models are loaded (and cached) on first access.
+        assertEquals( 1, cacheDir.list().length );
+
+        // Modifications after parsing must not leak into the cache.
+        uncached.get( 1 ).getModel().setArtifactId( "modified" );
+        assertEquals( 2, cacheDir.list().length );
+
+        List<Project> cached = pomIO.parseProject( root );
+        assertEquals( 2, cached.size() );
+        assertEquals( root, cached.get( 0 ).getPom() );
+        assertEquals( child, cached.get( 1 ).getPom() );
+        assertEquals( "child", cached.get( 1 ).getModel().getArtifactId() );
+        assertEquals( uncached.get( 0 ).getKey(), cached.get( 0 ).getKey() );
+        assertTrue( cached.get( 0 ).isInheritanceRoot() );
+        assertEquals( cached.get( 0 ), cached.get( 1 ).getProjectParent() );
+
+        // A changed POM is keyed by its new content.
+        FileUtils.writeStringToFile( child, FileUtils.readFileToString( child ).replace( ">child<", ">other<" ) );
+        cached = pomIO.parseProject( root );
+        assertEquals( "other", cached.get( 1 ).getModel().getArtifactId() );
+        assertEquals( 3, cacheDir.list().length );
+
+        // Entries are only evicted once the run completes, including those stored on lazy model loads.
+        p.setProperty( PomIO.POM_CACHE_SIZE, "0" );
+        pomIO.init( cache, p );
+        FileUtils.writeStringToFile( child, FileUtils.readFileToString( child ).replace( ">other<", ">another<" ) );
+        cached = pomIO.parseProject( root );
+        assertEquals( 3, cacheDir.list().length );
+        assertEquals( "another", cached.get( 1 ).getModel().getArtifactId() );
+        assertEquals( 4, cacheDir.list().length );
+        pomIO.release();
+        assertEquals( 0, cacheDir.list().length );
+    }
+
+    @Test
+    public void testPatchWriter()
+                    throws Exception
+    {
+        String original = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                        + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                        + "  <modelVersion>4.0.0</modelVersion>\n"
+                        + "  <groupId>org.foo</groupId>\n"
+                        + "  <artifactId>root</artifactId>\n"
+                        + "  <version>1.0</version>\n"
+                        + "\n"
+                        + "  <properties>\n"
+                        + "    <!-- unusual   formatting is kept -->\n"
+                        + "    <bar.version>   2.0 </bar.version>\n"
+                        + "  </properties>\n"
+                        + "  <profiles>\n"
+                        + "    <profile><id>one</id>\n"
+                        + "      <dependencies>\n"
+                        + "        <dependency>\n"
+                        + "          <groupId>org.bar</groupId><artifactId>bar</artifactId>\n"
+                        + "          <version>${bar.version}</version>\n"
+                        + "        </dependency>\n"
+                        + "        <dependency>\n"
+                        + "          <groupId>org.baz</groupId><artifactId>baz</artifactId>\n"
+                        + "          <version>3.0</version>\n"
+                        + "        </dependency>\n"
+                        + "      </dependencies>\n"
+                        + "    </profile>\n"
+                        + "  </profiles>\n"
+                        + "</project>\n";
+        File root = folder.newFile( "pom.xml" );
+        FileUtils.writeStringToFile( root, original );
+
+        Properties p = new Properties();
+        p.setProperty( PomIO.PATCH_WRITER, "true" );
+        pomIO.init( folder.newFolder( "target" ), p );
+
+        List<Project> projects = pomIO.parseProject( root );
+        Model model = projects.get( 0 ).getModel();
+        model.setVersion( "1.0.redhat-1" );
+        model.getProperties().setProperty( "bar.version", "2.0.redhat-1" );
+        model.getProfiles().get( 0 ).getDependencies().get( 1 ).setVersion( "3.0.redhat-1" );
+        pomIO.rewritePOMs( new GAV(), Collections.singleton( projects.get( 0 ) ) );
+
+        String patched = FileUtils.readFileToString( root );
+        assertTrue( patched.startsWith( original.replace( "<version>1.0</version>", "<version>1.0.redhat-1</version>" )
+                                                .replace( "   2.0 ", "2.0.redhat-1" )
+                                                .replace( "3.0</", "3.0.redhat-1</" )
+                                                .replace( "</project>\n", "</project>\n<!--\n" + "Modified by" ) ) );
+        assertEquals( 1, StringUtils.countMatches( patched, "Modified by" ) );
+
+        // A second pass replaces rather than duplicates the comment.
+        projects = pomIO.parseProject( root );
+        projects.get( 0 ).getModel().setVersion( "1.0.redhat-2" );
+        pomIO.rewritePOMs( new GAV(), Collections.singleton( projects.get( 0 ) ) );
+        patched = FileUtils.readFileToString( root );
+        assertTrue( patched.contains( "<version>1.0.redhat-2</version>" ) );
+        assertTrue( patched.contains( "<!-- unusual   formatting is kept -->" ) );
+        assertEquals( 1, StringUtils.countMatches( patched, "Modified by" ) );
+
+        // Structural changes fall back to a full rewrite.
+        projects = pomIO.parseProject( root );
+        projects.get( 0 ).getModel().getProfiles().get( 0 ).getDependencies().remove( 0 );
+        pomIO.rewritePOMs( new GAV(), Collections.singleton( projects.get( 0 ) ) );
+        projects = pomIO.parseProject( root );
+        assertEquals( 1, projects.get( 0 ).getModel().getProfiles().get( 0 ).getDependencies().size() );
+        assertEquals( 1, StringUtils.countMatches( FileUtils.readFileToString( root ), "Modified by" ) );
+    }
+
+    @Test
+    public void testPatchSourcesReleased()
+                    throws Exception
+    {
+        File root = writeReactor();
+        Properties p = new Properties();
+        p.setProperty( PomIO.PATCH_WRITER, "true" );
+        pomIO.init( folder.newFolder( "target" ), p );
+
+        List<Project> projects = pomIO.parseProject( root );
+        projects.get( 1 ).getModel();
+        Map<?, ?> patchSources = (Map<?, ?>) FieldUtils.readField( pomIO, "patchSources", true );
+        assertEquals( 2, patchSources.size() );
+
+        // Released even when nothing is written.
+        assertTrue( pomIO.rewritePOMs( new GAV(), Collections.<Project>emptySet() ).isEmpty() );
+        assertTrue( patchSources.isEmpty() );
+
+        pomIO.parseProject( root );
+        assertEquals( 1, patchSources.size() );
+        pomIO.release();
+        assertTrue( patchSources.isEmpty() );
+    }
+
+    @Test
+    public void testModuleModelsLoadedLazily()
+                    throws Exception
+    {
+        File root = writeReactor();
+
+        List<Project> projects = pomIO.parseProject( root );
+        assertTrue( projects.get( 0 ).isModelLoaded() );
+        assertFalse( projects.get( 1 ).isModelLoaded() );
+        assertEquals( "org.foo:child:1.0", projects.get( 1 ).getKey().toString() );
+        assertEquals( projects.get( 0 ), projects.get( 1 ).getProjectParent() );
+
+        assertEquals( "child", projects.get( 1 ).getModel().getArtifactId() );
+        assertTrue( projects.get( 1 ).isModelLoaded() );
+
+        // An invalid module only fails once its model is requested.
+        File child = new File( folder.getRoot(), "child/pom.xml" );
+        FileUtils.writeStringToFile( child, FileUtils.readFileToString( child )
+                                                     .replace( "</project>", "<foo/></project>" ) );
+        projects = pomIO.parseProject( root );
+        try
+        {
+            projects.get( 1 ).getModel();
+            fail( "Expected failure parsing " + child );
+        }
+        catch ( Project.ModelLoadException e )
+        {
+            assertTrue( e.getCause().getMessage().contains( child.toString() ) );
+        }
+        // The loader is released and the failure is kept, so a repeated request reports it again.
+        try
+        {
+            projects.get( 1 ).getModel();
+            fail( "Expected failure parsing " + child );
+        }
+        catch ( Project.ModelLoadException e )
+        {
+            assertTrue( e.getCause().getMessage().contains( child.toString() ) );
+        }
+    }
+
+    @Test
+    public void testParseProjectLinksModules()
+                    throws Exception
+    {
+        File root = writeReactor();
+        File nested = new File( folder.getRoot(), "child/pom.xml" );
+        FileUtils.writeStringToFile( nested, FileUtils.readFileToString( nested ).replace(
+                        "</project>", "  <modules>\n    <module>a</module>\n    <module>b</module>\n  </modules>\n"
+                                        + "</project>" ) );
+        for ( String module : new String[] { "a", "b" } )
+        {
+            FileUtils.writeStringToFile( new File( folder.getRoot(), "child/" + module + "/pom.xml" ),
+                                         "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                                                         + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                                                         + "  <modelVersion>4.0.0</modelVersion>\n"
+                                                         + "  <parent>\n"
+                                                         + "    <groupId>org.foo</groupId>\n"
+                                                         + "    <artifactId>child</artifactId>\n"
+                                                         + "    <version>1.0</version>\n"
+                                                         + "  </parent>\n"
+                                                         + "  <artifactId>" + module + "</artifactId>\n"
+                                                         + "</project>\n" );
+        }
+
+        List<Project> projects = pomIO.parseProject( root );
+        assertEquals( 4, projects.size() );
+
+        Map<String, Project> byArtifactId = new HashMap<>();
+        for ( Project p : projects )
+        {
+            byArtifactId.put( p.getArtifactId(), p );
+        }
+        Project top = projects.get( 0 );
+        assertEquals( "root", top.getArtifactId() );
+        assertTrue( top.isInheritanceRoot() );
+        assertNull( top.getProjectParent() );
+        assertSame( top, byArtifactId.get( "child" ).getProjectParent() );
+        assertSame( byArtifactId.get( "child" ), byArtifactId.get( "a" ).getProjectParent() );
+        assertSame( byArtifactId.get( "child" ), byArtifactId.get( "b" ).getProjectParent() );
+        assertFalse( byArtifactId.get( "a" ).isInheritanceRoot() );
+    }
+
+    @Test
+    public void testParseProjectCapturesContent()
+                    throws Exception
+    {
+        URL resource = PomIOTest.class.getResource( filename );
+        assertNotNull( resource );
+        File pom = new File( resource.getFile() );
+
+        File targetFile = folder.newFile( "pom.xml" );
+        FileUtils.copyFile( pom, targetFile );
+
+        List<Project> projects = pomIO.parseProject( targetFile );
+        assertEquals( 1, projects.size() );
+
+        Project p = projects.get( 0 );
+        assertTrue( p.isExecutionRoot() );
+        assertFalse( p.isIncrementalPME() );
+        assertEquals( "\r\n", p.getLineSeparator() );
+        assertEquals( "dospom", p.getModel().getArtifactId() );
+
+        pomIO.rewritePOMs( new GAV(), new HashSet<>( projects ) );
+
+        projects = pomIO.parseProject( targetFile );
+        assertTrue( projects.get( 0 ).isIncrementalPME() );
+        assertEquals( "\r\n", projects.get( 0 ).getLineSeparator() );
+    }
 
     @Test
     public void testWriteModel()
@@ -108,4 +453,33 @@ public class PomIOTest
         assertTrue( targetFile.exists() );
         assertEquals( sb, FileUtils.readFileToString( targetFile ) );
     }
+
+    private File writeReactor()
+                    throws Exception
+    {
+        File root = folder.newFile( "pom.xml" );
+        FileUtils.writeStringToFile( root, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                        + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                        + "  <modelVersion>4.0.0</modelVersion>\n"
+                        + "  <groupId>org.foo</groupId>\n"
+                        + "  <artifactId>root</artifactId>\n"
+                        + "  <version>1.0</version>\n"
+                        + "  <packaging>pom</packaging>\n"
+                        + "  <modules>\n"
+                        + "    <module>child</module>\n"
+                        + "  </modules>\n"
+                        + "</project>\n" );
+        File child = new File( folder.newFolder( "child" ), "pom.xml" );
+        FileUtils.writeStringToFile( child, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                        + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                        + "  <modelVersion>4.0.0</modelVersion>\n"
+                        + "  <parent>\n"
+                        + "    <groupId>org.foo</groupId>\n"
+                        + "    <artifactId>root</artifactId>\n"
+                        + "    <version>1.0</version>\n"
+                        + "  </parent>\n"
+                        + "  <artifactId>child</artifactId>\n"
+                        + "</project>\n" );
+        return root;
+    }
 }
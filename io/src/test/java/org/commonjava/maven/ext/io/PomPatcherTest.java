@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc. (jcasey@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.Test;
+
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PomPatcherTest
+{
+    private static final String POM = "<project>\n"
+                    + "  <modelVersion>4.0.0</modelVersion>\n"
+                    + "  <groupId>org.foo</groupId>\n"
+                    + "  <artifactId>root</artifactId>\n"
+                    + "  <version>1.0</version>\n"
+                    + "  <dependencies>\n"
+                    + "    <dependency>\n"
+                    + "      <groupId>org.bar</groupId>\n"
+                    + "      <artifactId>bar</artifactId>\n"
+                    + "      <version>2.0</version>\n"
+                    + "    </dependency>\n"
+                    + "  </dependencies>\n"
+                    + "  <build>\n"
+                    + "    <plugins>\n"
+                    + "      <plugin>\n"
+                    + "        <artifactId>maven-foo-plugin</artifactId>\n"
+                    + "        <version>3.0</version>\n"
+                    + "        <configuration><skip>true</skip></configuration>\n"
+                    + "      </plugin>\n"
+                    + "    </plugins>\n"
+                    + "  </build>\n"
+                    + "</project>\n";
+
+    @Test
+    public void testPatchVersions()
+                    throws Exception
+    {
+        Model model = parse();
+        model.setVersion( "1.0.redhat-1" );
+        model.getDependencies().get( 0 ).setVersion( "2.0.redhat-1" );
+        model.getBuild().getPlugins().get( 0 ).setVersion( "3.0.redhat-1" );
+
+        assertEquals( POM.replace( "1.0<", "1.0.redhat-1<" )
+                         .replace( "2.0<", "2.0.redhat-1<" )
+                         .replace( "3.0<", "3.0.redhat-1<" ),
+                      PomPatcher.patch( POM, parse(), model, null, "marker", "\n" ) );
+    }
+
+    @Test
+    public void testUnpatchableChanges()
+                    throws Exception
+    {
+        Model model = parse();
+        model.setVersion( "1.0.redhat-1" );
+        model.getDependencies().get( 0 ).setGroupId( "org.baz" );
+        assertNull( PomPatcher.patch( POM, parse(), model, null, "marker", "\n" ) );
+
+        model = parse();
+        model.getDependencies().remove( 0 );
+        assertNull( PomPatcher.patch( POM, parse(), model, null, "marker", "\n" ) );
+
+        model = parse();
+        Plugin plugin = model.getBuild().getPlugins().get( 0 );
+        ( (Xpp3Dom) plugin.getConfiguration() ).getChild( "skip" ).setValue( "false" );
+        assertNull( PomPatcher.patch( POM, parse(), model, null, "marker", "\n" ) );
+    }
+
+    @Test
+    public void testUnchangedModelsAreEqual()
+                    throws Exception
+    {
+        Model model = parse();
+        // Derived keys cached by one copy but not the other are ignored.
+        model.getBuild().getPluginsAsMap();
+        model.getDependencies().get( 0 ).getManagementKey();
+
+        assertEquals( POM, PomPatcher.patch( POM, parse(), model, null, "marker", "\n" ) );
+    }
+
+    private static Model parse()
+                    throws Exception
+    {
+        return new MavenXpp3Reader().read( new StringReader( POM ) );
+    }
+}